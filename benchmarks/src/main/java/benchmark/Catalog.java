@@ -0,0 +1,114 @@
+package benchmark;
+
+import model.InHouse;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic inventories for the benchmarks.
+ * <p>
+ *     Parts are split evenly between in-house and outsourced, named like "Steel Bracket M48213", and supplied by a few
+ *     hundred companies. There is one product for every ten parts, each associating two to eight parts, with some
+ *     parts used by many products and most by few or none, as in a real catalog.
+ * </p>
+ * <p>
+ *     The same size and seed always generate the same inventory.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+final class Catalog {
+
+    private static final String[] MATERIALS = {
+            "Steel", "Aluminum", "Brass", "Copper", "Titanium", "Carbon", "Rubber", "Nylon", "Chrome", "Cast Iron"
+    };
+    private static final String[] NOUNS = {
+            "Bracket", "Bolt", "Washer", "Spring", "Shock", "Wheel", "Tire", "Bearing", "Gasket", "Hinge",
+            "Valve", "Piston", "Sprocket", "Chain", "Axle", "Clamp", "Bushing", "Rotor", "Caliper", "Hose"
+    };
+    private static final int COMPANIES = 300;
+
+    final List<Part> parts;
+    final List<Product> products;
+
+    private Catalog(List<Part> parts, List<Product> products) {
+        this.parts = parts;
+        this.products = products;
+    }
+
+    /**
+     * Generates an inventory. Parts and products are given IDs from 1 upward.
+     * Associations are made by {@link #associate(long)}, once the products are in the inventory.
+     *
+     * @param size  number of parts
+     * @param seed  random seed
+     * @return      the parts and products
+     */
+    static Catalog generate(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Part> parts = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) parts.add(part(id, random));
+
+        int productCount = Math.max(1, size / 10);
+        List<Product> products = new ArrayList<>(productCount);
+        for (int id = 1; id <= productCount; id++) {
+            int min = 1 + random.nextInt(5);
+            int max = min + 10 + random.nextInt(200);
+            products.add(new Product(id, name(random) + " Kit", price(random) * 4, min + random.nextInt(max - min), min, max));
+        }
+        return new Catalog(parts, products);
+    }
+
+    /**
+     * Creates a random part.
+     *
+     * @param id        ID of the part
+     * @param random    source of randomness
+     * @return          an in-house or outsourced part
+     */
+    static Part part(int id, SplittableRandom random) {
+        int min = 1 + random.nextInt(10);
+        int max = min + 10 + random.nextInt(500);
+        int stock = min + random.nextInt(max - min);
+        if (random.nextBoolean())
+            return new InHouse(id, name(random), price(random), stock, min, max, 1 + random.nextInt(64));
+        return new Outsourced(id, name(random), price(random), stock, min, max, "Supplier " + random.nextInt(COMPANIES) + ", LLC");
+    }
+
+    /**
+     * Associates two to eight parts with every product.
+     * Parts are picked with a skew towards low IDs, so a few parts are shared by many products.
+     * Call once the products are in the inventory, so the associations are indexed.
+     *
+     * @param seed  random seed
+     */
+    void associate(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (Product product : products) {
+            int count = 2 + random.nextInt(7);
+            for (int i = 0; i < count; i++) product.addAssociatedPart(parts.get(skewed(random, parts.size())));
+        }
+    }
+
+    /**
+     * Picks an index with a skew towards zero: the square of a uniform fraction.
+     */
+    static int skewed(SplittableRandom random, int bound) {
+        double u = random.nextDouble();
+        return (int) (u * u * bound);
+    }
+
+    private static String name(SplittableRandom random) {
+        return MATERIALS[random.nextInt(MATERIALS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)]
+                + " M" + (10000 + random.nextInt(90000));
+    }
+
+    private static double price(SplittableRandom random) {
+        return Math.round((0.5 + random.nextDouble() * 500) * 100) / 100.0;
+    }
+}
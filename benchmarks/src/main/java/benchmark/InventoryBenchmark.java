@@ -0,0 +1,181 @@
+package benchmark;
+
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the inventory operations the screens depend on, over catalogs of 1 thousand to 10 million parts.
+ * <p>
+ *     The inventory is static, so every catalog size runs in its own forked JVM and is generated once per fork.
+ *     Operations that change the inventory undo themselves, or alternate between two copies of a part,
+ *     so the catalog keeps its size for the whole run.
+ * </p>
+ * <p>
+ *     Run a subset with, for example, "java -jar benchmarks.jar lookupPart -p size=1000,100000".
+ *     The 10 million part catalog needs a large heap; change it with "-jvmArgsAppend -Xmx...".
+ * </p>
+ *
+ * @author Alex Bright
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx16g"})
+public class InventoryBenchmark {
+
+    private static final int SAMPLES = 4096;
+    private static final long SEED = 482;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private int[] ids;
+    private String[] queries;
+    private Part[] current;
+    private Part[] spare;
+    private Part[] shared;
+    private Part[] sharedSpare;
+    private int next;
+
+    /**
+     * Fills the inventory with a generated catalog and picks the parts each benchmark works on.
+     */
+    @Setup(Level.Trial)
+    public void fill() {
+        Catalog catalog = Catalog.generate(size, SEED);
+        Inventory.addAllParts(catalog.parts);
+        Inventory.addAllProducts(catalog.products);
+        catalog.associate(SEED);
+
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        ids = new int[SAMPLES];
+        queries = new String[SAMPLES];
+        current = new Part[SAMPLES];
+        spare = new Part[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            Part part = catalog.parts.get(random.nextInt(size));
+            ids[i] = part.getId();
+            String name = part.getName();
+            queries[i] = name.substring(name.indexOf(' ') + 1).toLowerCase();
+            current[i] = part;
+        }
+
+        // Distinct parts only, so replacing one never finds it already replaced by an earlier sample
+        List<Part> distinct = new ArrayList<>();
+        for (Part part : current) if (!distinct.contains(part)) distinct.add(part);
+        current = distinct.toArray(new Part[0]);
+        spare = new Part[current.length];
+        for (int i = 0; i < current.length; i++) spare[i] = copy(current[i]);
+
+        List<Part> used = new ArrayList<>();
+        for (int i = 0; i < size && used.size() < SAMPLES; i++) {
+            Part part = catalog.parts.get(i);
+            if (!Inventory.getProductsUsingPart(part.getId()).isEmpty() && !distinct.contains(part)) used.add(part);
+        }
+        shared = used.toArray(new Part[0]);
+        sharedSpare = new Part[shared.length];
+        for (int i = 0; i < shared.length; i++) sharedSpare[i] = copy(shared[i]);
+    }
+
+    @Benchmark
+    public Part lookupPartById() {
+        return Inventory.lookupPart(ids[next++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public List<Part> lookupPartByName() {
+        return Inventory.lookupPart(queries[next++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public int getNextPartId() {
+        return Inventory.getNextPartId();
+    }
+
+    /**
+     * Totals the value of every part from the columns of the part store.
+     */
+    @Benchmark
+    public double totalPartValue() {
+        double[] total = new double[1];
+        Inventory.read(() -> total[0] = Inventory.getPartStore().totalValue());
+        return total[0];
+    }
+
+    /**
+     * Totals the value of every part by visiting the part objects, for comparison with {@link #totalPartValue()}.
+     */
+    @Benchmark
+    public double totalPartValueByVisit() {
+        double[] total = new double[1];
+        Inventory.forEachPart(p -> total[0] += p.getPrice() * p.getStock());
+        return total[0];
+    }
+
+    /**
+     * Replaces a part with an equal copy, swapping the two so the next replacement of it goes the other way.
+     */
+    @Benchmark
+    public boolean updatePart() {
+        int i = next++ % current.length;
+        Part oldPart = current[i];
+        Part newPart = spare[i];
+        current[i] = newPart;
+        spare[i] = oldPart;
+        return Inventory.updatePart(oldPart, newPart);
+    }
+
+    /**
+     * Deletes a part and adds it back, so the catalog keeps its size.
+     */
+    @Benchmark
+    public boolean deletePart() {
+        Part part = current[next++ % current.length];
+        boolean deleted = Inventory.deletePart(part);
+        Inventory.addPart(part);
+        return deleted;
+    }
+
+    /**
+     * Replaces a part used by products and moves its associations to the replacement,
+     * as the ModifyPart screen does when it saves.
+     */
+    @Benchmark
+    public boolean rewirePart() {
+        int i = next++ % shared.length;
+        Part oldPart = shared[i];
+        Part newPart = sharedSpare[i];
+        shared[i] = newPart;
+        sharedSpare[i] = oldPart;
+        return Inventory.replacePart(oldPart, newPart);
+    }
+
+    private static Part copy(Part part) {
+        if (part instanceof InHouse)
+            return new InHouse(part.getId(), part.getName(), part.getPrice(), part.getStock(), part.getMin(), part.getMax(),
+                    ((InHouse) part).getMachineId());
+        return new Outsourced(part.getId(), part.getName(), part.getPrice(), part.getStock(), part.getMin(), part.getMax(),
+                ((Outsourced) part).getCompanyName());
+    }
+}
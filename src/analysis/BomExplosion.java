@@ -0,0 +1,212 @@
+package analysis;
+
+import model.Inventory;
+import model.InventoryListener;
+import model.Part;
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Explodes multi-level bills of materials into the total parts each product needs.
+ * <p>
+ *     A product needs the associated units of each of its parts, plus everything its components need,
+ *     multiplied by how many of each component it includes. Explosions are memoized per product, so a
+ *     sub-assembly shared by many products is exploded once, and a deep tree costs one pass over its nodes.
+ * </p>
+ * <p>
+ *     When a product changes, through its parts, its components or being replaced or deleted, only its own
+ *     explosion and those of the products that include it, directly or further up, are thrown away.
+ *     A bill of materials that includes itself is reported with the products on the cycle.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class BomExplosion implements InventoryListener {
+
+    private final Map<Integer, Map<Integer, Long>> exploded = new HashMap<>();
+    private final Map<Integer, Set<Integer>> includedBy = new HashMap<>();
+
+    private BomExplosion() {
+    }
+
+    /**
+     * Starts following the inventory's products.
+     *
+     * @return  the explosion service
+     */
+    public static BomExplosion attach() {
+        BomExplosion bom = new BomExplosion();
+        Inventory.read(() -> {
+            Inventory.addListener(bom);
+            for (Product p : Inventory.snapshotProducts()) bom.link(p);
+        });
+        return bom;
+    }
+
+    /**
+     * Stops following the inventory.
+     */
+    public void detach() {
+        Inventory.removeListener(this);
+    }
+
+    /**
+     * Totals the parts needed to build one unit of a product, through every level of components.
+     * Components no longer in the inventory need nothing.
+     *
+     * @param product   the product
+     * @return          units needed of each part, keyed by part ID in ascending order
+     * @throws IllegalStateException    if the product includes itself, directly or through its components
+     */
+    public Map<Integer, Long> explode(Product product) {
+        List<Map<Integer, Long>> result = new ArrayList<>(1);
+        Inventory.read(() -> {
+            synchronized (this) {
+                result.add(explode(product, new LinkedHashSet<>()));
+            }
+        });
+        return result.get(0);
+    }
+
+    /**
+     * Tests if including one product in another would make a bill of materials include itself.
+     *
+     * @param product   the product that would include the component
+     * @param component the product that would be included
+     * @return          true if the component already includes the product, directly or further down
+     */
+    public boolean wouldCycle(Product product, Product component) {
+        return wouldCycle(product.getId(), component.getId());
+    }
+
+    /**
+     * Tests if including one product in another would make a bill of materials include itself,
+     * searching the components of the products in the inventory.
+     *
+     * @param productId     ID of the product that would include the component
+     * @param componentId   ID of the product that would be included
+     * @return              true if the component is the product or already includes it, directly or further down
+     */
+    public static boolean wouldCycle(int productId, int componentId) {
+        boolean[] cycle = new boolean[1];
+        Inventory.read(() -> cycle[0] = includes(componentId, productId, new HashSet<>()));
+        return cycle[0];
+    }
+
+    @Override
+    public void productAdded(Product product) {
+        link(product);
+        changed(product.getId());
+    }
+
+    @Override
+    public void productUpdated(Product oldProduct, Product newProduct) {
+        unlink(oldProduct);
+        link(newProduct);
+        changed(oldProduct.getId());
+        changed(newProduct.getId());
+    }
+
+    @Override
+    public void productDeleted(Product product) {
+        unlink(product);
+        changed(product.getId());
+    }
+
+    @Override
+    public void partAssociated(Product product, Part part, int quantity) {
+        changed(product.getId());
+    }
+
+    @Override
+    public void partDisassociated(Product product, Part part, int quantity) {
+        changed(product.getId());
+    }
+
+    @Override
+    public synchronized void componentChanged(Product product, int componentId, int quantity) {
+        Set<Integer> parents = includedBy.computeIfAbsent(componentId, k -> new HashSet<>());
+        if (quantity > 0) parents.add(product.getId());
+        else if (parents.remove(product.getId()) && parents.isEmpty()) includedBy.remove(componentId);
+        changed(product.getId());
+    }
+
+    private Map<Integer, Long> explode(Product product, LinkedHashSet<Integer> path) {
+        int id = product.getId();
+        boolean inInventory = Inventory.lookupProduct(id) == product;
+        Map<Integer, Long> memo = inInventory ? exploded.get(id) : null;
+        if (memo != null) return memo;
+        if (!path.add(id)) throw new IllegalStateException("Product " + id + " includes itself: " + cycle(path, id));
+
+        TreeMap<Integer, Long> needs = new TreeMap<>();
+        for (Part p : product.getAllAssociatedParts()) needs.put(p.getId(), (long) product.getAssociatedQuantity(p));
+        for (Map.Entry<Integer, Integer> e : product.getComponents().entrySet()) {
+            Product component = Inventory.lookupProduct(e.getKey());
+            if (component == null) continue;
+            long units = e.getValue();
+            for (Map.Entry<Integer, Long> need : explode(component, path).entrySet())
+                needs.merge(need.getKey(), Math.multiplyExact(need.getValue(), units), Math::addExact);
+        }
+        path.remove(id);
+
+        Map<Integer, Long> result = Collections.unmodifiableMap(needs);
+        if (inInventory) exploded.put(id, result);
+        return result;
+    }
+
+    private static String cycle(LinkedHashSet<Integer> path, int id) {
+        StringBuilder names = new StringBuilder();
+        boolean on = false;
+        for (int step : path) {
+            if (step == id) on = true;
+            if (on) names.append(step).append(" -> ");
+        }
+        return names.append(id).toString();
+    }
+
+    private static boolean includes(int productId, int targetId, Set<Integer> seen) {
+        if (productId == targetId) return true;
+        if (!seen.add(productId)) return false;
+        Product product = Inventory.lookupProduct(productId);
+        if (product == null) return false;
+        for (int componentId : product.getComponents().keySet())
+            if (includes(componentId, targetId, seen)) return true;
+        return false;
+    }
+
+    private synchronized void link(Product product) {
+        for (int componentId : product.getComponents().keySet())
+            includedBy.computeIfAbsent(componentId, k -> new HashSet<>()).add(product.getId());
+    }
+
+    private synchronized void unlink(Product product) {
+        for (int componentId : product.getComponents().keySet()) {
+            Set<Integer> parents = includedBy.get(componentId);
+            if (parents != null && parents.remove(product.getId()) && parents.isEmpty()) includedBy.remove(componentId);
+        }
+    }
+
+    /**
+     * Throws away the explosions of a product and of every product that includes it.
+     */
+    private synchronized void changed(int productId) {
+        List<Integer> stale = new ArrayList<>();
+        stale.add(productId);
+        Set<Integer> seen = new HashSet<>(stale);
+        while (!stale.isEmpty()) {
+            int id = stale.remove(stale.size() - 1);
+            exploded.remove(id);
+            for (int parent : includedBy.getOrDefault(id, Collections.emptySet()))
+                if (seen.add(parent)) stale.add(parent);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package analysis;
+
+import model.AssociatedParts;
+import model.Inventory;
+import model.InventoryListener;
+import model.Part;
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps how many units of every product can be assembled from the current part stock, and which part is the bottleneck.
+ * <p>
+ *     A product needs the associated units of each of its parts, so it can be built as many times as the lowest
+ *     part stock divided by that part's units allows. A product without associated parts has nothing to build from
+ *     and can be built 0 times.
+ * </p>
+ * <p>
+ *     When a part's stock changes, only the products using it are looked at, and most of those in constant time:
+ *     a falling stock can only lower a product's quantity to the part's own limit, and a rising stock only matters
+ *     to the products it was the bottleneck of, which are recomputed from their parts.
+ * </p>
+ * <p>
+ *     Changes are seen through {@link InventoryListener}, which is told about parts restocked in place through
+ *     {@link Part#setStock(int)} or {@link Inventory#adjustPartStock(int, int)} as well as replaced ones.
+ *     Results are read under the inventory's read lock and are always consistent with it.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class BuildPlanner implements InventoryListener {
+
+    /**
+     * A product's buildable quantity and bottleneck.
+     */
+    private static final class Build {
+        int quantity;
+        Part bottleneck;
+    }
+
+    /**
+     * A part's stock as last seen, and how many times each product using it associates it.
+     */
+    private static final class Usage {
+        int stock;
+        final Map<Product, int[]> users = new IdentityHashMap<>(4);
+
+        Usage(int stock) {
+            this.stock = stock;
+        }
+    }
+
+    private final IdentityHashMap<Product, Build> builds = new IdentityHashMap<>();
+    private final IdentityHashMap<Part, Usage> usages = new IdentityHashMap<>();
+
+    private BuildPlanner() {
+    }
+
+    /**
+     * Computes the buildable quantity of every product in the inventory and keeps them up to date from then on.
+     *
+     * @return  the planner
+     */
+    public static BuildPlanner attach() {
+        BuildPlanner planner = new BuildPlanner();
+        Inventory.read(() -> {
+            Inventory.addListener(planner);
+            for (Product p : Inventory.snapshotProducts()) planner.track(p);
+        });
+        return planner;
+    }
+
+    /**
+     * Stops keeping the quantities up to date.
+     */
+    public void detach() {
+        Inventory.removeListener(this);
+    }
+
+    /**
+     * Retrieves how many units of a product can be built.
+     *
+     * @param product   the product
+     * @return          the buildable quantity, computed on the spot if the product is not in the inventory
+     */
+    public BuildableQuantity get(Product product) {
+        BuildableQuantity[] result = new BuildableQuantity[1];
+        Inventory.read(() -> {
+            Build build = builds.get(product);
+            if (build == null) build = compute(product);
+            result[0] = new BuildableQuantity(product, build.quantity, build.bottleneck);
+        });
+        return result[0];
+    }
+
+    /**
+     * Retrieves how many units of every product in the inventory can be built.
+     *
+     * @return  the buildable quantities, in order of product ID
+     */
+    public List<BuildableQuantity> getAll() {
+        List<BuildableQuantity> all = new ArrayList<>();
+        Inventory.read(() -> {
+            for (Map.Entry<Product, Build> e : builds.entrySet())
+                all.add(new BuildableQuantity(e.getKey(), e.getValue().quantity, e.getValue().bottleneck));
+        });
+        all.sort(Comparator.comparingInt(b -> b.getProduct().getId()));
+        return all;
+    }
+
+    @Override
+    public void productAdded(Product product) {
+        track(product);
+    }
+
+    @Override
+    public void productUpdated(Product oldProduct, Product newProduct) {
+        if (oldProduct == newProduct) return;
+        untrack(oldProduct);
+        track(newProduct);
+    }
+
+    @Override
+    public void productDeleted(Product product) {
+        untrack(product);
+    }
+
+    @Override
+    public void partAssociated(Product product, Part part, int quantity) {
+        if (!builds.containsKey(product)) return;
+        use(part, product, quantity);
+        builds.put(product, compute(product));
+    }
+
+    @Override
+    public void partDisassociated(Product product, Part part, int quantity) {
+        if (!builds.containsKey(product)) return;
+        release(part, product, quantity);
+        builds.put(product, compute(product));
+    }
+
+    @Override
+    public void partAdded(Part part) {
+        restocked(part);
+    }
+
+    @Override
+    public void partUpdated(Part oldPart, Part newPart) {
+        restocked(oldPart);
+        if (newPart != oldPart) restocked(newPart);
+    }
+
+    private void track(Product product) {
+        if (builds.containsKey(product)) return;
+        AssociatedParts parts = product.getAssociatedParts();
+        for (int i = 0; i < parts.size(); i++) use(parts.get(i), product, parts.quantityAt(i));
+        builds.put(product, compute(product));
+    }
+
+    private void untrack(Product product) {
+        if (builds.remove(product) == null) return;
+        AssociatedParts parts = product.getAssociatedParts();
+        for (int i = 0; i < parts.size(); i++) release(parts.get(i), product, parts.quantityAt(i));
+    }
+
+    /**
+     * Updates the products using a part after its stock changed.
+     */
+    private void restocked(Part part) {
+        Usage usage = usages.get(part);
+        if (usage == null || usage.stock == part.getStock()) return;
+        boolean rose = part.getStock() > usage.stock;
+        usage.stock = part.getStock();
+        for (Map.Entry<Product, int[]> e : usage.users.entrySet()) {
+            Product product = e.getKey();
+            Build build = builds.get(product);
+            int limit = usage.stock / e.getValue()[0];
+            if (build.bottleneck == part) {
+                if (rose) builds.put(product, compute(product));
+                else build.quantity = limit;
+            } else if (limit < build.quantity) {
+                build.quantity = limit;
+                build.bottleneck = part;
+            }
+        }
+    }
+
+    /**
+     * Computes a product's buildable quantity from its associated parts.
+     */
+    private static Build compute(Product product) {
+        Build build = new Build();
+        AssociatedParts parts = product.getAssociatedParts();
+        if (parts.isEmpty()) return build;
+        build.quantity = Integer.MAX_VALUE;
+        for (int i = 0; i < parts.size(); i++) {
+            int limit = parts.get(i).getStock() / parts.quantityAt(i);
+            if (limit < build.quantity) {
+                build.quantity = limit;
+                build.bottleneck = parts.get(i);
+            }
+        }
+        return build;
+    }
+
+    private void use(Part part, Product product, int units) {
+        Usage usage = usages.get(part);
+        if (usage == null) {
+            usage = new Usage(part.getStock());
+            usages.put(part, usage);
+        }
+        usage.users.computeIfAbsent(product, k -> new int[1])[0] += units;
+    }
+
+    private void release(Part part, Product product, int units) {
+        Usage usage = usages.get(part);
+        if (usage == null) return;
+        int[] count = usage.users.get(product);
+        if (count == null) return;
+        if ((count[0] -= units) <= 0) usage.users.remove(product);
+        if (usage.users.isEmpty()) usages.remove(part);
+    }
+}
@@ -0,0 +1,50 @@
+package analysis;
+
+import model.Part;
+import model.Product;
+
+/**
+ * How many units of a product can be assembled from the parts in stock, and which part runs out first.
+ *
+ * @author Alex Bright
+ */
+public class BuildableQuantity {
+
+    private final Product product;
+    private final int quantity;
+    private final Part bottleneck;
+
+    /**
+     * Creates a buildable quantity.
+     *
+     * @param product       the product
+     * @param quantity      units that can be assembled
+     * @param bottleneck    the part limiting the quantity, otherwise null if the product has no parts
+     */
+    public BuildableQuantity(Product product, int quantity, Part bottleneck) {
+        this.product = product;
+        this.quantity = quantity;
+        this.bottleneck = bottleneck;
+    }
+
+    /**
+     * @return  the product
+     */
+    public Product getProduct() {
+        return product;
+    }
+
+    /**
+     * @return  units that can be assembled
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * @return  the part limiting the quantity, otherwise null if the product has no parts
+     */
+    public Part getBottleneck() {
+        return bottleneck;
+    }
+}
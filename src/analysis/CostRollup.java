@@ -0,0 +1,234 @@
+package analysis;
+
+import model.AssociatedParts;
+import model.Inventory;
+import model.InventoryListener;
+import model.Part;
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the total cost of every product's associated parts, and the products whose parts cost more than they sell for.
+ * <p>
+ *     Totals are updated as the inventory changes instead of being recomputed: an association adds or subtracts
+ *     a part's price times the units associated, and a repriced part moves the total of just the products using it
+ *     by the difference times the units each uses.
+ *     Prices are summed in whole cents, so totals never drift however many changes are applied.
+ * </p>
+ * <p>
+ *     Changes are seen through {@link InventoryListener}, which is told about parts and products repriced in place
+ *     through their setters as well as replaced ones. Results are read under the inventory's read lock and are always
+ *     consistent with it.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class CostRollup implements InventoryListener {
+
+    /**
+     * Cost of one product's parts.
+     */
+    private static final class Rollup {
+        long cents;
+    }
+
+    /**
+     * A part's price as last added to its products' totals, and how many units each product using it associates.
+     */
+    private static final class Usage {
+        long cents;
+        final Map<Product, int[]> users = new IdentityHashMap<>(4);
+
+        Usage(long cents) {
+            this.cents = cents;
+        }
+    }
+
+    private final IdentityHashMap<Product, Rollup> rollups = new IdentityHashMap<>();
+    private final IdentityHashMap<Part, Usage> usages = new IdentityHashMap<>();
+    private final TreeMap<Integer, Product> overCost = new TreeMap<>();
+
+    private CostRollup() {
+    }
+
+    /**
+     * Totals every product in the inventory and keeps the totals up to date from then on.
+     *
+     * @return  the rollup
+     */
+    public static CostRollup attach() {
+        CostRollup rollup = new CostRollup();
+        Inventory.read(() -> {
+            Inventory.addListener(rollup);
+            for (Product p : Inventory.snapshotProducts()) rollup.track(p);
+        });
+        return rollup;
+    }
+
+    /**
+     * Stops keeping the totals up to date.
+     */
+    public void detach() {
+        Inventory.removeListener(this);
+    }
+
+    /**
+     * Retrieves the total price of a product's associated parts.
+     *
+     * @param product   the product
+     * @return          the cost of its parts
+     */
+    public double getPartCost(Product product) {
+        long[] cents = new long[1];
+        Inventory.read(() -> {
+            Rollup rollup = rollups.get(product);
+            if (rollup != null) cents[0] = rollup.cents;
+            else for (Part p : product.getAllAssociatedParts())
+                cents[0] += cents(p.getPrice()) * product.getAssociatedQuantity(p);
+        });
+        return cents[0] / 100.0;
+    }
+
+    /**
+     * Retrieves every product whose associated parts cost more than its price.
+     *
+     * @return  the products, in order of ID
+     */
+    public List<Product> getProductsOverCost() {
+        List<Product> products = new ArrayList<>();
+        Inventory.read(() -> products.addAll(overCost.values()));
+        return products;
+    }
+
+    @Override
+    public void productAdded(Product product) {
+        track(product);
+    }
+
+    @Override
+    public void productUpdated(Product oldProduct, Product newProduct) {
+        if (oldProduct == newProduct) {
+            Rollup rollup = rollups.get(newProduct);
+            if (rollup != null) check(newProduct, rollup);
+            return;
+        }
+        untrack(oldProduct);
+        track(newProduct);
+    }
+
+    @Override
+    public void productDeleted(Product product) {
+        untrack(product);
+    }
+
+    @Override
+    public void partAssociated(Product product, Part part, int quantity) {
+        Rollup rollup = rollups.get(product);
+        if (rollup == null) return;
+        rollup.cents += use(part, product, quantity) * quantity;
+        check(product, rollup);
+    }
+
+    @Override
+    public void partDisassociated(Product product, Part part, int quantity) {
+        Rollup rollup = rollups.get(product);
+        if (rollup == null) return;
+        rollup.cents -= release(part, product, quantity) * quantity;
+        check(product, rollup);
+    }
+
+    @Override
+    public void partAdded(Part part) {
+        repriced(part);
+    }
+
+    @Override
+    public void partUpdated(Part oldPart, Part newPart) {
+        repriced(oldPart);
+        if (newPart != oldPart) repriced(newPart);
+    }
+
+    /**
+     * Totals a product's parts and starts following it.
+     */
+    private void track(Product product) {
+        if (rollups.containsKey(product)) return;
+        Rollup rollup = new Rollup();
+        AssociatedParts associated = product.getAssociatedParts();
+        for (int i = 0; i < associated.size(); i++) {
+            int units = associated.quantityAt(i);
+            rollup.cents += use(associated.get(i), product, units) * units;
+        }
+        rollups.put(product, rollup);
+        check(product, rollup);
+    }
+
+    /**
+     * Stops following a product.
+     */
+    private void untrack(Product product) {
+        if (rollups.remove(product) == null) return;
+        AssociatedParts associated = product.getAssociatedParts();
+        for (int i = 0; i < associated.size(); i++) release(associated.get(i), product, associated.quantityAt(i));
+        overCost.remove(product.getId(), product);
+    }
+
+    /**
+     * Moves the totals of the products using a part by the change in its price.
+     */
+    private void repriced(Part part) {
+        Usage usage = usages.get(part);
+        if (usage == null) return;
+        long delta = cents(part.getPrice()) - usage.cents;
+        if (delta == 0) return;
+        usage.cents += delta;
+        for (Map.Entry<Product, int[]> e : usage.users.entrySet()) {
+            Rollup rollup = rollups.get(e.getKey());
+            rollup.cents += delta * e.getValue()[0];
+            check(e.getKey(), rollup);
+        }
+    }
+
+    /**
+     * Records units of a part associated with a product.
+     *
+     * @return  the part's price in cents
+     */
+    private long use(Part part, Product product, int units) {
+        Usage usage = usages.get(part);
+        if (usage == null) {
+            usage = new Usage(cents(part.getPrice()));
+            usages.put(part, usage);
+        }
+        usage.users.computeIfAbsent(product, k -> new int[1])[0] += units;
+        return usage.cents;
+    }
+
+    /**
+     * Removes units of a part associated with a product.
+     *
+     * @return  the part's price in cents, as it was added to the product's total
+     */
+    private long release(Part part, Product product, int units) {
+        Usage usage = usages.get(part);
+        if (usage == null) return cents(part.getPrice());
+        int[] count = usage.users.get(product);
+        if (count != null && (count[0] -= units) <= 0) usage.users.remove(product);
+        if (usage.users.isEmpty()) usages.remove(part);
+        return usage.cents;
+    }
+
+    private void check(Product product, Rollup rollup) {
+        if (rollup.cents > cents(product.getPrice())) overCost.put(product.getId(), product);
+        else overCost.remove(product.getId(), product);
+    }
+
+    private static long cents(double price) {
+        return Math.round(price * 100);
+    }
+}
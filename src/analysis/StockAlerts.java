@@ -0,0 +1,344 @@
+package analysis;
+
+import model.IntHashMap;
+import model.Inventory;
+import model.InventoryListener;
+import model.Part;
+import model.PartStore;
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToIntFunction;
+
+/**
+ * Watches the inventory levels of parts or products and raises alerts when they run low.
+ * <p>
+ *     Items are kept in a binary heap ordered by their headroom, the inventory level above the minimum, so the most
+ *     at-risk item is always at the top. Each item's heap position is indexed by ID, so an add, change or delete
+ *     moves one entry up or down the heap in O(log n), and nothing is ever rescanned. The heap of parts is first built
+ *     from the columns of the inventory's {@link PartStore}.
+ * </p>
+ * <p>
+ *     An item is low when its headroom is at or below the alert threshold. Subscribers are told when an item becomes
+ *     low and when it recovers. Like {@link InventoryListener}s, they are called on the thread that changed the
+ *     inventory while it is locked, and must return quickly.
+ * </p>
+ *
+ * @param <T>   type of item watched
+ * @author Alex Bright
+ */
+public class StockAlerts<T> {
+
+    /**
+     * Receives low-stock alerts.
+     *
+     * @param <T>   type of item watched
+     */
+    public interface Subscriber<T> {
+
+        /**
+         * Called when an item's headroom falls to or below the alert threshold, or a low item is added.
+         *
+         * @param item      the item
+         * @param headroom  its inventory level above the minimum, negative if below it
+         */
+        void lowStock(T item, int headroom);
+
+        /**
+         * Called when a low item's headroom rises above the alert threshold.
+         *
+         * @param item      the item
+         * @param headroom  its inventory level above the minimum
+         */
+        default void recovered(T item, int headroom) {}
+    }
+
+    /**
+     * An item's place in the heap.
+     */
+    private static final class Entry<T> {
+        T item;
+        int id;
+        int headroom;
+        int index;
+    }
+
+    private final int threshold;
+    private final ToIntFunction<T> idOf;
+    private final ToIntFunction<T> stockOf;
+    private final ToIntFunction<T> minOf;
+    private final List<Subscriber<T>> subscribers = new CopyOnWriteArrayList<>();
+    private final IntHashMap<Entry<T>> entries = new IntHashMap<>();
+    private Entry<T>[] heap = newHeap(16);
+    private int size;
+    private InventoryListener listener;
+
+    private StockAlerts(int threshold, ToIntFunction<T> idOf, ToIntFunction<T> stockOf, ToIntFunction<T> minOf) {
+        this.threshold = threshold;
+        this.idOf = idOf;
+        this.stockOf = stockOf;
+        this.minOf = minOf;
+    }
+
+    /**
+     * Starts watching every part in the inventory.
+     *
+     * @param threshold headroom at or below which a part is low; 0 alerts when a part reaches its minimum
+     * @return          the alerts
+     */
+    public static StockAlerts<Part> forParts(int threshold) {
+        StockAlerts<Part> alerts = new StockAlerts<>(threshold, Part::getId, Part::getStock, Part::getMin);
+        alerts.listener = new InventoryListener() {
+            @Override
+            public void partAdded(Part part) {
+                alerts.added(part);
+            }
+
+            @Override
+            public void partUpdated(Part oldPart, Part newPart) {
+                alerts.updated(oldPart, newPart);
+            }
+
+            @Override
+            public void partDeleted(Part part) {
+                alerts.removed(part);
+            }
+        };
+        Inventory.read(() -> {
+            Inventory.addListener(alerts.listener);
+            PartStore store = Inventory.getPartStore();
+            for (int row = 0; row < store.size(); row++) alerts.load(store.part(row), store.id(row), store.headroom(row));
+            alerts.heapify();
+        });
+        return alerts;
+    }
+
+    /**
+     * Starts watching every product in the inventory.
+     *
+     * @param threshold headroom at or below which a product is low; 0 alerts when a product reaches its minimum
+     * @return          the alerts
+     */
+    public static StockAlerts<Product> forProducts(int threshold) {
+        StockAlerts<Product> alerts = new StockAlerts<>(threshold, Product::getId, Product::getStock, Product::getMin);
+        alerts.listener = new InventoryListener() {
+            @Override
+            public void productAdded(Product product) {
+                alerts.added(product);
+            }
+
+            @Override
+            public void productUpdated(Product oldProduct, Product newProduct) {
+                alerts.updated(oldProduct, newProduct);
+            }
+
+            @Override
+            public void productDeleted(Product product) {
+                alerts.removed(product);
+            }
+        };
+        Inventory.read(() -> {
+            Inventory.addListener(alerts.listener);
+            Inventory.forEachProduct(p -> alerts.load(p, p.getId(), alerts.headroom(p)));
+            alerts.heapify();
+        });
+        return alerts;
+    }
+
+    /**
+     * Stops watching the inventory.
+     */
+    public void detach() {
+        Inventory.removeListener(listener);
+    }
+
+    /**
+     * Subscribes to low-stock alerts.
+     *
+     * @param subscriber    the subscriber to add
+     */
+    public void subscribe(Subscriber<T> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Unsubscribes from low-stock alerts.
+     *
+     * @param subscriber    the subscriber to remove
+     */
+    public void unsubscribe(Subscriber<T> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Retrieves the items with the least headroom, without disturbing the heap.
+     *
+     * @param n number of items to retrieve
+     * @return  up to n items, least headroom first, ties in order of ID
+     */
+    public List<T> mostAtRisk(int n) {
+        List<T> items = new ArrayList<>(Math.min(Math.max(n, 0), 1024));
+        Inventory.read(() -> {
+            if (size == 0 || n <= 0) return;
+            PriorityQueue<Entry<T>> frontier = new PriorityQueue<>(StockAlerts::compare);
+            frontier.add(heap[0]);
+            while (!frontier.isEmpty() && items.size() < n) {
+                Entry<T> e = frontier.poll();
+                items.add(e.item);
+                int child = 2 * e.index + 1;
+                if (child < size) frontier.add(heap[child]);
+                if (child + 1 < size) frontier.add(heap[child + 1]);
+            }
+        });
+        return items;
+    }
+
+    /**
+     * Retrieves every low item.
+     *
+     * @return  the items at or below the alert threshold, least headroom first
+     */
+    public List<T> low() {
+        List<T> items = new ArrayList<>();
+        Inventory.read(() -> {
+            List<Entry<T>> found = new ArrayList<>();
+            collectLow(0, found);
+            found.sort(StockAlerts::compare);
+            for (Entry<T> e : found) items.add(e.item);
+        });
+        return items;
+    }
+
+    private void collectLow(int index, List<Entry<T>> found) {
+        if (index >= size || heap[index].headroom > threshold) return;
+        found.add(heap[index]);
+        collectLow(2 * index + 1, found);
+        collectLow(2 * index + 2, found);
+    }
+
+    /**
+     * Appends an item watched from the start, without ordering the heap or alerting on it.
+     */
+    private void load(T item, int id, int headroom) {
+        Entry<T> e = new Entry<>();
+        e.item = item;
+        e.id = id;
+        e.headroom = headroom;
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        e.index = size;
+        heap[size++] = e;
+        entries.put(id, e);
+    }
+
+    /**
+     * Orders the loaded items into a heap bottom-up, in O(n) rather than a sift per item.
+     */
+    private void heapify() {
+        for (int i = (size >>> 1) - 1; i >= 0; i--) siftDown(i);
+    }
+
+    private void added(T item) {
+        Entry<T> e = entries.get(idOf.applyAsInt(item));
+        if (e != null) {
+            change(e, item);
+            return;
+        }
+        e = new Entry<>();
+        e.item = item;
+        e.id = idOf.applyAsInt(item);
+        e.headroom = headroom(item);
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        e.index = size;
+        heap[size++] = e;
+        entries.put(e.id, e);
+        siftUp(e.index);
+        if (e.headroom <= threshold) for (Subscriber<T> s : subscribers) s.lowStock(item, e.headroom);
+    }
+
+    private void updated(T oldItem, T newItem) {
+        Entry<T> e = entries.get(idOf.applyAsInt(newItem));
+        if (e != null && (e.item == oldItem || e.item == newItem)) {
+            change(e, newItem);
+            return;
+        }
+        removed(oldItem);
+        added(newItem);
+    }
+
+    private void removed(T item) {
+        Entry<T> e = entries.get(idOf.applyAsInt(item));
+        if (e == null || e.item != item) return;
+        entries.remove(e.id);
+        Entry<T> last = heap[--size];
+        heap[size] = null;
+        if (last == e) return;
+        last.index = e.index;
+        heap[e.index] = last;
+        siftDown(siftUp(last.index));
+    }
+
+    /**
+     * Moves an entry to its new place after its item or inventory level changed, and alerts on a crossing.
+     */
+    private void change(Entry<T> e, T item) {
+        int before = e.headroom;
+        e.item = item;
+        e.headroom = headroom(item);
+        siftDown(siftUp(e.index));
+        if (before > threshold && e.headroom <= threshold)
+            for (Subscriber<T> s : subscribers) s.lowStock(item, e.headroom);
+        else if (before <= threshold && e.headroom > threshold)
+            for (Subscriber<T> s : subscribers) s.recovered(item, e.headroom);
+    }
+
+    private int headroom(T item) {
+        return stockOf.applyAsInt(item) - minOf.applyAsInt(item);
+    }
+
+    /**
+     * @return  the entry's new index
+     */
+    private int siftUp(int index) {
+        Entry<T> e = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(heap[parent], e) <= 0) break;
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(e, index);
+        return index;
+    }
+
+    private void siftDown(int index) {
+        Entry<T> e = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && compare(heap[child + 1], heap[child]) < 0) child++;
+            if (compare(e, heap[child]) <= 0) break;
+            place(heap[child], index);
+            index = child;
+        }
+        place(e, index);
+    }
+
+    private void place(Entry<T> e, int index) {
+        heap[index] = e;
+        e.index = index;
+    }
+
+    private static int compare(Entry<?> a, Entry<?> b) {
+        if (a.headroom != b.headroom) return Integer.compare(a.headroom, b.headroom);
+        return Integer.compare(a.id, b.id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Entry<T>[] newHeap(int capacity) {
+        return (Entry<T>[]) new Entry<?>[capacity];
+    }
+}
@@ -2,21 +2,16 @@ package controller;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.control.RadioButton;
 import javafx.scene.control.TextField;
 import javafx.scene.control.ToggleGroup;
-import javafx.stage.Stage;
 import main.DialogHandler;
-import main.Main;
-import model.InHouse;
+import main.Navigator;
+import main.Resettable;
+import model.FormValidator;
 import model.Inventory;
-import model.Outsourced;
 
 import java.io.IOException;
 import java.net.URL;
@@ -27,7 +22,7 @@ import java.util.ResourceBundle;
  *
  * @author Alex Bright
  */
-public class AddPartController implements Initializable {
+public class AddPartController implements Initializable, Resettable<Void> {
 
     @FXML private RadioButton inhouseRadio;
     @FXML private RadioButton outsourcedRadio;
@@ -50,6 +45,22 @@ public class AddPartController implements Initializable {
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
+        reset(null);
+    }
+
+    /**
+     * Clears the form for a new part each time the screen is shown.
+     *
+     * @param item  unused
+     */
+    @Override
+    public void reset(Void item) {
+        nameField.clear();
+        invField.clear();
+        priceField.clear();
+        maxField.clear();
+        minField.clear();
+        sourceField.clear();
         inhouseRadio.setSelected(true);
         sourceLabel.setText("Machine ID");
         errorText.setText("");
@@ -83,53 +94,17 @@ public class AddPartController implements Initializable {
      */
     public void savePart(ActionEvent actionEvent) throws IOException {
         if (DialogHandler.confirm("Add Part", "Do you want to add the new part?")) {
-            String error = "";
             errorText.setText("");
-            if (nameField.getText().trim().isEmpty()) error += "No data in name field\n";
-            if (!Main.isInt(invField.getText().trim())) error += "Inventory is not an integer\n";
-            if (!Main.isInt(priceField.getText().trim()) && !Main.isDouble(priceField.getText().trim()))
-                error += "Price must be numeric\n";
-            if (!Main.isInt(maxField.getText().trim())) error += "Max is not an integer\n";
-            if (!Main.isInt(minField.getText().trim())) error += "Min is not an integer\n";
-            if ((Main.isInt(maxField.getText().trim()) && Main.isInt(minField.getText().trim()))) {
-                int max = Integer.parseInt(maxField.getText().trim());
-                int min = Integer.parseInt(minField.getText().trim());
-                if (min >= max)
-                    error += "Min must be less than Max\n";
-                if (Main.isInt(invField.getText().trim())) {
-                    int inv = Integer.parseInt(invField.getText().trim());
-                    if (!(inv <= max && inv >= min)) error += "Inventory must be between Min and Max\n";
-                }
-            }
-            if (type.getSelectedToggle() == inhouseRadio) {
-                if (!Main.isInt(sourceField.getText().trim())) error += "Machine ID is not an integer\n";
-            } else if (sourceField.getText().trim().isEmpty()) error += "No data in company name field\n";
-
-            if (!error.isEmpty()) {
-                errorText.setText("Error:\n" + error);
+            FormValidator form = new FormValidator();
+            if (!form.part(nameField.getText(), invField.getText(), priceField.getText(), maxField.getText(),
+                    minField.getText(), type.getSelectedToggle() == inhouseRadio, sourceField.getText())) {
+                errorText.setText("Error:\n" + form.getErrors());
                 return;
             }
 
-            String name = nameField.getText().trim();
-            double price = 0.00;
-            if (Main.isInt(priceField.getText().trim())) price += Integer.parseInt(priceField.getText().trim());
-            else price = Double.parseDouble(priceField.getText().trim());
-            int stock = Integer.parseInt(invField.getText().trim());
-            int min = Integer.parseInt(minField.getText().trim());
-            int max = Integer.parseInt(maxField.getText().trim());
-            String source = sourceField.getText().trim();
-
-            if (type.getSelectedToggle() == inhouseRadio) {
-                Inventory.addPart(new InHouse(Inventory.getNextPartId(), name, price, stock, min, max, Integer.parseInt(source)));
-            } else {
-                Inventory.addPart(new Outsourced(Inventory.getNextPartId(), name, price, stock, min, max, source));
-            }
+            Inventory.addPart(form.toPart(0));
 
-            Parent parent = FXMLLoader.load(getClass().getResource("/view/MainScreen.fxml"));
-            Scene scene = new Scene(parent);
-            Stage stage = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
-            stage.setScene(scene);
-            stage.show();
+            Navigator.show(Navigator.View.MAIN_SCREEN);
         }
     }
 
@@ -142,11 +117,7 @@ public class AddPartController implements Initializable {
      */
     public void cancel(ActionEvent actionEvent) throws IOException {
         if (DialogHandler.confirm("Add Part", "Do you want to cancel adding a part?")) {
-            Parent parent = FXMLLoader.load(getClass().getResource("/view/MainScreen.fxml"));
-            Scene scene = new Scene(parent);
-            Stage stage = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
-            stage.setScene(scene);
-            stage.show();
+            Navigator.show(Navigator.View.MAIN_SCREEN);
         }
     }
 
@@ -1,24 +1,21 @@
 package controller;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
-import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
-import javafx.stage.Stage;
 import main.DialogHandler;
-import main.Main;
+import main.Navigator;
+import main.Resettable;
+import model.AssociatedParts;
+import model.FormValidator;
 import model.Inventory;
 import model.Part;
 import model.Product;
@@ -32,7 +29,7 @@ import java.util.ResourceBundle;
  *
  * @author Alex
  */
-public class AddProductController implements Initializable {
+public class AddProductController implements Initializable, Resettable<Void> {
 
     @FXML private TextField idField;
     @FXML private TextField nameField;
@@ -44,76 +41,83 @@ public class AddProductController implements Initializable {
     @FXML private TextField searchField;
 
     @FXML private TableView<Part> partTable;
-    @FXML private TableColumn<Part, Integer> partIdCol;
+    @FXML private TableColumn<Part, Number> partIdCol;
     @FXML private TableColumn<Part, String> partNameCol;
-    @FXML private TableColumn<Part, Integer> partInvCol;
-    @FXML private TableColumn<Part, Double> partPriceCol;
+    @FXML private TableColumn<Part, Number> partInvCol;
+    @FXML private TableColumn<Part, Number> partPriceCol;
 
     @FXML private TableView<Part> associatedTable;
-    @FXML private TableColumn<Part, Integer> assIdCol;
+    @FXML private TableColumn<Part, Number> assIdCol;
     @FXML private TableColumn<Part, String> assNameCol;
-    @FXML private TableColumn<Part, Integer> assInvCol;
-    @FXML private TableColumn<Part, Double> assPriceCol;
+    @FXML private TableColumn<Part, Number> assInvCol;
+    @FXML private TableColumn<Part, Number> assPriceCol;
+    @FXML private TableColumn<Part, Number> assQtyCol;
 
     @FXML private Label errorText;
 
+    private LiveSearch<Part> partSearch;
+    private final AssociatedParts associated = new AssociatedParts();
+
     /**
      * Initializes the controller.
      * The top table is populated with all parts.
-     * The bottom table is configured for associated parts.
+     * The bottom table shows a sorted view of the associated parts, one row per part with its quantity.
      *
      * @param url
      * @param resourceBundle
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        partTable.setItems(Inventory.getAllParts());
-        partIdCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-        partNameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
-        partInvCol.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        partPriceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
+        partIdCol.setCellValueFactory(cell -> cell.getValue().idProperty());
+        partNameCol.setCellValueFactory(cell -> cell.getValue().nameProperty());
+        partInvCol.setCellValueFactory(cell -> cell.getValue().stockProperty());
+        partPriceCol.setCellValueFactory(cell -> cell.getValue().priceProperty());
         partTable.getSortOrder().add(partIdCol);
-
-        assIdCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-        assNameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
-        assInvCol.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        assPriceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
+        partSearch = new LiveSearch<>(searchField, partTable, Inventory.getAllParts(), Inventory::lookupPart,
+                Inventory::lookupPart, Part::getName, Part::getId,
+                () -> DialogHandler.inform("Search Part", "No parts found using that search criteria."));
+
+        assIdCol.setCellValueFactory(cell -> cell.getValue().idProperty());
+        assNameCol.setCellValueFactory(cell -> cell.getValue().nameProperty());
+        assInvCol.setCellValueFactory(cell -> cell.getValue().stockProperty());
+        assPriceCol.setCellValueFactory(cell -> cell.getValue().priceProperty());
+        assQtyCol.setCellValueFactory(cell -> new ReadOnlyIntegerWrapper(associated.quantityOf(cell.getValue())));
+        SortedList<Part> sorted = new SortedList<>(associated.view());
+        sorted.comparatorProperty().bind(associatedTable.comparatorProperty());
+        associatedTable.setItems(sorted);
         associatedTable.getSortOrder().add(assIdCol);
     }
 
     /**
-     * Searches for a part when the user presses "enter" in the search box.
-     * Allows the use of ID, partial name, or full name.
-     * If input is an integer, searches both ID and name simultaneously.
+     * Clears the form for a new product each time the screen is shown.
+     *
+     * @param item  unused
+     */
+    @Override
+    public void reset(Void item) {
+        nameField.clear();
+        invField.clear();
+        priceField.clear();
+        maxField.clear();
+        minField.clear();
+        searchField.clear();
+        partTable.getSelectionModel().clearSelection();
+        associated.clear();
+        errorText.setText("");
+    }
+
+    /**
+     * Searches for a part straight away when the user presses "enter" in the search box.
+     * Otherwise the search runs as the user types.
      *
      * @param keyEvent
      */
     public void searchKeyPressed(KeyEvent keyEvent) {
-        if (keyEvent.getCode() == KeyCode.ENTER) {
-            String searchStr = searchField.getText().trim();
-            if (searchStr.isEmpty()) {
-                partTable.setItems(Inventory.getAllParts());
-                partTable.getSortOrder().add(partIdCol);
-            } else {
-                ObservableList<Part> searchedParts = FXCollections.observableArrayList();
-                if (Main.isInt(searchStr)) {
-                    Part p = Inventory.lookupPart(Integer.parseInt(searchStr));
-                    if (p != null) searchedParts.add(p);
-                }
-                searchedParts.addAll(Inventory.lookupPart(searchStr));
-                if (searchedParts.isEmpty()) {
-                    DialogHandler.inform("Search Part", "No parts found using that search criteria.");
-                    partTable.setItems(Inventory.getAllParts());
-                    partTable.getSortOrder().add(partIdCol);
-                    return;
-                }
-                partTable.setItems(searchedParts);
-            }
-        }
+        if (keyEvent.getCode() == KeyCode.ENTER) partSearch.now();
     }
 
     /**
-     * Adds selected part to the associated parts list.
+     * Adds a unit of the selected part to the associated parts list.
      * Called when user clicks the add button.
      *
      * @param actionEvent
@@ -129,14 +133,12 @@ public class AddProductController implements Initializable {
 
         Part selectedPart = partTable.getSelectionModel().getSelectedItem();
 
-        associatedTable.getItems().add(selectedPart);
+        associated.add(selectedPart, 1);
         partTable.getSelectionModel().clearSelection();
-        associatedTable.refresh();
-        associatedTable.sort();
     }
 
     /**
-     * Removes selected part from the associated parts list.
+     * Removes a unit of the selected part from the associated parts list.
      * Called when user clicks the remove associated part button.
      *
      * @param actionEvent
@@ -152,9 +154,7 @@ public class AddProductController implements Initializable {
 
         Part selectedPart = associatedTable.getSelectionModel().getSelectedItem();
         if (DialogHandler.confirm("Remove Association", "Do you want to remove association with \"" + selectedPart.getName() + "\"?")) {
-            associatedTable.getItems().remove(selectedPart);
-            associatedTable.refresh();
-            associatedTable.sort();
+            associated.remove(selectedPart, 1);
         }
 
         associatedTable.getSelectionModel().clearSelection();
@@ -171,48 +171,20 @@ public class AddProductController implements Initializable {
      */
     public void saveProduct(ActionEvent actionEvent) throws IOException {
         if (DialogHandler.confirm("Add Product", "Do you want to add the new product?")) {
-            String error = "";
             errorText.setText("");
-            if (nameField.getText().trim().isEmpty()) error += "No data in name field\n";
-            if (!Main.isInt(invField.getText().trim())) error += "Inventory is not an integer\n";
-            if (!Main.isInt(priceField.getText().trim()) && !Main.isDouble(priceField.getText().trim()))
-                error += "Price must be numeric\n";
-            if (!Main.isInt(maxField.getText().trim())) error += "Max is not an integer\n";
-            if (!Main.isInt(minField.getText().trim())) error += "Min is not an integer\n";
-            if ((Main.isInt(maxField.getText().trim()) && Main.isInt(minField.getText().trim()))) {
-                int max = Integer.parseInt(maxField.getText().trim());
-                int min = Integer.parseInt(minField.getText().trim());
-                if (min >= max)
-                    error += "Min must be less than Max\n";
-                if (Main.isInt(invField.getText().trim())) {
-                    int inv = Integer.parseInt(invField.getText().trim());
-                    if (!(inv <= max && inv >= min)) error += "Inventory must be between Min and Max\n";
-                }
-            }
-
-            if (!error.isEmpty()) {
-                errorText.setText("Error:\n" + error);
+            FormValidator form = new FormValidator();
+            if (!form.product(nameField.getText(), invField.getText(), priceField.getText(), maxField.getText(),
+                    minField.getText())) {
+                errorText.setText("Error:\n" + form.getErrors());
                 return;
             }
 
-            String name = nameField.getText().trim();
-            double price = 0.00;
-            if (Main.isInt(priceField.getText().trim())) price += Integer.parseInt(priceField.getText().trim());
-            else price = Double.parseDouble(priceField.getText().trim());
-            int stock = Integer.parseInt(invField.getText().trim());
-            int min = Integer.parseInt(minField.getText().trim());
-            int max = Integer.parseInt(maxField.getText().trim());
-
-            Product newProduct = new Product(Inventory.getNextProductId(), name, price, stock, min, max);
-            for (Part p : associatedTable.getItems())
-                newProduct.addAssociatedPart(p);
+            Product newProduct = form.toProduct(0);
+            for (int i = 0; i < associated.size(); i++)
+                newProduct.addAssociatedPart(associated.get(i), associated.quantityAt(i));
             Inventory.addProduct(newProduct);
 
-            Parent parent = FXMLLoader.load(getClass().getResource("/view/MainScreen.fxml"));
-            Scene scene = new Scene(parent);
-            Stage stage = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
-            stage.setScene(scene);
-            stage.show();
+            Navigator.show(Navigator.View.MAIN_SCREEN);
         }
     }
 
@@ -225,11 +197,7 @@ public class AddProductController implements Initializable {
      */
     public void cancel(ActionEvent actionEvent) throws IOException {
         if (DialogHandler.confirm("Add Product", "Do you want to cancel adding a product?")) {
-            Parent parent = FXMLLoader.load(getClass().getResource("/view/MainScreen.fxml"));
-            Scene scene = new Scene(parent);
-            Stage stage = (Stage) ((Node) actionEvent.getSource()).getScene().getWindow();
-            stage.setScene(scene);
-            stage.show();
+            Navigator.show(Navigator.View.MAIN_SCREEN);
         }
     }
 }
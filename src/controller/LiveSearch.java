@@ -0,0 +1,198 @@
+package controller;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+import model.FormValidator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Searches a table's items as the user types in a search box.
+ * <p>
+ *     The table shows a sorted, filtered view over the master list, so a search only changes the filter's predicate,
+ *     changes to the master list show up without searching again, and the items are never copied.
+ * </p>
+ * <p>
+ *     Keystrokes are debounced, and the lookup runs on a background thread so the UI never waits on it.
+ *     Every new query supersedes the one before: a query still waiting to run is cancelled, and the results of
+ *     one that already ran are thrown away. When the new query contains the previous one, its name matches are
+ *     found by filtering the previous matches instead of searching the whole inventory again.
+ * </p>
+ * <p>
+ *     Like the ENTER search it replaces, an integer query matches the item with that ID as well as names.
+ * </p>
+ *
+ * @param <T>   type of item searched
+ * @author Alex Bright
+ */
+class LiveSearch<T> {
+
+    private static final Duration DEBOUNCE = Duration.millis(200);
+    private static final ExecutorService SEARCHER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "live-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final TextField field;
+    private FilteredList<T> filtered;
+    private final IntFunction<T> byId;
+    private final Function<String, List<T>> byName;
+    private final Function<T, String> nameOf;
+    private final ToIntFunction<T> idOf;
+    private final Runnable noResults;
+    private final PauseTransition pause = new PauseTransition(DEBOUNCE);
+
+    private volatile long generation;
+    private Future<?> running;
+    private String lastQuery;
+    private List<T> lastNameMatches;
+
+    /**
+     * Shows a master list in a table and starts searching it as the user types.
+     * The table's sort order is applied to the view, so sorting survives every search.
+     * The master list is only touched on the UI thread, so a screen can be loaded on a background thread:
+     * the table is then bound to it on the UI thread shortly after.
+     *
+     * @param field     the search box
+     * @param table     the table to show the items in
+     * @param all       the master list
+     * @param byId      finds the item with an ID, otherwise null
+     * @param byName    finds the items whose name contains a query, ignoring case
+     * @param nameOf    retrieves an item's name
+     * @param idOf      retrieves an item's ID
+     * @param noResults called on the UI thread when a search started with ENTER finds nothing
+     */
+    LiveSearch(TextField field, TableView<T> table, ObservableList<T> all, IntFunction<T> byId,
+               Function<String, List<T>> byName, Function<T, String> nameOf, ToIntFunction<T> idOf, Runnable noResults) {
+        this.field = field;
+        this.byId = byId;
+        this.byName = byName;
+        this.nameOf = nameOf;
+        this.idOf = idOf;
+        this.noResults = noResults;
+        pause.setOnFinished(event -> search(false));
+        field.textProperty().addListener((observable, oldText, newText) -> pause.playFromStart());
+        if (Platform.isFxApplicationThread()) bind(table, all);
+        else Platform.runLater(() -> bind(table, all));
+    }
+
+    /**
+     * Shows the sorted, filtered view of the master list in the table.
+     */
+    private void bind(TableView<T> table, ObservableList<T> all) {
+        filtered = new FilteredList<>(all);
+        SortedList<T> sorted = new SortedList<>(filtered);
+        sorted.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sorted);
+        all.addListener((ListChangeListener<T>) change -> lastNameMatches = null);
+    }
+
+    /**
+     * Searches straight away, as when the user presses ENTER.
+     */
+    void now() {
+        pause.stop();
+        search(true);
+    }
+
+    /**
+     * Starts a lookup for the current text, superseding any earlier one.
+     *
+     * @param explicit  true if the user asked for the search, so finding nothing is reported
+     */
+    private void search(boolean explicit) {
+        long current = ++generation;
+        if (running != null) running.cancel(false);
+        String query = field.getText().trim();
+        if (query.isEmpty()) {
+            running = null;
+            lastQuery = null;
+            lastNameMatches = null;
+            filtered.setPredicate(null);
+            return;
+        }
+
+        List<T> previous = lastNameMatches != null && lastQuery != null
+                && query.toLowerCase().contains(lastQuery.toLowerCase()) ? lastNameMatches : null;
+        running = SEARCHER.submit(() -> {
+            List<T> nameMatches = previous == null ? byName.apply(query) : refine(previous, query, current);
+            if (nameMatches == null || generation != current) return;
+            Matches matches = new Matches(query);
+            if (matches.id >= 0) {
+                T match = byId.apply(matches.id);
+                if (match != null) matches.items.add(match);
+            }
+            matches.items.addAll(nameMatches);
+            Platform.runLater(() -> {
+                if (generation != current) return;
+                lastQuery = query;
+                lastNameMatches = nameMatches;
+                if (matches.items.isEmpty() && explicit) {
+                    noResults.run();
+                    filtered.setPredicate(null);
+                    return;
+                }
+                filtered.setPredicate(matches);
+                matches.settled = true;
+            });
+        });
+    }
+
+    /**
+     * Keeps the previous matches whose names contain the new query.
+     *
+     * @return  the matches, otherwise null if the search was superseded part way
+     */
+    private List<T> refine(List<T> previous, String query, long current) {
+        String lower = query.toLowerCase();
+        List<T> matches = new ArrayList<>();
+        for (int i = 0; i < previous.size(); i++) {
+            if ((i & 1023) == 0 && generation != current) return null;
+            T item = previous.get(i);
+            if (nameOf.apply(item).toLowerCase().contains(lower)) matches.add(item);
+        }
+        return matches;
+    }
+
+    /**
+     * The filter for one search.
+     * While the filter is first applied it only looks the items up in the matches found in the background;
+     * after that, items added or replaced in the master list are tested against the query directly.
+     */
+    private final class Matches implements Predicate<T> {
+        final Set<T> items = Collections.newSetFromMap(new IdentityHashMap<>());
+        final String lower;
+        final int id;
+        boolean settled;
+
+        Matches(String query) {
+            lower = query.toLowerCase();
+            id = FormValidator.parseInt(query, -1);
+        }
+
+        @Override
+        public boolean test(T item) {
+            if (!settled) return items.contains(item);
+            return idOf.applyAsInt(item) == id || nameOf.apply(item).toLowerCase().contains(lower);
+        }
+    }
+}
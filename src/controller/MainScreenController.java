@@ -1,23 +1,17 @@
 package controller;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 import javafx.stage.Stage;
 import main.DialogHandler;
-import main.Main;
+import main.Navigator;
 import model.Inventory;
 import model.Part;
 import model.Product;
@@ -37,39 +31,47 @@ public class MainScreenController implements Initializable {
     @FXML private TextField prodSearchField;
 
     @FXML private TableView<Part> partTable;
-    @FXML private TableColumn<Part, Integer> partIdCol;
+    @FXML private TableColumn<Part, Number> partIdCol;
     @FXML private TableColumn<Part, String> partNameCol;
-    @FXML private TableColumn<Part, Integer> partInvCol;
-    @FXML private TableColumn<Part, Double> partPriceCol;
+    @FXML private TableColumn<Part, Number> partInvCol;
+    @FXML private TableColumn<Part, Number> partPriceCol;
 
     @FXML private TableView<Product> productTable;
-    @FXML private TableColumn<Product, Integer> prodIdCol;
+    @FXML private TableColumn<Product, Number> prodIdCol;
     @FXML private TableColumn<Product, String> prodNameCol;
-    @FXML private TableColumn<Product, Integer> prodInvCol;
-    @FXML private TableColumn<Product, Double> prodPriceCol;
+    @FXML private TableColumn<Product, Number> prodInvCol;
+    @FXML private TableColumn<Product, Number> prodPriceCol;
+
+    private LiveSearch<Part> partSearch;
+    private LiveSearch<Product> productSearch;
 
     /**
      * Initializes the controller.
-     * The tables are populated with parts and products.
+     * The tables show sorted, searchable views of all parts and products, and the search boxes search as the user types.
      *
      * @param url
      * @param resourceBundle
      */
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
-        partTable.setItems(Inventory.getAllParts());
-        partIdCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-        partNameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
-        partInvCol.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        partPriceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
+        partIdCol.setCellValueFactory(cell -> cell.getValue().idProperty());
+        partNameCol.setCellValueFactory(cell -> cell.getValue().nameProperty());
+        partInvCol.setCellValueFactory(cell -> cell.getValue().stockProperty());
+        partPriceCol.setCellValueFactory(cell -> cell.getValue().priceProperty());
         partTable.getSortOrder().add(partIdCol);
 
-        productTable.setItems(Inventory.getAllProducts());
-        prodIdCol.setCellValueFactory(new PropertyValueFactory<>("id"));
-        prodNameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
-        prodInvCol.setCellValueFactory(new PropertyValueFactory<>("stock"));
-        prodPriceCol.setCellValueFactory(new PropertyValueFactory<>("price"));
+        prodIdCol.setCellValueFactory(cell -> cell.getValue().idProperty());
+        prodNameCol.setCellValueFactory(cell -> cell.getValue().nameProperty());
+        prodInvCol.setCellValueFactory(cell -> cell.getValue().stockProperty());
+        prodPriceCol.setCellValueFactory(cell -> cell.getValue().priceProperty());
         productTable.getSortOrder().add(prodIdCol);
+
+        partSearch = new LiveSearch<>(partSearchField, partTable, Inventory.getAllParts(), Inventory::lookupPart,
+                Inventory::lookupPart, Part::getName, Part::getId,
+                () -> DialogHandler.inform("Search Part", "No parts found using that search criteria."));
+        productSearch = new LiveSearch<>(prodSearchField, productTable, Inventory.getAllProducts(), Inventory::lookupProduct,
+                Inventory::lookupProduct, Product::getName, Product::getId,
+                () -> DialogHandler.inform("Search Product", "No products found using that search criteria."));
     }
 
     /**
@@ -80,11 +82,7 @@ public class MainScreenController implements Initializable {
      * @throws IOException
      */
     public void addPart(ActionEvent actionEvent) throws IOException {
-        Parent parent = FXMLLoader.load(getClass().getResource("/view/AddPart.fxml"));
-        Scene scene = new Scene(parent);
-        Stage stage = (Stage)((Node)actionEvent.getSource()).getScene().getWindow();
-        stage.setScene(scene);
-        stage.show();
+        Navigator.show(Navigator.View.ADD_PART);
     }
 
     /**
@@ -106,12 +104,7 @@ public class MainScreenController implements Initializable {
 
         Part selectedPart = partTable.getSelectionModel().getSelectedItem();
 
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/ModifyPart.fxml"));
-        ModifyPartController controller = new ModifyPartController(selectedPart);
-        loader.setController(controller);
-        Stage stage = (Stage)((Node)actionEvent.getSource()).getScene().getWindow();
-        stage.setScene(new Scene(loader.load()));
-        stage.show();
+        Navigator.show(Navigator.View.MODIFY_PART, selectedPart);
     }
 
     /**
@@ -132,10 +125,8 @@ public class MainScreenController implements Initializable {
 
         Part selectedPart = partTable.getSelectionModel().getSelectedItem();
         if (DialogHandler.confirm("Delete Part", "Do you want to delete \"" + selectedPart.getName() + "\" with ID " + selectedPart.getId() + "?"))
-            if (Inventory.deletePart(selectedPart)) {
-                partTable.refresh();
-                partTable.sort();
-            } else DialogHandler.error("Delete Part", "\"" + selectedPart.getName() + "\" with ID " + selectedPart.getId() + " could not be deleted!");
+            if (!Inventory.deletePart(selectedPart))
+                DialogHandler.error("Delete Part", "\"" + selectedPart.getName() + "\" with ID " + selectedPart.getId() + " could not be deleted!");
 
         partTable.getSelectionModel().clearSelection();
     }
@@ -148,11 +139,7 @@ public class MainScreenController implements Initializable {
      * @throws IOException
      */
     public void addProduct(ActionEvent actionEvent) throws IOException {
-        Parent parent = FXMLLoader.load(getClass().getResource("/view/AddProduct.fxml"));
-        Scene scene = new Scene(parent);
-        Stage stage = (Stage)((Node)actionEvent.getSource()).getScene().getWindow();
-        stage.setScene(scene);
-        stage.show();
+        Navigator.show(Navigator.View.ADD_PRODUCT);
     }
 
     /**
@@ -174,12 +161,7 @@ public class MainScreenController implements Initializable {
 
         Product selectedProduct = productTable.getSelectionModel().getSelectedItem();
 
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/ModifyProduct.fxml"));
-        ModifyProductController controller = new ModifyProductController(selectedProduct);
-        loader.setController(controller);
-        Stage stage = (Stage)((Node)actionEvent.getSource()).getScene().getWindow();
-        stage.setScene(new Scene(loader.load()));
-        stage.show();
+        Navigator.show(Navigator.View.MODIFY_PRODUCT, selectedProduct);
     }
 
     /**
@@ -204,75 +186,30 @@ public class MainScreenController implements Initializable {
                 DialogHandler.warn("Delete Product", "Please remove all associated parts from \"" + selectedProd.getName() + "\" before deleting!");
                 return;
             }
-            if (Inventory.deleteProduct(selectedProd)) {
-                productTable.refresh();
-                productTable.sort();
-            } else
+            if (!Inventory.deleteProduct(selectedProd))
                 DialogHandler.error("Delete Product", "\"" + selectedProd.getName() + "\" with ID " + selectedProd.getId() + " could not be deleted!");
 
         productTable.getSelectionModel().clearSelection();
     }
 
     /**
-     * Searches for a part when the user presses "enter" in the search box above the parts table.
-     * Allows the use of ID, partial name, or full name.
-     * If input is an integer, searches both ID and name simultaneously.
+     * Searches for a part straight away when the user presses "enter" in the search box above the parts table.
+     * Otherwise the search runs as the user types.
      *
      * @param keyEvent
      */
     public void searchPartKeyPressed(KeyEvent keyEvent) {
-        if (keyEvent.getCode() == KeyCode.ENTER) {
-            String searchStr = partSearchField.getText().trim();
-            if (searchStr.isEmpty()) {
-                partTable.setItems(Inventory.getAllParts());
-                partTable.getSortOrder().add(partIdCol);
-            } else {
-                ObservableList<Part> searchedParts = FXCollections.observableArrayList();
-                if (Main.isInt(searchStr)) {
-                    Part p = Inventory.lookupPart(Integer.parseInt(searchStr));
-                    if (p != null) searchedParts.add(p);
-                }
-                searchedParts.addAll(Inventory.lookupPart(searchStr));
-                if (searchedParts.isEmpty()) {
-                    DialogHandler.inform("Search Part", "No parts found using that search criteria.");
-                    partTable.setItems(Inventory.getAllParts());
-                    partTable.getSortOrder().add(partIdCol);
-                    return;
-                }
-                partTable.setItems(searchedParts);
-            }
-        }
+        if (keyEvent.getCode() == KeyCode.ENTER) partSearch.now();
     }
 
     /**
-     * Searches for a product when the user presses "enter" in the search box above the products table.
-     * Allows the use of ID, partial name, or full name.
-     * If input is an integer, searches both ID and name simultaneously.
+     * Searches for a product straight away when the user presses "enter" in the search box above the products table.
+     * Otherwise the search runs as the user types.
      *
      * @param keyEvent
      */
     public void searchProductKeyPressed(KeyEvent keyEvent) {
-        if (keyEvent.getCode() == KeyCode.ENTER) {
-            String searchStr = prodSearchField.getText().trim();
-            if (searchStr.isEmpty()) {
-                productTable.setItems(Inventory.getAllProducts());
-                productTable.getSortOrder().add(prodIdCol);
-            } else {
-                ObservableList<Product> searchedProducts = FXCollections.observableArrayList();
-                if (Main.isInt(searchStr)) {
-                    Product p = Inventory.lookupProduct(Integer.parseInt(searchStr));
-                    if (p != null) searchedProducts.add(p);
-                }
-                searchedProducts.addAll(Inventory.lookupProduct(searchStr));
-                if (searchedProducts.isEmpty()) {
-                    DialogHandler.inform("Search Product", "No products found using that search criteria.");
-                    productTable.setItems(Inventory.getAllProducts());
-                    productTable.getSortOrder().add(prodIdCol);
-                    return;
-                }
-                productTable.setItems(searchedProducts);
-            }
-        }
+        if (keyEvent.getCode() == KeyCode.ENTER) productSearch.now();
     }
 
     /**
@@ -0,0 +1,193 @@
+package exchange;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes UTF-8 text to a channel through a single reused buffer.
+ * Numbers and characters are encoded straight into the buffer, so writing a row allocates nothing.
+ * <p>
+ *     Between {@link #hold()} and {@link #release()} nothing is written to the channel: the buffer grows instead,
+ *     so text can be encoded while a lock is held and written out once it has been let go.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class ChannelWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder number = new StringBuilder(32);
+    private final byte[] digits = new byte[11];
+    private char pendingHigh;
+    private boolean holding;
+
+    /**
+     * Creates a writer.
+     *
+     * @param channel   destination channel, closed when the writer is closed
+     */
+    public ChannelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Writes a character, encoding it as UTF-8.
+     * A surrogate pair must be written as two consecutive calls; a surrogate without its other half is written
+     * as the replacement character U+FFFD.
+     *
+     * @param c             the character
+     * @throws IOException  if the buffer could not be flushed
+     */
+    public void write(char c) throws IOException {
+        if (buffer.remaining() < 7) drain();
+        if (pendingHigh != 0 && !Character.isLowSurrogate(c)) {
+            pendingHigh = 0;
+            put(REPLACEMENT);
+        }
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHigh = c;
+        } else if (Character.isLowSurrogate(c)) {
+            if (pendingHigh == 0) {
+                put(REPLACEMENT);
+                return;
+            }
+            int cp = Character.toCodePoint(pendingHigh, c);
+            pendingHigh = 0;
+            buffer.put((byte) (0xF0 | (cp >> 18)));
+            buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (cp & 0x3F)));
+        } else {
+            put(c);
+        }
+    }
+
+    /**
+     * Puts a character of the Basic Multilingual Plane from U+0800 up as three bytes.
+     */
+    private void put(char c) {
+        buffer.put((byte) (0xE0 | (c >> 12)));
+        buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+        buffer.put((byte) (0x80 | (c & 0x3F)));
+    }
+
+    /**
+     * Writes every character of a string.
+     *
+     * @param s             the text
+     * @throws IOException  if the buffer could not be flushed
+     */
+    public void write(CharSequence s) throws IOException {
+        for (int i = 0; i < s.length(); i++) write(s.charAt(i));
+    }
+
+    /**
+     * Writes an int in decimal.
+     *
+     * @param value         the number
+     * @throws IOException  if the buffer could not be flushed
+     */
+    public void write(int value) throws IOException {
+        if (buffer.remaining() < 12) drain();
+        if (value == Integer.MIN_VALUE) {
+            write("-2147483648");
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (n > 0) buffer.put(digits[--n]);
+    }
+
+    /**
+     * Writes a double the way {@link Double#toString(double)} does, without creating a string.
+     *
+     * @param value         the number
+     * @throws IOException  if the buffer could not be flushed
+     */
+    public void write(double value) throws IOException {
+        number.setLength(0);
+        number.append(value);
+        write(number);
+    }
+
+    /**
+     * Keeps everything written from now on in memory until {@link #release()}, growing the buffer when it fills.
+     */
+    public void hold() {
+        holding = true;
+    }
+
+    /**
+     * Writes everything held to the channel, and goes back to writing to it whenever the buffer fills.
+     *
+     * @throws IOException  if the channel could not be written
+     */
+    public void release() throws IOException {
+        holding = false;
+        drain();
+    }
+
+    /**
+     * Writes everything buffered to the channel, unless it is being held.
+     *
+     * @throws IOException  if the channel could not be written
+     */
+    public void flush() throws IOException {
+        if (!holding) drain();
+    }
+
+    /**
+     * Flushes the buffer and closes the channel.
+     *
+     * @throws IOException  if the channel could not be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        holding = false;
+        try {
+            if (pendingHigh != 0) {
+                pendingHigh = 0;
+                if (buffer.remaining() < 3) drain();
+                put(REPLACEMENT);
+            }
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (holding) {
+            grow();
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private void grow() {
+        ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() << 1);
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+}
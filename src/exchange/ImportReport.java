@@ -0,0 +1,65 @@
+package exchange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a bulk import.
+ * Rows that fail are recorded here and skipped; they never abort the rest of the file.
+ *
+ * @author Alex Bright
+ */
+public class ImportReport {
+
+    /**
+     * Largest number of row errors kept with their messages. Later errors are only counted.
+     */
+    public static final int MAX_ERRORS = 1000;
+
+    private long rowsRead;
+    private long rowsImported;
+    private long errorCount;
+    private final List<String> errors = new ArrayList<>();
+
+    synchronized void rowRead() {
+        rowsRead++;
+    }
+
+    synchronized void imported(int rows) {
+        rowsImported += rows;
+    }
+
+    synchronized void error(long line, String message) {
+        errorCount++;
+        if (errors.size() < MAX_ERRORS) errors.add("Line " + line + ": " + message.trim().replace('\n', ' '));
+    }
+
+    /**
+     * @return  number of data rows read from the file
+     */
+    public synchronized long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * @return  number of rows added to the inventory
+     */
+    public synchronized long getRowsImported() {
+        return rowsImported;
+    }
+
+    /**
+     * @return  number of rows that were rejected
+     */
+    public synchronized long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return  messages for the first {@link #MAX_ERRORS} rejected rows, each starting with its line number
+     */
+    public synchronized List<String> getErrors() {
+        return Collections.unmodifiableList(new ArrayList<>(errors));
+    }
+}
@@ -0,0 +1,303 @@
+package exchange;
+
+import model.AssociatedParts;
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports parts or products to CSV or JSON Lines in the layout read by {@link InventoryImporter}.
+ * <p>
+ *     The whole inventory is exported with {@link Inventory#forEachPart(int, int, Inventory.Visitor)} and
+ *     {@link Inventory#forEachProduct(int, int, Inventory.Visitor)}, which walk the items in order of ID under the
+ *     read lock, straight into a {@link ChannelWriter}: no list of the items is copied or sorted and no per-row string
+ *     is created. Product rows list their associated part IDs and, in the same order, the units of each.
+ * </p>
+ * <p>
+ *     Rows are encoded in chunks of {@value #CHUNK_ROWS}. Each chunk is held in memory while the read lock is held
+ *     and written to the channel after it is let go, so a slow channel, such as an HTTP client, never keeps the
+ *     inventory from changing. Each chunk is a point-in-time view, but the inventory may change between chunks.
+ *     The export can run on any thread.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class InventoryExporter {
+
+    /**
+     * Output layout.
+     */
+    public enum Format { CSV, JSON }
+
+    private static final String PART_HEADER = "type,id,name,price,stock,min,max,source\n";
+    private static final String PRODUCT_HEADER = "id,name,price,stock,min,max,parts,quantities,components,componentquantities\n";
+
+    private static final int CHUNK_ROWS = 512;
+
+    private final ChannelWriter out;
+    private final Format format;
+    private boolean firstField;
+    private long rows;
+
+    private InventoryExporter(ChannelWriter out, Format format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    /**
+     * Exports to a file, choosing the format from its name as {@link RowReader#forFile} does.
+     *
+     * @param file          destination file, replaced if it exists
+     * @param kind          whether to export parts or products
+     * @return              number of rows written
+     * @throws IOException  if the file could not be written
+     */
+    public static long export(Path file, InventoryImporter.Kind kind) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        Format format = name.endsWith(".json") || name.endsWith(".jsonl") ? Format.JSON : Format.CSV;
+        return export(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), kind, format);
+    }
+
+    /**
+     * Exports to a channel, which is closed afterwards.
+     *
+     * @param channel       destination channel
+     * @param kind          whether to export parts or products
+     * @param format        output layout
+     * @return              number of rows written
+     * @throws IOException  if the channel could not be written
+     */
+    public static long export(WritableByteChannel channel, InventoryImporter.Kind kind, Format format) throws IOException {
+        try (ChannelWriter out = new ChannelWriter(channel)) {
+            InventoryExporter exporter = new InventoryExporter(out, format);
+            boolean parts = kind == InventoryImporter.Kind.PARTS;
+            if (parts) exporter.partHeader();
+            else exporter.productHeader();
+            for (int from = 1; from > 0; ) {
+                out.hold();
+                from = parts ? Inventory.forEachPart(from, CHUNK_ROWS, exporter::part)
+                        : Inventory.forEachProduct(from, CHUNK_ROWS, exporter::product);
+                out.release();
+            }
+            return exporter.rows;
+        }
+    }
+
+    /**
+     * Exports a list of parts to a channel, which is closed afterwards.
+     *
+     * @param channel       destination channel
+     * @param parts         parts to write
+     * @param format        output layout
+     * @return              number of rows written
+     * @throws IOException  if the channel could not be written
+     */
+    public static long exportParts(WritableByteChannel channel, List<Part> parts, Format format) throws IOException {
+        try (ChannelWriter out = new ChannelWriter(channel)) {
+            return new InventoryExporter(out, format).parts(parts);
+        }
+    }
+
+    /**
+     * Exports a list of products to a channel, which is closed afterwards.
+     *
+     * @param channel       destination channel
+     * @param products      products to write
+     * @param format        output layout
+     * @return              number of rows written
+     * @throws IOException  if the channel could not be written
+     */
+    public static long exportProducts(WritableByteChannel channel, List<Product> products, Format format) throws IOException {
+        try (ChannelWriter out = new ChannelWriter(channel)) {
+            return new InventoryExporter(out, format).products(products);
+        }
+    }
+
+    private long parts(List<Part> parts) throws IOException {
+        partHeader();
+        for (int from = 0; from < parts.size(); from += CHUNK_ROWS) {
+            out.hold();
+            Inventory.forEach(parts.subList(from, Math.min(from + CHUNK_ROWS, parts.size())), this::part);
+            out.release();
+        }
+        return rows;
+    }
+
+    private long products(List<Product> products) throws IOException {
+        productHeader();
+        for (int from = 0; from < products.size(); from += CHUNK_ROWS) {
+            out.hold();
+            Inventory.forEach(products.subList(from, Math.min(from + CHUNK_ROWS, products.size())), this::product);
+            out.release();
+        }
+        return rows;
+    }
+
+    private void partHeader() throws IOException {
+        if (format == Format.CSV) out.write(PART_HEADER);
+    }
+
+    private void productHeader() throws IOException {
+        if (format == Format.CSV) out.write(PRODUCT_HEADER);
+    }
+
+    private void part(Part p) throws IOException {
+        boolean inHouse = p instanceof InHouse;
+        startRow();
+        text("type", inHouse ? "in-house" : "outsourced");
+        number("id", p.getId());
+        text("name", p.getName());
+        number("price", p.getPrice());
+        number("stock", p.getStock());
+        number("min", p.getMin());
+        number("max", p.getMax());
+        if (inHouse) number("source", ((InHouse) p).getMachineId());
+        else text("source", ((Outsourced) p).getCompanyName());
+        endRow();
+    }
+
+    private void product(Product p) throws IOException {
+        startRow();
+        number("id", p.getId());
+        text("name", p.getName());
+        number("price", p.getPrice());
+        number("stock", p.getStock());
+        number("min", p.getMin());
+        number("max", p.getMax());
+        associations(p.getAssociatedParts());
+        components(p.getComponents());
+        endRow();
+    }
+
+    private void startRow() throws IOException {
+        firstField = true;
+        if (format == Format.JSON) out.write('{');
+    }
+
+    private void endRow() throws IOException {
+        if (format == Format.JSON) out.write('}');
+        out.write('\n');
+        rows++;
+    }
+
+    private void key(String key) throws IOException {
+        if (!firstField) out.write(',');
+        firstField = false;
+        if (format == Format.JSON) {
+            out.write('"');
+            out.write(key);
+            out.write("\":");
+        }
+    }
+
+    private void number(String key, int value) throws IOException {
+        key(key);
+        out.write(value);
+    }
+
+    private void number(String key, double value) throws IOException {
+        key(key);
+        out.write(value);
+    }
+
+    /**
+     * Writes the IDs of the associated parts, each once, and the units of each.
+     */
+    private void associations(AssociatedParts parts) throws IOException {
+        key("parts");
+        if (format == Format.JSON) out.write('[');
+        for (int i = 0; i < parts.size(); i++) {
+            if (i > 0) out.write(format == Format.JSON ? ',' : ';');
+            out.write(parts.get(i).getId());
+        }
+        if (format == Format.JSON) out.write(']');
+        key("quantities");
+        if (format == Format.JSON) out.write('[');
+        for (int i = 0; i < parts.size(); i++) {
+            if (i > 0) out.write(format == Format.JSON ? ',' : ';');
+            out.write(parts.quantityAt(i));
+        }
+        if (format == Format.JSON) out.write(']');
+    }
+
+    /**
+     * Writes the IDs of the included products and the units of each.
+     */
+    private void components(Map<Integer, Integer> components) throws IOException {
+        key("components");
+        if (format == Format.JSON) out.write('[');
+        boolean first = true;
+        for (int id : components.keySet()) {
+            if (!first) out.write(format == Format.JSON ? ',' : ';');
+            first = false;
+            out.write(id);
+        }
+        if (format == Format.JSON) out.write(']');
+        key("componentquantities");
+        if (format == Format.JSON) out.write('[');
+        first = true;
+        for (int quantity : components.values()) {
+            if (!first) out.write(format == Format.JSON ? ',' : ';');
+            first = false;
+            out.write(quantity);
+        }
+        if (format == Format.JSON) out.write(']');
+    }
+
+    /**
+     * Writes a text field, quoting and escaping it for the output format.
+     */
+    private void text(String key, String value) throws IOException {
+        key(key);
+        if (format == Format.JSON) {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    out.write('\\');
+                    out.write(c);
+                } else if (c == '\n') out.write("\\n");
+                else if (c == '\r') out.write("\\r");
+                else if (c == '\t') out.write("\\t");
+                else if (c < 0x20) {
+                    out.write("\\u00");
+                    out.write(Character.forDigit(c >> 4, 16));
+                    out.write(Character.forDigit(c & 0xF, 16));
+                } else out.write(c);
+            }
+            out.write('"');
+            return;
+        }
+        if (!needsQuotes(value)) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        if (!value.isEmpty() && (value.charAt(0) == ' ' || value.charAt(value.length() - 1) == ' ')) return true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,260 @@
+package exchange;
+
+import javafx.concurrent.Task;
+import model.Inventory;
+import model.Part;
+import model.Product;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports parts or products from a CSV or JSON Lines file in the background.
+ * <p>
+ *     Rows are parsed and validated on the task's thread with the same rules as the add and modify screens.
+ *     Valid rows are gathered into batches, and each batch is added to the inventory from the task's thread with a
+ *     single bulk insert that skips, rather than replaces, items whose ID is taken by then; the UI lists catch up in
+ *     coalesced batches. A product's components are included once it is in the inventory with its ID, and a product
+ *     whose components would make its bill of materials include itself is taken back out.
+ *     Rejected rows are recorded in the {@link ImportReport} and the rest of the file is still imported.
+ * </p>
+ * <p>
+ *     Columns are those read by {@link RowParser}. A blank or missing ID is replaced with the next available ID.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class InventoryImporter extends Task<ImportReport> {
+
+    /**
+     * What a file holds.
+     */
+    public enum Kind { PARTS, PRODUCTS }
+
+    static final int BATCH_SIZE = 10_000;
+
+    private final Path file;
+    private final Kind kind;
+    private final ImportReport report = new ImportReport();
+
+    /**
+     * A parsed row waiting to be inserted.
+     */
+    private static final class Row<T> {
+        final T item;
+        final long line;
+        final int[] partIds;
+        final int[] quantities;
+        final int[] componentIds;
+        final int[] componentQuantities;
+
+        Row(T item, long line, int[] partIds, int[] quantities, int[] componentIds, int[] componentQuantities) {
+            this.item = item;
+            this.line = line;
+            this.partIds = partIds;
+            this.quantities = quantities;
+            this.componentIds = componentIds;
+            this.componentQuantities = componentQuantities;
+        }
+    }
+
+    /**
+     * Creates an import task. Run it on a background thread.
+     *
+     * @param file  the CSV or JSON Lines file
+     * @param kind  whether the file holds parts or products
+     */
+    public InventoryImporter(Path file, Kind kind) {
+        this.file = file;
+        this.kind = kind;
+    }
+
+    /**
+     * @return  the report, updated as the import runs
+     */
+    public ImportReport getReport() {
+        return report;
+    }
+
+    @Override
+    protected ImportReport call() throws Exception {
+        long size = Math.max(1, Files.size(file));
+        try (CountingInputStream counter = new CountingInputStream(Files.newInputStream(file));
+             RowReader rows = RowReader.forFile(new InputStreamReader(counter, StandardCharsets.UTF_8), file.getFileName().toString())) {
+            read(rows, () -> {
+                updateProgress(counter.count, size);
+                updateMessage("Read " + report.getRowsRead() + " rows");
+            });
+        }
+        updateProgress(size, size);
+        updateMessage("Imported " + report.getRowsImported() + " of " + report.getRowsRead() + " rows");
+        return report;
+    }
+
+    /**
+     * Imports every row, unless the task is cancelled.
+     *
+     * @param rows      the rows of the file
+     * @param progress  called after each {@link #BATCH_SIZE} rows read
+     * @throws IOException  if the file could not be read
+     */
+    void read(RowReader rows, Runnable progress) throws IOException {
+        List<Row<Part>> parts = new ArrayList<>();
+        List<Row<Product>> products = new ArrayList<>();
+        while (!isCancelled() && rows.next()) {
+            report.rowRead();
+            if (rows.rowError() != null) {
+                report.error(rows.line(), rows.rowError());
+                continue;
+            }
+            if (kind == Kind.PARTS) {
+                Row<Part> row = parsePart(rows);
+                if (row != null) parts.add(row);
+                if (parts.size() == BATCH_SIZE) {
+                    insertParts(parts);
+                    parts = new ArrayList<>();
+                }
+            } else {
+                Row<Product> row = parseProduct(rows);
+                if (row != null) products.add(row);
+                if (products.size() == BATCH_SIZE) {
+                    insertProducts(products);
+                    products = new ArrayList<>();
+                }
+            }
+            if (report.getRowsRead() % BATCH_SIZE == 0) progress.run();
+        }
+        if (!isCancelled()) {
+            if (!parts.isEmpty()) insertParts(parts);
+            if (!products.isEmpty()) insertProducts(products);
+        }
+    }
+
+    /**
+     * Validates a part row with the same rules as the add part screen.
+     *
+     * @param rows  reader positioned at the row
+     * @return      the parsed row, otherwise null if it was rejected
+     */
+    private Row<Part> parsePart(RowReader rows) {
+        StringBuilder error = new StringBuilder();
+        Part part = RowParser.part(rows, error);
+        if (part == null) {
+            report.error(rows.line(), error.toString());
+            return null;
+        }
+        return new Row<>(part, rows.line(), null, null, null, null);
+    }
+
+    /**
+     * Validates a product row with the same rules as the add product screen.
+     *
+     * @param rows  reader positioned at the row
+     * @return      the parsed row, otherwise null if it was rejected
+     */
+    private Row<Product> parseProduct(RowReader rows) {
+        StringBuilder error = new StringBuilder();
+        Product product = RowParser.product(rows, error);
+        int[] partIds = RowParser.partIds(rows, error);
+        int[] quantities = RowParser.partQuantities(rows, partIds.length, error);
+        int[] componentIds = RowParser.componentIds(rows, error);
+        int[] componentQuantities = RowParser.componentQuantities(rows, componentIds.length, error);
+        if (error.length() > 0) {
+            report.error(rows.line(), error.toString());
+            return null;
+        }
+        return new Row<>(product, rows.line(), partIds, quantities, componentIds, componentQuantities);
+    }
+
+    /**
+     * Adds a batch of parts, rejecting IDs that are already in use.
+     *
+     * @param batch parsed part rows
+     */
+    private void insertParts(List<Row<Part>> batch) {
+        List<Part> parts = new ArrayList<>(batch.size());
+        for (Row<Part> row : batch) parts.add(row.item);
+        Set<Part> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+        rejected.addAll(Inventory.addAllPartsIfAbsent(parts));
+        for (Row<Part> row : batch)
+            if (rejected.contains(row.item)) report.error(row.line, "Part ID " + row.item.getId() + " is already in use");
+        report.imported(parts.size() - rejected.size());
+    }
+
+    /**
+     * Adds a batch of products, rejecting IDs that are already in use, unknown associated parts and components that
+     * cannot be included.
+     *
+     * @param batch parsed product rows
+     */
+    private void insertProducts(List<Row<Product>> batch) {
+        List<Row<Product>> accepted = new ArrayList<>(batch.size());
+        List<Product> products = new ArrayList<>(batch.size());
+        for (Row<Product> row : batch) {
+            StringBuilder missing = new StringBuilder();
+            for (int i = 0; i < row.partIds.length; i++) {
+                Part part = Inventory.lookupPart(row.partIds[i]);
+                if (part == null) missing.append(' ').append(row.partIds[i]);
+                else row.item.addAssociatedPart(part, row.quantities[i]);
+            }
+            if (missing.length() > 0) {
+                report.error(row.line, "No part with ID" + missing);
+                continue;
+            }
+            accepted.add(row);
+            products.add(row.item);
+        }
+        Set<Product> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+        rejected.addAll(Inventory.addAllProductsIfAbsent(products));
+        int imported = 0;
+        for (Row<Product> row : accepted) {
+            if (rejected.contains(row.item)) {
+                report.error(row.line, "Product ID " + row.item.getId() + " is already in use");
+                continue;
+            }
+            StringBuilder error = new StringBuilder();
+            if (!RowParser.includeComponents(row.item, row.componentIds, row.componentQuantities, error)) {
+                Inventory.deleteProduct(row.item);
+                report.error(row.line, error.toString());
+                continue;
+            }
+            imported++;
+        }
+        report.imported(imported);
+    }
+
+    /**
+     * Counts the bytes read so progress can be reported against the file size.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package exchange;
+
+import analysis.BomExplosion;
+import model.FormValidator;
+import model.Part;
+import model.Product;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Turns rows of named text fields into parts and products, validating them with the same {@link FormValidator}
+ * as the add and modify screens. Used by {@link InventoryImporter} and by the HTTP API.
+ * <p>
+ *     Part fields: type ("in-house" or "outsourced"), id, name, price, stock, min, max, source
+ *     (machine ID or company name). Product fields: id, name, price, stock, min, max, parts
+ *     (associated part IDs separated by semicolons) and quantities (the units of each of those parts, in the same
+ *     order; one unit each if blank), components (IDs of included products separated by semicolons) and
+ *     componentquantities (the units of each of those products, in the same order; one unit each if blank).
+ *     A part or component ID listed twice has its units added. A blank or missing ID becomes 0.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public final class RowParser {
+
+    private static final ThreadLocal<FormValidator> FORMS = ThreadLocal.withInitial(FormValidator::new);
+
+    private RowParser() {}
+
+    /**
+     * Validates a part row.
+     *
+     * @param rows      reader positioned at the row
+     * @param errors    receives one line per rule the row breaks
+     * @return          the part, otherwise null if the row was rejected
+     */
+    public static Part part(RowReader rows, StringBuilder errors) {
+        String type = rows.get("type").trim();
+        boolean inHouse = type.equalsIgnoreCase("in-house") || type.equalsIgnoreCase("inhouse");
+
+        FormValidator form = FORMS.get();
+        form.clear();
+        if (!inHouse && !type.equalsIgnoreCase("outsourced")) form.error("Type must be in-house or outsourced");
+        int id = form.id(rows.get("id"));
+        form.fields(rows.get("name"), rows.get("stock"), rows.get("price"), rows.get("max"), rows.get("min"));
+        form.source(inHouse, rows.get("source"));
+
+        if (!form.isValid()) {
+            errors.append(form.getErrors());
+            return null;
+        }
+        return form.toPart(id);
+    }
+
+    /**
+     * Validates a product row. Its associated part IDs are read by {@link #partIds}.
+     *
+     * @param rows      reader positioned at the row
+     * @param errors    receives one line per rule the row breaks
+     * @return          the product without associated parts, otherwise null if the row was rejected
+     */
+    public static Product product(RowReader rows, StringBuilder errors) {
+        FormValidator form = FORMS.get();
+        form.clear();
+        int id = form.id(rows.get("id"));
+        form.fields(rows.get("name"), rows.get("stock"), rows.get("price"), rows.get("max"), rows.get("min"));
+
+        if (!form.isValid()) {
+            errors.append(form.getErrors());
+            return null;
+        }
+        return form.toProduct(id);
+    }
+
+    /**
+     * Reads the associated part IDs of a product row.
+     *
+     * @param rows      reader positioned at the row
+     * @param errors    receives a line for each ID that is not an integer
+     * @return          the IDs that could be read
+     */
+    public static int[] partIds(RowReader rows, StringBuilder errors) {
+        return ids(rows.get("parts"), "Associated part ID", errors);
+    }
+
+    /**
+     * Reads the units of each associated part of a product row.
+     *
+     * @param rows      reader positioned at the row
+     * @param count     number of associated part IDs read by {@link #partIds}
+     * @param errors    receives a line for each quantity that is not a positive integer, or if the counts differ
+     * @return          the units of each part, one each if the row gives none
+     */
+    public static int[] partQuantities(RowReader rows, int count, StringBuilder errors) {
+        return quantities(rows.get("quantities"), count, "associated part", errors);
+    }
+
+    /**
+     * Reads the IDs of the products included in a product row as components.
+     *
+     * @param rows      reader positioned at the row
+     * @param errors    receives a line for each ID that is not an integer
+     * @return          the IDs that could be read
+     */
+    public static int[] componentIds(RowReader rows, StringBuilder errors) {
+        return ids(rows.get("components"), "Component ID", errors);
+    }
+
+    /**
+     * Reads the units of each component of a product row.
+     *
+     * @param rows      reader positioned at the row
+     * @param count     number of component IDs read by {@link #componentIds}
+     * @param errors    receives a line for each quantity that is not a positive integer, or if the counts differ
+     * @return          the units of each component, one each if the row gives none
+     */
+    public static int[] componentQuantities(RowReader rows, int count, StringBuilder errors) {
+        return quantities(rows.get("componentquantities"), count, "component", errors);
+    }
+
+    /**
+     * Includes the components read from a row in a product, which must already have its final ID: added to the
+     * inventory, or about to replace the product that has it. Nothing is included if any component ID is not a valid
+     * ID, is the product's own, or is that of a product that already includes this one, directly or further down.
+     *
+     * @param product       the product
+     * @param ids           component IDs read by {@link #componentIds}
+     * @param quantities    their units read by {@link #componentQuantities}
+     * @param errors        receives a line for each ID that cannot be included
+     * @return              true if the components were included, otherwise false
+     */
+    public static boolean includeComponents(Product product, int[] ids, int[] quantities, StringBuilder errors) {
+        boolean valid = true;
+        for (int id : ids) {
+            if (id < 1) errors.append("Component ID ").append(id).append(" is not a valid ID\n");
+            else if (id == product.getId()) errors.append("A product cannot include itself\n");
+            else if (BomExplosion.wouldCycle(product.getId(), id))
+                errors.append("Product ").append(id).append(" already includes product ").append(product.getId())
+                        .append('\n');
+            else continue;
+            valid = false;
+        }
+        if (!valid) return false;
+        Map<Integer, Integer> units = new LinkedHashMap<>();
+        for (int i = 0; i < ids.length; i++) units.merge(ids[i], quantities[i], Integer::sum);
+        for (Map.Entry<Integer, Integer> e : units.entrySet()) product.setComponent(e.getKey(), e.getValue());
+        return true;
+    }
+
+    private static int[] ids(String text, String label, StringBuilder errors) {
+        String[] idTexts = text.trim().split("\\s*;\\s*");
+        int[] ids = new int[idTexts.length];
+        int count = 0;
+        for (String s : idTexts) {
+            if (s.isEmpty()) continue;
+            long id = FormValidator.parseInt(s);
+            if (id != FormValidator.NOT_AN_INT) ids[count++] = (int) id;
+            else errors.append(label).append(" \"").append(s).append("\" is not an integer\n");
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private static int[] quantities(String text, int count, String label, StringBuilder errors) {
+        int[] quantities = new int[count];
+        text = text.trim();
+        if (text.isEmpty()) {
+            Arrays.fill(quantities, 1);
+            return quantities;
+        }
+        String[] quantityTexts = text.split("\\s*;\\s*");
+        if (quantityTexts.length != count) {
+            errors.append("Quantities must be given for each ").append(label).append('\n');
+            return quantities;
+        }
+        for (int i = 0; i < count; i++) {
+            long quantity = FormValidator.parseInt(quantityTexts[i]);
+            if (quantity != FormValidator.NOT_AN_INT && quantity > 0) quantities[i] = (int) quantity;
+            else errors.append("Quantity \"").append(quantityTexts[i]).append("\" is not a positive integer\n");
+        }
+        return quantities;
+    }
+}
@@ -0,0 +1,318 @@
+package exchange;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads rows of named text fields one at a time from a CSV or JSON Lines stream.
+ * <p>
+ *     CSV input must start with a header row naming the columns. Fields may be quoted with double quotes,
+ *     and a quoted field may contain commas, doubled quotes and line breaks.
+ *     JSON Lines input holds one flat object per line whose values are strings, numbers or arrays of numbers.
+ * </p>
+ * <p>
+ *     A malformed row does not end the stream; it is reported by {@link #rowError()} and reading can continue.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public abstract class RowReader implements AutoCloseable {
+
+    protected final BufferedReader in;
+    protected long line;
+    protected String rowError;
+
+    protected RowReader(Reader in) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+    }
+
+    /**
+     * Creates a reader for the format matching a file name.
+     * Names ending in ".json" or ".jsonl" are read as JSON Lines, everything else as CSV.
+     *
+     * @param in            source text
+     * @param fileName      name of the source file
+     * @return              the row reader
+     * @throws IOException  if a CSV header could not be read
+     */
+    public static RowReader forFile(Reader in, String fileName) throws IOException {
+        String lower = fileName.toLowerCase();
+        if (lower.endsWith(".json") || lower.endsWith(".jsonl")) return new Json(in);
+        return new Csv(in);
+    }
+
+    /**
+     * Advances to the next row.
+     *
+     * @return              true if a row was read, otherwise false at the end of input
+     * @throws IOException  if the input could not be read or is malformed
+     */
+    public abstract boolean next() throws IOException;
+
+    /**
+     * Retrieves a field of the current row.
+     *
+     * @param column    column name
+     * @return          the field text, otherwise an empty string if the row has no such field
+     */
+    public abstract String get(String column);
+
+    /**
+     * Tells if the input has a column at all, so a missing column can be told apart from a blank field.
+     *
+     * @param column    column name
+     * @return          true if the current row, or the CSV header, has the column
+     */
+    public abstract boolean has(String column);
+
+    /**
+     * @return  why the current row could not be read, otherwise null
+     */
+    public String rowError() {
+        return rowError;
+    }
+
+    /**
+     * @return  line number the current row started on, counting from 1
+     */
+    public long line() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Reads comma-separated values with a header row.
+     */
+    static class Csv extends RowReader {
+
+        private final Map<String, Integer> columns = new HashMap<>();
+        private String[] fields = new String[0];
+        private int count;
+        private final StringBuilder field = new StringBuilder();
+        private long nextLine = 1;
+
+        Csv(Reader in) throws IOException {
+            super(in);
+            if (next()) {
+                for (int i = 0; i < count; i++)
+                    columns.put(fields[i].trim().toLowerCase(), i);
+            }
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            int c = in.read();
+            while (c == '\n' || c == '\r') {
+                if (c == '\n') nextLine++;
+                c = in.read();
+            }
+            if (c == -1) return false;
+            line = nextLine;
+            rowError = null;
+
+            count = 0;
+            boolean quoted = false;
+            field.setLength(0);
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        rowError = "Unterminated quote";
+                        quoted = false;
+                        continue;
+                    }
+                    if (c == '"') {
+                        in.mark(1);
+                        if (in.read() == '"') field.append('"');
+                        else {
+                            in.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') nextLine++;
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',' || c == '\n' || c == '\r' || c == -1) {
+                    if (count == fields.length) fields = Arrays.copyOf(fields, Math.max(8, count * 2));
+                    fields[count++] = field.toString();
+                    field.setLength(0);
+                    if (c != ',') break;
+                } else {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+            if (c == '\n') nextLine++;
+            return true;
+        }
+
+        @Override
+        public String get(String column) {
+            Integer i = columns.get(column);
+            if (i == null || i >= count) return "";
+            return fields[i];
+        }
+
+        @Override
+        public boolean has(String column) {
+            return columns.containsKey(column);
+        }
+    }
+
+    /**
+     * Reads one flat JSON object per line.
+     */
+    static class Json extends RowReader {
+
+        private final Map<String, String> values = new HashMap<>();
+        private final StringBuilder text = new StringBuilder();
+        private String current;
+        private int pos;
+
+        Json(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            do {
+                current = in.readLine();
+                if (current == null) return false;
+                line++;
+                current = current.trim();
+            } while (current.isEmpty() || current.equals("[") || current.equals("]"));
+            values.clear();
+            pos = 0;
+            rowError = null;
+            try {
+                parseObject();
+            } catch (IOException e) {
+                rowError = e.getMessage();
+            }
+            return true;
+        }
+
+        @Override
+        public String get(String column) {
+            return values.getOrDefault(column, "");
+        }
+
+        @Override
+        public boolean has(String column) {
+            return values.containsKey(column);
+        }
+
+        private void parseObject() throws IOException {
+            expect('{');
+            skipSpace();
+            if (peek() == '}') return;
+            while (true) {
+                skipSpace();
+                String key = parseString().toLowerCase();
+                skipSpace();
+                expect(':');
+                skipSpace();
+                values.put(key, parseValue());
+                skipSpace();
+                char c = take();
+                if (c == '}') return;
+                if (c != ',') throw error("Expected ',' or '}'");
+            }
+        }
+
+        private String parseValue() throws IOException {
+            char c = peek();
+            if (c == '"') return parseString();
+            if (c == '[') {
+                pos++;
+                text.setLength(0);
+                skipSpace();
+                if (peek() == ']') {
+                    pos++;
+                    return "";
+                }
+                while (true) {
+                    skipSpace();
+                    if (text.length() > 0) text.append(';');
+                    text.append(peek() == '"' ? parseString() : parseLiteral());
+                    skipSpace();
+                    char d = take();
+                    if (d == ']') return text.toString();
+                    if (d != ',') throw error("Expected ',' or ']'");
+                }
+            }
+            String literal = parseLiteral();
+            return literal.equals("null") ? "" : literal;
+        }
+
+        private String parseLiteral() {
+            int start = pos;
+            while (pos < current.length() && ",}] \t".indexOf(current.charAt(pos)) < 0) pos++;
+            return current.substring(start, pos);
+        }
+
+        private String parseString() throws IOException {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = take();
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char e = take();
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > current.length()) throw error("Bad unicode escape");
+                        int code = 0;
+                        for (int end = pos + 4; pos < end; pos++) {
+                            int digit = Character.digit(current.charAt(pos), 16);
+                            if (digit < 0) throw error("Bad unicode escape");
+                            code = code << 4 | digit;
+                        }
+                        sb.append((char) code);
+                        break;
+                    default: sb.append(e);
+                }
+            }
+        }
+
+        private void skipSpace() {
+            while (pos < current.length() && Character.isWhitespace(current.charAt(pos))) pos++;
+        }
+
+        private char peek() throws IOException {
+            if (pos >= current.length()) throw error("Unexpected end of line");
+            return current.charAt(pos);
+        }
+
+        private char take() throws IOException {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) throws IOException {
+            if (take() != c) throw error("Expected '" + c + "'");
+        }
+
+        private IOException error(String message) {
+            return new IOException(message + " at column " + (pos + 1));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package main;
+
+import model.FormValidator;
+import model.InventoryMetrics;
+import model.SampleData;
+import persistence.InventoryJournal;
+import service.InventoryServer;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the inventory without a window and serves it over HTTP on the loopback interface.
+ * A separate entry point from {@link Main}, so it can start without a display or the JavaFX graphics toolkit.
+ * The model is still built on JavaFX observable lists and properties, so javafx-base must be on the class path.
+ *
+ * @author Alex Bright
+ */
+public class Headless {
+
+    private static final int DEFAULT_PORT = 8482;
+
+    /**
+     * Restores the saved inventory, or populates the sample data on first run, and starts the server.
+     * "--port N" picks the port, which defaults to 8482.
+     *
+     * @param args
+     * @throws IOException  if the saved inventory could not be read or the port could not be bound
+     * @throws JMException  if the inventory's metrics could not be published over JMX
+     */
+    public static void main(String[] args) throws IOException, JMException {
+        List<String> options = Arrays.asList(args);
+        int at = options.indexOf("--port");
+        int port = at >= 0 && at + 1 < args.length ? FormValidator.parseInt(args[at + 1], DEFAULT_PORT) : DEFAULT_PORT;
+
+        InventoryMetrics.register();
+        InventoryJournal journal = InventoryJournal.open(SampleData.dataDirectory());
+        if (!journal.isRecovered()) SampleData.populateData();
+        InventoryServer server = InventoryServer.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            journal.close();
+        }));
+        journal.setFailureHandler(e -> {
+            System.err.println("Inventory journal stopped, no longer accepting changes: " + e);
+            server.close();
+        });
+        System.out.println("Serving the inventory on http://localhost:" + server.getPort() + "/");
+    }
+}
@@ -1,11 +1,14 @@
 package main;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 import model.*;
+import persistence.InventoryJournal;
+
+import javax.management.JMException;
+import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * The main class of the application.
@@ -20,91 +23,57 @@ import model.*;
  */
 public class Main extends Application {
 
+    private static InventoryJournal journal;
+
     /**
      * Launches the application.
-     * Populates the sample data and opens the MainScreen view.
+     * Restores the saved inventory, or populates the sample data on first run, and opens the MainScreen view.
+     * The other screens are then preloaded in the background, and the time each phase took is printed.
      *
      * @param stage
      * @throws Exception
      */
     @Override
     public void start(Stage stage) throws Exception {
-        populateData();
+        StartupReport report = new StartupReport();
+        Inventory.projectOn(Platform::runLater, Platform::isFxApplicationThread);
+        InventoryMetrics.register();
+        journal = report.time("open journal", () -> InventoryJournal.open(SampleData.dataDirectory()));
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::close));
+        journal.setFailureHandler(e -> Platform.runLater(() -> DialogHandler.error("Inventory journal",
+                "Changes are no longer being saved: " + e.getMessage())));
+        if (!journal.isRecovered()) report.run("populate sample data", SampleData::populateData);
 
-        Parent root = FXMLLoader.load(getClass().getResource("/view/MainScreen.fxml"));
-        Scene scene = new Scene(root);
-        stage.setScene(scene);
+        Navigator.setStage(stage);
         stage.setResizable(false);
-        stage.show();
-    }
-
-    /**
-     * The entry point of the Java program.
-     * Javadocs can be found inside the "/javadoc" folder.
-     *
-     * @param args
-     */
-    public static void main(String[] args) {
-        launch(args);
-    }
-
-    /**
-     * Populates the sample data.
-     */
-    public void populateData() {
-        Part wheel = new InHouse(1, "Wheel", 249.99, 24, 1, 48, 15);
-        Part tire = new Outsourced(2, "Tire", 149.99, 16, 1, 32, "Bright Tire Shop");
-        Part spring = new InHouse(5, "Spring", 49.99, 48, 1, 96, 20);
-        Part shock = new Outsourced(6, "Shock", 99.99, 144, 1, 288, "The Suspension Experts, LLC");
-
-        Inventory.addPart(wheel);
-        Inventory.addPart(tire);
-        Inventory.addPart(spring);
-        Inventory.addPart(shock);
-
-        Product coilover = new Product(1, "Coilover", 249.99, 48, 1, 96);
-        Product combo = new Product(4, "Wheel/Tire Combo", 499.99, 16, 1, 32);
-
-        Inventory.addProduct(coilover);
-        Inventory.addProduct(combo);
-
-        coilover.addAssociatedPart(spring);
-        coilover.addAssociatedPart(shock);
-
-        combo.addAssociatedPart(wheel);
-        combo.addAssociatedPart(tire);
+        report.time("show " + Navigator.View.MAIN_SCREEN.fileName(), () -> {
+            Navigator.show(Navigator.View.MAIN_SCREEN);
+            return null;
+        });
+        Navigator.preload(report, Navigator.View.ADD_PART, Navigator.View.MODIFY_PART,
+                Navigator.View.ADD_PRODUCT, Navigator.View.MODIFY_PRODUCT);
     }
 
     /**
-     * Tests if provided string is an integer.
-     *
-     * @param testStr   string to test
-     * @return          true if provided string is an integer, otherwise false
+     * Flushes the inventory journal when the application closes.
      */
-    public static boolean isInt(String testStr) {
-        if (testStr == null) return false;
-        try {
-            int i = Integer.parseInt(testStr);
-        } catch (NumberFormatException nfe) {
-            return false;
-        }
-        return true;
+    @Override
+    public void stop() {
+        if (journal != null) journal.close();
     }
 
     /**
-     * Tests if provided string is a double.
+     * The entry point of the Java program.
+     * Javadocs can be found inside the "/javadoc" folder.
+     * With "--headless" the inventory is served over HTTP instead of opening a window; see {@link Headless}.
      *
-     * @param testStr   string to test
-     * @return          true if provided string is a double, otherwise false
+     * @param args
+     * @throws IOException  if the saved inventory could not be read or the port could not be bound
+     * @throws JMException  if the inventory's metrics could not be published over JMX
      */
-    public static boolean isDouble(String testStr) {
-        if (testStr == null) return false;
-        try {
-            double d = Double.parseDouble(testStr);
-        } catch (NumberFormatException nfe) {
-            return false;
-        }
-        return true;
+    public static void main(String[] args) throws IOException, JMException {
+        if (Arrays.asList(args).contains("--headless")) Headless.main(args);
+        else launch(args);
     }
 
-}
\ No newline at end of file
+}
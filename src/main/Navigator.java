@@ -0,0 +1,170 @@
+package main;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Switches the stage between the application's screens.
+ * <p>
+ *     Each view's FXML is parsed once, and its scene graph, controller and scene are kept for the rest of the run,
+ *     so switching screens only swaps the stage's scene. The main screen comes back exactly as the user left it,
+ *     scroll position, selection, sort and search included. Screens whose controllers are {@link Resettable} are
+ *     reset every time they are shown, so a form never shows the previous visit's input.
+ * </p>
+ * <p>
+ *     Screens can be preloaded on a background thread. Showing a screen that is still being preloaded waits for it
+ *     instead of parsing it a second time.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class Navigator {
+
+    /**
+     * The application's screens.
+     */
+    public enum View {
+        MAIN_SCREEN("/view/MainScreen.fxml"),
+        ADD_PART("/view/AddPart.fxml"),
+        MODIFY_PART("/view/ModifyPart.fxml"),
+        ADD_PRODUCT("/view/AddProduct.fxml"),
+        MODIFY_PRODUCT("/view/ModifyProduct.fxml");
+
+        private final String path;
+
+        View(String path) {
+            this.path = path;
+        }
+
+        /**
+         * @return  name of the view's FXML file
+         */
+        String fileName() {
+            return path.substring(path.lastIndexOf('/') + 1);
+        }
+    }
+
+    private static final Map<View, FutureTask<Screen>> screens = new ConcurrentHashMap<>();
+    private static Stage stage;
+
+    /**
+     * Sets the stage screens are shown on.
+     *
+     * @param stage the application's stage
+     */
+    public static void setStage(Stage stage) {
+        Navigator.stage = stage;
+    }
+
+    /**
+     * Shows a screen.
+     *
+     * @param view          the screen to show
+     * @throws IOException  if the screen's FXML could not be loaded
+     */
+    public static void show(View view) throws IOException {
+        show(view, null);
+    }
+
+    /**
+     * Shows a screen for an item, resetting it first if its controller is {@link Resettable}.
+     *
+     * @param view          the screen to show
+     * @param item          the item to show the screen for, such as the part being modified
+     * @param <T>           type of item
+     * @throws IOException  if the screen's FXML could not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void show(View view, T item) throws IOException {
+        Screen screen = load(view);
+        if (screen.controller instanceof Resettable) ((Resettable<T>) screen.controller).reset(item);
+        if (screen.scene == null) screen.scene = new Scene(screen.root);
+        stage.setScene(screen.scene);
+        stage.sizeToScene();
+        stage.show();
+    }
+
+    /**
+     * Preloads screens on a background thread, so they show straight away the first time.
+     * Each screen is parsed in the background; its scene is then created and styled on the JavaFX thread,
+     * which creates the controls' skins. The report is printed once every screen is ready.
+     *
+     * @param report    the startup report the preloading phases are timed in
+     * @param views     the screens to preload
+     */
+    static void preload(StartupReport report, View... views) {
+        Thread preloader = new Thread(() -> {
+            for (View view : views) {
+                try {
+                    Screen screen = report.time("parse " + view.fileName(), () -> load(view));
+                    Platform.runLater(() -> {
+                        try {
+                            report.run("prepare " + view.fileName(), () -> {
+                                if (screen.scene == null) screen.scene = new Scene(screen.root);
+                                screen.root.applyCss();
+                                screen.root.layout();
+                            });
+                        } catch (Exception ignored) {
+                            // recorded in the report
+                        }
+                    });
+                } catch (Exception ignored) {
+                    // recorded in the report, and loaded again when the screen is first shown
+                }
+            }
+            Platform.runLater(report::print);
+        }, "screen-preloader");
+        preloader.setDaemon(true);
+        preloader.start();
+    }
+
+    /**
+     * Loads a screen the first time it is asked for, or waits for it if another thread is loading it.
+     * A screen that failed to load is loaded again the next time it is asked for.
+     */
+    private static Screen load(View view) throws IOException {
+        FutureTask<Screen> task = new FutureTask<>(() -> {
+            FXMLLoader loader = new FXMLLoader(Navigator.class.getResource(view.path));
+            Parent root = loader.load();
+            return new Screen(root, loader.getController());
+        });
+        FutureTask<Screen> loading = screens.putIfAbsent(view, task);
+        if (loading == null) {
+            loading = task;
+            task.run();
+        }
+        try {
+            return loading.get();
+        } catch (ExecutionException e) {
+            screens.remove(view, loading);
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException("Could not load " + view.path, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted loading " + view.path, e);
+        }
+    }
+
+    /**
+     * A loaded screen. Its scene is created the first time it is shown.
+     */
+    private static final class Screen {
+        final Parent root;
+        final Object controller;
+        Scene scene;
+
+        Screen(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+}
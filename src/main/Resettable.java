@@ -0,0 +1,18 @@
+package main;
+
+/**
+ * A screen controller whose state is reset each time the {@link Navigator} shows its screen.
+ * Cached screens keep whatever the user left in them, so forms clear or reload their fields here.
+ *
+ * @param <T>   type of item the screen is shown for, such as the part being modified
+ * @author Alex Bright
+ */
+public interface Resettable<T> {
+
+    /**
+     * Resets the screen before it is shown.
+     *
+     * @param item  the item the screen is shown for, otherwise null
+     */
+    void reset(T item);
+}
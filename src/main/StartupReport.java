@@ -0,0 +1,84 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the phases of starting the application and prints them once startup has finished.
+ * Each phase is reported with how long it took, when it ended relative to the JVM launching and the thread it ran on.
+ *
+ * @author Alex Bright
+ */
+final class StartupReport {
+
+    /**
+     * One phase of startup.
+     *
+     * @param <T>   type of result
+     */
+    interface Phase<T> {
+        T run() throws Exception;
+    }
+
+    private final long launched = System.nanoTime()
+            - TimeUnit.MILLISECONDS.toNanos(ManagementFactory.getRuntimeMXBean().getUptime());
+    private final List<String> lines = new ArrayList<>();
+
+    /**
+     * Starts the report, recording the time from the JVM launching until now as the first phase.
+     */
+    StartupReport() {
+        record("launch JVM", launched, System.nanoTime());
+    }
+
+    /**
+     * Runs and times a phase.
+     *
+     * @param name          name of the phase
+     * @param phase         the phase
+     * @param <T>           type of result
+     * @return              the phase's result
+     * @throws Exception    if the phase failed, which is recorded in the report
+     */
+    <T> T time(String name, Phase<T> phase) throws Exception {
+        long start = System.nanoTime();
+        try {
+            T result = phase.run();
+            record(name, start, System.nanoTime());
+            return result;
+        } catch (Exception e) {
+            record(name + " (failed: " + e + ")", start, System.nanoTime());
+            throw e;
+        }
+    }
+
+    /**
+     * Runs and times a phase that returns nothing.
+     *
+     * @param name          name of the phase
+     * @param phase         the phase
+     * @throws Exception    if the phase failed, which is recorded in the report
+     */
+    void run(String name, Runnable phase) throws Exception {
+        time(name, () -> {
+            phase.run();
+            return null;
+        });
+    }
+
+    /**
+     * Prints the phases recorded so far, in the order they ended.
+     */
+    synchronized void print() {
+        StringBuilder report = new StringBuilder(String.format("%-30s%10s %10s  %s%n", "Startup timing", "took ms", "at ms", "thread"));
+        for (String line : lines) report.append(line);
+        System.out.print(report);
+    }
+
+    private synchronized void record(String name, long start, long end) {
+        lines.add(String.format("  %-28s%10.1f %10.1f  %s%n", name, (end - start) / 1e6, (end - launched) / 1e6,
+                Thread.currentThread().getName()));
+    }
+}
@@ -0,0 +1,258 @@
+package model;
+
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The parts associated with a product and how many units of each it uses.
+ * <p>
+ *     Entries are kept in parallel arrays sorted by part ID, so finding a part is a binary search and
+ *     changing its quantity touches nothing else; only adding or removing a distinct part shifts the entries after it.
+ *     Each entry holds the part object it was associated with, so a part deleted from the inventory stays usable.
+ * </p>
+ * <p>
+ *     {@link #view()} adapts the entries to a read-only ObservableList with one element per distinct part,
+ *     in ID order, which a table can show directly. A change of quantity is reported as the entry being replaced,
+ *     so the row is redrawn.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class AssociatedParts {
+
+    private static final int[] NO_INTS = new int[0];
+    private static final Part[] NO_PARTS = new Part[0];
+
+    private int[] ids = NO_INTS;
+    private int[] quantities = NO_INTS;
+    private Part[] parts = NO_PARTS;
+    private int size;
+    private int units;
+    private View view;
+
+    /**
+     * @return  number of distinct parts
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return  total units of all parts
+     */
+    public int units() {
+        return units;
+    }
+
+    /**
+     * @return  true if no parts are associated
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index position in ID order
+     * @return      the part at that position
+     */
+    public Part get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(index);
+        return parts[index];
+    }
+
+    /**
+     * @param index position in ID order
+     * @return      units of the part at that position
+     */
+    public int quantityAt(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(index);
+        return quantities[index];
+    }
+
+    /**
+     * @param partId    ID of the part
+     * @return          the associated part with that ID, otherwise null
+     */
+    public Part find(int partId) {
+        int i = indexOf(partId);
+        return i < 0 ? null : parts[i];
+    }
+
+    /**
+     * @param partId    ID of the part
+     * @return          units of the part with that ID, otherwise 0
+     */
+    public int quantityOf(int partId) {
+        int i = indexOf(partId);
+        return i < 0 ? 0 : quantities[i];
+    }
+
+    /**
+     * @param part  the part
+     * @return      units of that exact part object, otherwise 0
+     */
+    public int quantityOf(Part part) {
+        int i = indexOf(part.getId());
+        return i < 0 || parts[i] != part ? 0 : quantities[i];
+    }
+
+    /**
+     * @param part  the part
+     * @return      true if that exact part object is associated
+     */
+    public boolean contains(Part part) {
+        return quantityOf(part) > 0;
+    }
+
+    /**
+     * Adds units of a part.
+     * A part with the same ID already present is replaced by this one, keeping its units.
+     *
+     * @param part      the part to add
+     * @param quantity  units to add
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    public void add(Part part, int quantity) {
+        if (quantity < 0) throw new IllegalArgumentException("Quantity cannot be negative");
+        if (quantity == 0) return;
+        int i = indexOf(part.getId());
+        if (i >= 0) {
+            Part old = parts[i];
+            parts[i] = part;
+            quantities[i] += quantity;
+            units += quantity;
+            if (view != null) view.replaced(i, old);
+            return;
+        }
+        i = -i - 1;
+        if (size == ids.length) grow();
+        System.arraycopy(ids, i, ids, i + 1, size - i);
+        System.arraycopy(quantities, i, quantities, i + 1, size - i);
+        System.arraycopy(parts, i, parts, i + 1, size - i);
+        ids[i] = part.getId();
+        quantities[i] = quantity;
+        parts[i] = part;
+        size++;
+        units += quantity;
+        if (view != null) view.added(i);
+    }
+
+    /**
+     * Removes units of a part.
+     * The part is only removed if that exact object is associated, and loses its entry when no units are left.
+     *
+     * @param part      the part to remove
+     * @param quantity  units to remove; more than are associated removes them all
+     * @return          units removed
+     */
+    public int remove(Part part, int quantity) {
+        int i = indexOf(part.getId());
+        if (i < 0 || parts[i] != part || quantity <= 0) return 0;
+        if (quantity < quantities[i]) {
+            quantities[i] -= quantity;
+            units -= quantity;
+            if (view != null) view.replaced(i, part);
+            return quantity;
+        }
+        int removed = quantities[i];
+        units -= removed;
+        size--;
+        System.arraycopy(ids, i + 1, ids, i, size - i);
+        System.arraycopy(quantities, i + 1, quantities, i, size - i);
+        System.arraycopy(parts, i + 1, parts, i, size - i);
+        parts[size] = null;
+        if (view != null) view.removed(i, part);
+        return removed;
+    }
+
+    /**
+     * Replaces these entries with a copy of another set.
+     *
+     * @param other the entries to copy
+     */
+    public void setAll(AssociatedParts other) {
+        if (other == this) return;
+        List<Part> old = view == null ? null : Arrays.asList(Arrays.copyOf(parts, size));
+        ids = Arrays.copyOf(other.ids, other.size);
+        quantities = Arrays.copyOf(other.quantities, other.size);
+        parts = Arrays.copyOf(other.parts, other.size);
+        size = other.size;
+        units = other.units;
+        if (view != null) view.reset(old);
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        if (size == 0) return;
+        List<Part> old = view == null ? null : Arrays.asList(Arrays.copyOf(parts, size));
+        Arrays.fill(parts, 0, size, null);
+        size = 0;
+        units = 0;
+        if (view != null) view.reset(old);
+    }
+
+    /**
+     * @return  a read-only ObservableList of the distinct parts in ID order, which follows later changes
+     */
+    public ObservableList<Part> view() {
+        if (view == null) view = new View();
+        return view;
+    }
+
+    private int indexOf(int partId) {
+        return Arrays.binarySearch(ids, 0, size, partId);
+    }
+
+    private void grow() {
+        int capacity = Math.max(4, size * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        parts = Arrays.copyOf(parts, capacity);
+    }
+
+    /**
+     * The observable adapter over the entries.
+     */
+    private final class View extends ObservableListBase<Part> {
+
+        @Override
+        public Part get(int index) {
+            return AssociatedParts.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        void added(int index) {
+            beginChange();
+            nextAdd(index, index + 1);
+            endChange();
+        }
+
+        void replaced(int index, Part old) {
+            beginChange();
+            nextSet(index, old);
+            endChange();
+        }
+
+        void removed(int index, Part old) {
+            beginChange();
+            nextRemove(index, old);
+            endChange();
+        }
+
+        void reset(List<Part> old) {
+            beginChange();
+            if (!old.isEmpty()) nextRemove(0, old);
+            if (size > 0) nextAdd(0, size);
+            endChange();
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package model;
+
+/**
+ * Validates the text fields of a part or product, as entered on the add and modify screens or read from an import.
+ * <p>
+ *     Each field is parsed once, straight from its text, into the typed value the item is built from,
+ *     and every rule is checked in the same pass: the error lines are the ones the screens have always shown.
+ *     The parsers skip surrounding whitespace without copying the text and report bad input with a sentinel
+ *     rather than an exception, so validating a valid row allocates nothing but its strings.
+ * </p>
+ * <p>
+ *     A validator is reusable but not thread-safe: {@link #clear()} it, or call {@link #part} or {@link #product},
+ *     for each new item.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public final class FormValidator {
+
+    /**
+     * Returned by {@link #parseInt(CharSequence)} for text that is not an integer.
+     */
+    public static final long NOT_AN_INT = Long.MIN_VALUE;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final StringBuilder errors = new StringBuilder();
+    private String name;
+    private double price;
+    private int stock;
+    private int min;
+    private int max;
+    private boolean inHouse;
+    private int machineId;
+    private String companyName;
+
+    /**
+     * Validates all the fields of a part.
+     *
+     * @param name      name text
+     * @param stock     inventory level text
+     * @param price     price text
+     * @param max       maximum text
+     * @param min       minimum text
+     * @param inHouse   true for an in-house part, false for an outsourced one
+     * @param source    machine ID text for an in-house part, otherwise company name
+     * @return          true if the part is valid
+     */
+    public boolean part(CharSequence name, CharSequence stock, CharSequence price, CharSequence max, CharSequence min,
+                        boolean inHouse, CharSequence source) {
+        clear();
+        fields(name, stock, price, max, min);
+        source(inHouse, source);
+        return isValid();
+    }
+
+    /**
+     * Validates all the fields of a product.
+     *
+     * @param name  name text
+     * @param stock inventory level text
+     * @param price price text
+     * @param max   maximum text
+     * @param min   minimum text
+     * @return      true if the product is valid
+     */
+    public boolean product(CharSequence name, CharSequence stock, CharSequence price, CharSequence max, CharSequence min) {
+        clear();
+        fields(name, stock, price, max, min);
+        return isValid();
+    }
+
+    /**
+     * Forgets the errors of the previous item.
+     */
+    public void clear() {
+        errors.setLength(0);
+    }
+
+    /**
+     * Records an error line for a rule checked outside the validator.
+     *
+     * @param line  the error, without a line break
+     */
+    public void error(String line) {
+        errors.append(line).append('\n');
+    }
+
+    /**
+     * Validates an optional ID.
+     *
+     * @param text  ID text
+     * @return      the ID, or 0 if the text is blank or not an integer
+     */
+    public int id(CharSequence text) {
+        if (isBlank(text)) return 0;
+        long id = parseInt(text);
+        if (id != NOT_AN_INT) return (int) id;
+        error("ID is not an integer");
+        return 0;
+    }
+
+    /**
+     * Validates the fields shared by parts and products.
+     *
+     * @param name  name text
+     * @param stock inventory level text
+     * @param price price text
+     * @param max   maximum text
+     * @param min   minimum text
+     */
+    public void fields(CharSequence name, CharSequence stock, CharSequence price, CharSequence max, CharSequence min) {
+        long stockValue = parseInt(stock);
+        double priceValue = parseDouble(price);
+        long maxValue = parseInt(max);
+        long minValue = parseInt(min);
+
+        this.name = name.toString().trim();
+        if (this.name.isEmpty()) error("No data in name field");
+        if (stockValue == NOT_AN_INT) error("Inventory is not an integer");
+        if (Double.isNaN(priceValue)) error("Price must be numeric");
+        if (maxValue == NOT_AN_INT) error("Max is not an integer");
+        if (minValue == NOT_AN_INT) error("Min is not an integer");
+        if (maxValue != NOT_AN_INT && minValue != NOT_AN_INT) {
+            if (minValue >= maxValue) error("Min must be less than Max");
+            if (stockValue != NOT_AN_INT && !(stockValue <= maxValue && stockValue >= minValue))
+                error("Inventory must be between Min and Max");
+        }
+
+        this.stock = (int) stockValue;
+        this.price = priceValue;
+        this.max = (int) maxValue;
+        this.min = (int) minValue;
+    }
+
+    /**
+     * Validates the source of a part.
+     *
+     * @param inHouse   true for an in-house part, false for an outsourced one
+     * @param source    machine ID text for an in-house part, otherwise company name
+     */
+    public void source(boolean inHouse, CharSequence source) {
+        this.inHouse = inHouse;
+        if (inHouse) {
+            long id = parseInt(source);
+            if (id == NOT_AN_INT) error("Machine ID is not an integer");
+            machineId = (int) id;
+            companyName = null;
+        } else {
+            companyName = source.toString().trim();
+            if (companyName.isEmpty()) error("No data in company name field");
+        }
+    }
+
+    /**
+     * @return  true if no rule has been broken since the validator was cleared
+     */
+    public boolean isValid() {
+        return errors.length() == 0;
+    }
+
+    /**
+     * @return  one line for each rule broken since the validator was cleared
+     */
+    public String getErrors() {
+        return errors.toString();
+    }
+
+    /**
+     * Builds the validated part.
+     *
+     * @param id    ID of the part
+     * @return      an in-house or outsourced part
+     */
+    public Part toPart(int id) {
+        return inHouse ? new InHouse(id, name, price, stock, min, max, machineId)
+                : new Outsourced(id, name, price, stock, min, max, companyName);
+    }
+
+    /**
+     * Builds the validated product, without associated parts.
+     *
+     * @param id    ID of the product
+     * @return      the product
+     */
+    public Product toProduct(int id) {
+        return new Product(id, name, price, stock, min, max);
+    }
+
+    /**
+     * Parses an integer, ignoring surrounding whitespace.
+     *
+     * @param text  text to parse
+     * @return      the integer, otherwise {@link #NOT_AN_INT}
+     */
+    public static long parseInt(CharSequence text) {
+        if (text == null) return NOT_AN_INT;
+        int from = start(text);
+        int to = end(text, from);
+        if (from == to) return NOT_AN_INT;
+        char first = text.charAt(from);
+        boolean negative = first == '-';
+        if ((negative || first == '+') && ++from == to) return NOT_AN_INT;
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return NOT_AN_INT;
+            value = value * 10 + digit;
+            if (value > limit) return NOT_AN_INT;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses an integer, ignoring surrounding whitespace.
+     *
+     * @param text      text to parse
+     * @param fallback  value returned if the text is not an integer
+     * @return          the integer, otherwise the fallback
+     */
+    public static int parseInt(CharSequence text, int fallback) {
+        long value = parseInt(text);
+        return value == NOT_AN_INT ? fallback : (int) value;
+    }
+
+    /**
+     * Parses a finite decimal number such as "12", "-0.5" or "1.25e3", ignoring surrounding whitespace.
+     * Numbers of up to 15 significant digits, as prices are, are converted exactly without creating any objects;
+     * longer ones fall back to {@link Double#parseDouble}.
+     *
+     * @param text  text to parse
+     * @return      the number, otherwise NaN
+     */
+    public static double parseDouble(CharSequence text) {
+        if (text == null) return Double.NaN;
+        int from = start(text);
+        int to = end(text, from);
+        int i = from;
+        boolean negative = false;
+        if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) negative = text.charAt(i++) == '-';
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean any = false;
+        boolean point = false;
+        boolean truncated = false;
+        for (; i < to; i++) {
+            char c = text.charAt(i);
+            if (c == '.') {
+                if (point) return Double.NaN;
+                point = true;
+                continue;
+            }
+            int digit = c - '0';
+            if (digit < 0 || digit > 9) break;
+            any = true;
+            if (mantissa == 0 && digit == 0) {
+                if (point) exponent--;
+            } else if (digits < 18) {
+                mantissa = mantissa * 10 + digit;
+                digits++;
+                if (point) exponent--;
+            } else {
+                truncated = true;
+                if (!point) exponent++;
+            }
+        }
+        if (!any) return Double.NaN;
+
+        if (i < to && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            if (++i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) i++;
+            boolean negativeExponent = text.charAt(i - 1) == '-';
+            if (i == to) return Double.NaN;
+            int written = 0;
+            for (; i < to; i++) {
+                int digit = text.charAt(i) - '0';
+                if (digit < 0 || digit > 9) return Double.NaN;
+                if (written < 100000) written = written * 10 + digit;
+            }
+            exponent += negativeExponent ? -written : written;
+        }
+        if (i != to) return Double.NaN;
+
+        double value;
+        if (mantissa == 0) value = 0;
+        else if (!truncated && digits <= 15 && exponent >= -22 && exponent <= 22)
+            value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        else value = Math.abs(Double.parseDouble(text.subSequence(from, to).toString()));
+        if (Double.isInfinite(value)) return Double.NaN;
+        return negative ? -value : value;
+    }
+
+    private static boolean isBlank(CharSequence text) {
+        return text == null || start(text) == text.length();
+    }
+
+    private static int start(CharSequence text) {
+        int i = 0;
+        while (i < text.length() && text.charAt(i) <= ' ') i++;
+        return i;
+    }
+
+    private static int end(CharSequence text, int from) {
+        int i = text.length();
+        while (i > from && text.charAt(i - 1) <= ' ') i--;
+        return i;
+    }
+}
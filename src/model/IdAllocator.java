@@ -0,0 +1,105 @@
+package model;
+
+import java.util.BitSet;
+import java.util.TreeSet;
+
+/**
+ * Hands out the lowest unused ID, starting at 1.
+ * Used IDs are tracked as items are added and removed, so finding the next ID never needs to sort or scan the items
+ * themselves. IDs below {@link #DENSE_LIMIT}, which is where handed-out IDs live, are kept in a bit set; the rare
+ * higher ID chosen by hand goes in a sorted set instead, so a single ID near the top of the range costs a few bytes
+ * rather than a bit set hundreds of megabytes long.
+ * <p>
+ *     The allocator is not thread-safe. {@link #next()} and {@link #nextUsed(int)} only read, so they may run under
+ *     a shared lock; the other methods need an exclusive one.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class IdAllocator {
+
+    /**
+     * IDs from here up are kept in the sorted set.
+     */
+    static final int DENSE_LIMIT = 1 << 24;
+
+    private final BitSet used = new BitSet();
+    private final TreeSet<Integer> sparse = new TreeSet<>();
+    private int lowestFree = 1;
+
+    /**
+     * Marks an ID as used.
+     * IDs lower than 1 are never handed out and are ignored.
+     *
+     * @param id    ID taken by an item
+     */
+    public void claim(int id) {
+        if (id < 1) return;
+        if (id >= DENSE_LIMIT) {
+            sparse.add(id);
+            return;
+        }
+        used.set(id);
+        if (id == lowestFree) lowestFree = used.nextClearBit(id);
+    }
+
+    /**
+     * Marks an ID as free so it can be handed out again.
+     *
+     * @param id    ID released by an item
+     */
+    public void release(int id) {
+        if (id < 1) return;
+        if (id < DENSE_LIMIT) used.clear(id);
+        else sparse.remove(id);
+        if (id < lowestFree) lowestFree = id;
+    }
+
+    /**
+     * Prioritizes missing gaps in the used IDs, or returns a new highest ID. If no ID is used, an ID of 1 is returned.
+     * The ID is not claimed, so another caller can be given the same one; use {@link #allocate()} to take it.
+     *
+     * @return  lowest available ID
+     */
+    public int next() {
+        int id = used.nextClearBit(lowestFree);
+        if (id < DENSE_LIMIT) return id;
+        while (sparse.contains(id)) id++;
+        return id;
+    }
+
+    /**
+     * Claims and returns the lowest available ID, as {@link #next()} would find it.
+     *
+     * @return  the ID, now used
+     */
+    public int allocate() {
+        int id = next();
+        claim(id);
+        return id;
+    }
+
+    /**
+     * Finds the lowest used ID at or above another, so the used IDs can be walked in order.
+     *
+     * @param from  lowest ID to consider
+     * @return      the used ID, otherwise -1 if there is none
+     */
+    public int nextUsed(int from) {
+        if (from < DENSE_LIMIT) {
+            int id = used.nextSetBit(Math.max(1, from));
+            if (id >= 0) return id;
+        }
+        Integer id = sparse.ceiling(from);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Frees every ID.
+     */
+    public void clear() {
+        used.clear();
+        sparse.clear();
+        lowestFree = 1;
+    }
+}
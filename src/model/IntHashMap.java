@@ -0,0 +1,202 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A hash map keyed by primitive ints.
+ * Uses open addressing with linear probing so keys are never boxed.
+ * A slot is empty when its value is null, so null values cannot be stored.
+ *
+ * @param <V>   type of the mapped values
+ * @author Alex Bright
+ */
+public class IntHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * Creates an empty map.
+     */
+    public IntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map sized for the expected number of entries.
+     *
+     * @param expectedSize  number of entries the map should hold without resizing
+     */
+    public IntHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) capacity <<= 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Retrieves the value mapped to a key.
+     *
+     * @param key   key to look up
+     * @return      the mapped value, otherwise null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) return (V) values[i];
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Tests if a key is mapped.
+     *
+     * @param key   key to test
+     * @return      true if the key has a value, otherwise false
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps a key to a value, replacing any existing value.
+     *
+     * @param key   key to map
+     * @param value value to store, must not be null
+     * @return      the previously mapped value, otherwise null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) throw new NullPointerException("value");
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                V old = (V) values[i];
+                values[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > (mask + 1) * 3 / 4) resize((mask + 1) << 1);
+        return null;
+    }
+
+    /**
+     * Removes the mapping of a key.
+     *
+     * @param key   key to remove
+     * @return      the removed value, otherwise null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = slot(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                V old = (V) values[i];
+                values[i] = null;
+                size--;
+                shiftBack(i);
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping of a key only if it is mapped to the given value.
+     *
+     * @param key   key to remove
+     * @param value value the key must be mapped to
+     * @return      true if the mapping was removed, otherwise false
+     */
+    public boolean remove(int key, V value) {
+        if (get(key) != value) return false;
+        remove(key);
+        return true;
+    }
+
+    /**
+     * @return  number of mapped keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return  true if no keys are mapped, otherwise false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Collects every mapped value.
+     *
+     * @return  a new list of the values, in no particular order
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayList<V> values() {
+        ArrayList<V> list = new ArrayList<>(size);
+        for (Object value : values)
+            if (value != null) list.add((V) value);
+        return list;
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Closes the gap left by a removal so later probes do not stop early.
+     *
+     * @param gap   index of the emptied slot
+     */
+    private void shiftBack(int gap) {
+        int i = (gap + 1) & mask;
+        while (values[i] != null) {
+            int home = slot(keys[i]);
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                values[i] = null;
+                gap = i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] == null) continue;
+            int j = slot(oldKeys[i]);
+            while (values[j] != null) j = (j + 1) & mask;
+            keys[j] = oldKeys[i];
+            values[j] = oldValues[i];
+        }
+    }
+}
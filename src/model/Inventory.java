@@ -4,34 +4,280 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
 
 /**
  * Handles the inventory management tasks.
+ * <p>
+ *     The inventory is safe to use from any thread. Parts and products are held in maps keyed by ID behind a
+ *     read-write lock: lookups run in parallel, and each change updates every index under the write lock so
+ *     they never disagree. An ID identifies one part or product; adding another with the same ID replaces it.
+ * </p>
+ * <p>
+ *     {@link #getAllParts()} and {@link #getAllProducts()} are projections for the UI. Once
+ *     {@link #projectOn(Executor, BooleanSupplier)} binds them to the JavaFX Application Thread, changes made on
+ *     that thread show up straight away and changes made on other threads are applied there in coalesced batches.
+ * </p>
+ * <p>
+ *     Every operation is counted and timed in {@link #getMetrics()}, without taking any extra lock.
+ * </p>
  *
  * @author Alex Bright
  */
 public class Inventory {
 
-    private static ObservableList<Part> allParts = FXCollections.observableArrayList();
-    private static ObservableList<Product> allProducts = FXCollections.observableArrayList();
+    private static Projection<Part> allParts = new Projection<>();
+    private static Projection<Product> allProducts = new Projection<>();
+    private static ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static IntHashMap<Part> partsById = new IntHashMap<>();
+    private static IntHashMap<Product> productsById = new IntHashMap<>();
+    private static TrigramIndex partNames = new TrigramIndex(id -> partsById.get(id).getName());
+    private static TrigramIndex productNames = new TrigramIndex(id -> productsById.get(id).getName());
+    private static IdAllocator partIds = new IdAllocator();
+    private static IdAllocator productIds = new IdAllocator();
+    private static IntHashMap<IdentityHashMap<Product, Integer>> productsByPartId = new IntHashMap<>();
+    private static StringDictionary supplierDictionary = new StringDictionary();
+    private static IntHashMap<PostingList> partsBySupplier = new IntHashMap<>();
+    private static PartStore partStore = new PartStore();
+
+    private static List<InventoryListener> listeners = new CopyOnWriteArrayList<>();
+    private static InventoryMetrics metrics = new InventoryMetrics();
+
+    /**
+     * Binds the parts and products lists to the thread that displays them.
+     * Until this is called, the lists are changed by whichever thread changes the inventory.
+     *
+     * @param executor  runs tasks on the UI thread, such as Platform::runLater
+     * @param onThread  tells if the caller is on the UI thread, such as Platform::isFxApplicationThread
+     */
+    public static void projectOn(Executor executor, BooleanSupplier onThread) {
+        allParts.bind(executor, onThread);
+        allProducts.bind(executor, onThread);
+    }
+
+    /**
+     * Runs a task on the thread the parts and products lists are bound to.
+     *
+     * @param task  the task to run
+     */
+    static void publish(Runnable task) {
+        allParts.run(task);
+    }
 
     /**
      * Adds a new part to the parts list.
+     * A part with an ID lower than 1 is given the next available ID.
+     * Adding a part already in the inventory does nothing.
      *
      * @param newPart   the part to be added
      */
     public static void addPart(Part newPart) {
-        allParts.add(newPart);
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (newPart.getId() < 1) newPart.setId(partIds.allocate());
+            else if (partsById.get(newPart.getId()) == newPart) return;
+            Part oldPart = indexPart(newPart);
+            if (oldPart == null) {
+                allParts.add(newPart);
+                for (InventoryListener l : listeners) l.partAdded(newPart);
+            } else {
+                allParts.replace(oldPart, newPart);
+                for (InventoryListener l : listeners) l.partUpdated(oldPart, newPart);
+            }
+        } finally {
+            lock.writeLock().unlock();
+            metrics.adds.record(start);
+        }
     }
 
     /**
      * Adds a new product to the products list.
+     * A product with an ID lower than 1 is given the next available ID.
+     * Adding a product already in the inventory does nothing.
      *
      * @param newProduct    the product to be added
      */
     public static void addProduct(Product newProduct) {
-        allProducts.add(newProduct);
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (newProduct.getId() < 1) newProduct.setId(productIds.allocate());
+            else if (productsById.get(newProduct.getId()) == newProduct) return;
+            Product oldProduct = indexProduct(newProduct);
+            if (oldProduct == null) {
+                allProducts.add(newProduct);
+                for (InventoryListener l : listeners) l.productAdded(newProduct);
+            } else {
+                allProducts.replace(oldProduct, newProduct);
+                for (InventoryListener l : listeners) l.productUpdated(oldProduct, newProduct);
+            }
+        } finally {
+            lock.writeLock().unlock();
+            metrics.adds.record(start);
+        }
+    }
+
+    /**
+     * Adds many parts to the parts list at once.
+     * The parts list fires a single change event for the whole batch.
+     * Parts with an ID lower than 1 are given the next available ID, and parts already in the inventory are skipped.
+     *
+     * @param newParts  the parts to be added
+     */
+    public static void addAllParts(Collection<? extends Part> newParts) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            List<Part> added = new ArrayList<>(newParts.size());
+            for (Part p : newParts) {
+                if (p.getId() < 1) p.setId(partIds.allocate());
+                else if (partsById.get(p.getId()) == p) continue;
+                Part oldPart = indexPart(p);
+                if (oldPart == null) {
+                    added.add(p);
+                    continue;
+                }
+                allParts.replace(oldPart, p);
+                for (InventoryListener l : listeners) l.partUpdated(oldPart, p);
+            }
+            allParts.addAll(added);
+            for (InventoryListener l : listeners)
+                for (Part p : added) l.partAdded(p);
+        } finally {
+            lock.writeLock().unlock();
+            metrics.adds.record(start);
+        }
+    }
+
+    /**
+     * Adds many products to the products list at once.
+     * The products list fires a single change event for the whole batch.
+     * Products with an ID lower than 1 are given the next available ID, and products already in the inventory are
+     * skipped.
+     *
+     * @param newProducts   the products to be added
+     */
+    public static void addAllProducts(Collection<? extends Product> newProducts) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            List<Product> added = new ArrayList<>(newProducts.size());
+            for (Product p : newProducts) {
+                if (p.getId() < 1) p.setId(productIds.allocate());
+                else if (productsById.get(p.getId()) == p) continue;
+                Product oldProduct = indexProduct(p);
+                if (oldProduct == null) {
+                    added.add(p);
+                    continue;
+                }
+                allProducts.replace(oldProduct, p);
+                for (InventoryListener l : listeners) l.productUpdated(oldProduct, p);
+            }
+            allProducts.addAll(added);
+            for (InventoryListener l : listeners)
+                for (Product p : added) l.productAdded(p);
+        } finally {
+            lock.writeLock().unlock();
+            metrics.adds.record(start);
+        }
+    }
+
+    /**
+     * Adds a new part to the parts list unless another part already has its ID, checking and adding in one step.
+     * A part with an ID lower than 1 is given the next available ID, so it is always added.
+     *
+     * @param newPart   the part to be added
+     * @return          true if the part was added, otherwise false if its ID is already taken
+     */
+    public static boolean addPartIfAbsent(Part newPart) {
+        return addAllPartsIfAbsent(Collections.singletonList(newPart)).isEmpty();
+    }
+
+    /**
+     * Adds a new product to the products list unless another product already has its ID, checking and adding in
+     * one step. A product with an ID lower than 1 is given the next available ID, so it is always added.
+     *
+     * @param newProduct    the product to be added
+     * @return              true if the product was added, otherwise false if its ID is already taken
+     */
+    public static boolean addProductIfAbsent(Product newProduct) {
+        return addAllProductsIfAbsent(Collections.singletonList(newProduct)).isEmpty();
+    }
+
+    /**
+     * Adds many parts to the parts list at once, skipping any whose ID is already taken rather than replacing
+     * the part that has it. The parts list fires a single change event for the whole batch.
+     * Parts with an ID lower than 1 are given the next available ID.
+     *
+     * @param newParts  the parts to be added
+     * @return          the parts that were not added, in batch order
+     */
+    public static List<Part> addAllPartsIfAbsent(Collection<? extends Part> newParts) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            List<Part> added = new ArrayList<>(newParts.size());
+            List<Part> rejected = new ArrayList<>();
+            for (Part p : newParts) {
+                if (p.getId() < 1) p.setId(partIds.allocate());
+                else if (partsById.get(p.getId()) != null) {
+                    rejected.add(p);
+                    continue;
+                }
+                indexPart(p);
+                added.add(p);
+            }
+            allParts.addAll(added);
+            for (InventoryListener l : listeners)
+                for (Part p : added) l.partAdded(p);
+            return rejected;
+        } finally {
+            lock.writeLock().unlock();
+            metrics.adds.record(start);
+        }
+    }
+
+    /**
+     * Adds many products to the products list at once, skipping any whose ID is already taken rather than replacing
+     * the product that has it. The products list fires a single change event for the whole batch.
+     * Products with an ID lower than 1 are given the next available ID.
+     *
+     * @param newProducts   the products to be added
+     * @return              the products that were not added, in batch order
+     */
+    public static List<Product> addAllProductsIfAbsent(Collection<? extends Product> newProducts) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            List<Product> added = new ArrayList<>(newProducts.size());
+            List<Product> rejected = new ArrayList<>();
+            for (Product p : newProducts) {
+                if (p.getId() < 1) p.setId(productIds.allocate());
+                else if (productsById.get(p.getId()) != null) {
+                    rejected.add(p);
+                    continue;
+                }
+                indexProduct(p);
+                added.add(p);
+            }
+            allProducts.addAll(added);
+            for (InventoryListener l : listeners)
+                for (Product p : added) l.productAdded(p);
+            return rejected;
+        } finally {
+            lock.writeLock().unlock();
+            metrics.adds.record(start);
+        }
     }
 
     /**
@@ -41,23 +287,34 @@ public class Inventory {
      * @return          the requested part, otherwise null
      */
     public static Part lookupPart(int partId) {
-        for (Part p : allParts)
-            if (p.getId() == partId)
-                return p;
-        return null;
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return partsById.get(partId);
+        } finally {
+            lock.readLock().unlock();
+            metrics.idLookups.record(start);
+        }
     }
 
     /**
      * Searches for part by name.
+     * Matches are found through the name index and are returned in order of ID.
      *
      * @param partName  name of the requested part(s)
      * @return          an ObservableList of the requested part(s)
      */
     public static ObservableList<Part> lookupPart (String partName) {
         ObservableList<Part> parts = FXCollections.observableArrayList();
-        for (Part p : allParts)
-            if (p.getName().toLowerCase().contains(partName.toLowerCase()))
-                parts.add(p);
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            for (int id : partNames.search(partName))
+                parts.add(partsById.get(id));
+        } finally {
+            lock.readLock().unlock();
+            metrics.nameSearches.record(start);
+        }
         return parts;
     }
 
@@ -68,44 +325,180 @@ public class Inventory {
      * @return          the requested product, otherwise null
      */
     public static Product lookupProduct(int productId) {
-        for (Product p : allProducts)
-            if (p.getId() == productId)
-                return p;
-        return null;
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return productsById.get(productId);
+        } finally {
+            lock.readLock().unlock();
+            metrics.idLookups.record(start);
+        }
     }
 
     /**
      * Searches for product by name.
+     * Matches are found through the name index and are returned in order of ID.
      *
      * @param productName   name of the requested product(s)
      * @return              an ObservableList of the requested product(s)
      */
     public static ObservableList<Product> lookupProduct(String productName) {
         ObservableList<Product> products = FXCollections.observableArrayList();
-        for (Product p : allProducts)
-            if (p.getName().toLowerCase().contains(productName.toLowerCase()))
-                products.add(p);
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            for (int id : productNames.search(productName))
+                products.add(productsById.get(id));
+        } finally {
+            lock.readLock().unlock();
+            metrics.nameSearches.record(start);
+        }
         return products;
     }
 
     /**
      * Updates a specific part in the inventory.
+     * The index refers to the parts list, so call this on the thread the list is bound to.
      *
      * @param index         index of part to update
      * @param selectedPart  updated part
      */
     public static void updatePart(int index, Part selectedPart) {
-        allParts.set(index, selectedPart);
+        updatePart(allParts.list().get(index), selectedPart);
+    }
+
+    /**
+     * Replaces a part in the inventory.
+     * The updated part may take a new ID, but not one held by another part.
+     *
+     * @param oldPart   part to replace
+     * @param newPart   updated part
+     * @return          true if the old part was still in the inventory and was replaced, otherwise false if it was
+     *                  not or another part has the updated part's ID
+     */
+    public static boolean updatePart(Part oldPart, Part newPart) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (partsById.get(oldPart.getId()) != oldPart) return false;
+            Part holder = partsById.get(newPart.getId());
+            if (holder != null && holder != oldPart) return false;
+            unindexPart(oldPart);
+            indexPart(newPart);
+            allParts.replace(oldPart, newPart);
+            for (InventoryListener l : listeners) l.partUpdated(oldPart, newPart);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            metrics.updates.record(start);
+        }
+    }
+
+    /**
+     * Replaces a part in the inventory and moves every product's units of it over to the updated part, in one step
+     * under the write lock. Readers and listeners never see the updated part in the inventory while a product still
+     * uses the old one.
+     *
+     * @param oldPart   part to replace
+     * @param newPart   updated part
+     * @return          true if the old part was replaced, otherwise false as for {@link #updatePart(Part, Part)}
+     */
+    public static boolean replacePart(Part oldPart, Part newPart) {
+        boolean[] replaced = new boolean[1];
+        write(() -> {
+            IdentityHashMap<Product, Integer> users = productsByPartId.get(oldPart.getId());
+            List<Product> products = users == null ? List.of() : new ArrayList<>(users.keySet());
+            if (!updatePart(oldPart, newPart)) return;
+            for (Product p : products) p.replaceAssociatedPart(oldPart, newPart);
+            replaced[0] = true;
+        });
+        return replaced[0];
     }
 
     /**
      * Updates a specific product in the inventory.
+     * The index refers to the products list, so call this on the thread the list is bound to.
      *
      * @param index         index of product to update
      * @param newProduct    updated product
      */
     public static void updateProduct(int index, Product newProduct) {
-        allProducts.set(index, newProduct);
+        updateProduct(allProducts.list().get(index), newProduct);
+    }
+
+    /**
+     * Replaces a product in the inventory.
+     * The updated product may take a new ID, but not one held by another product.
+     *
+     * @param oldProduct    product to replace
+     * @param newProduct    updated product
+     * @return              true if the old product was still in the inventory and was replaced, otherwise false if
+     *                      it was not or another product has the updated product's ID
+     */
+    public static boolean updateProduct(Product oldProduct, Product newProduct) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (productsById.get(oldProduct.getId()) != oldProduct) return false;
+            Product holder = productsById.get(newProduct.getId());
+            if (holder != null && holder != oldProduct) return false;
+            unindexProduct(oldProduct);
+            indexProduct(newProduct);
+            allProducts.replace(oldProduct, newProduct);
+            for (InventoryListener l : listeners) l.productUpdated(oldProduct, newProduct);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            metrics.updates.record(start);
+        }
+    }
+
+    /**
+     * Atomically changes the inventory level of a part.
+     * The change is refused if it would take the level below zero or above {@link Integer#MAX_VALUE}.
+     *
+     * @param partId    ID of the part
+     * @param delta     amount to add, negative to take stock out
+     * @return          the new inventory level, otherwise -1 if there is no such part
+     *                  or the level would be out of range
+     */
+    public static int adjustPartStock(int partId, int delta) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            Part part = partsById.get(partId);
+            long stock = part == null ? -1 : part.getStock() + (long) delta;
+            if (stock < 0 || stock > Integer.MAX_VALUE) return -1;
+            part.setStock((int) stock);
+            return part.getStock();
+        } finally {
+            lock.writeLock().unlock();
+            metrics.updates.record(start);
+        }
+    }
+
+    /**
+     * Atomically changes the inventory level of a product.
+     * The change is refused if it would take the level below zero or above {@link Integer#MAX_VALUE}.
+     *
+     * @param productId ID of the product
+     * @param delta     amount to add, negative to take stock out
+     * @return          the new inventory level, otherwise -1 if there is no such product
+     *                  or the level would be out of range
+     */
+    public static int adjustProductStock(int productId, int delta) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            Product product = productsById.get(productId);
+            long stock = product == null ? -1 : product.getStock() + (long) delta;
+            if (stock < 0 || stock > Integer.MAX_VALUE) return -1;
+            product.setStock((int) stock);
+            return product.getStock();
+        } finally {
+            lock.writeLock().unlock();
+            metrics.updates.record(start);
+        }
     }
 
     /**
@@ -115,7 +508,18 @@ public class Inventory {
      * @return              true if part was removed from inventory, otherwise false
      */
     public static boolean deletePart(Part selectedPart) {
-        return allParts.remove(selectedPart);
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (partsById.get(selectedPart.getId()) != selectedPart) return false;
+            unindexPart(selectedPart);
+            allParts.remove(selectedPart);
+            for (InventoryListener l : listeners) l.partDeleted(selectedPart);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            metrics.deletes.record(start);
+        }
     }
 
     /**
@@ -125,7 +529,18 @@ public class Inventory {
      * @return                  true if product was removed from inventory, otherwise false
      */
     public static boolean deleteProduct(Product selectedProduct) {
-        return allProducts.remove(selectedProduct);
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            if (productsById.get(selectedProduct.getId()) != selectedProduct) return false;
+            unindexProduct(selectedProduct);
+            allProducts.remove(selectedProduct);
+            for (InventoryListener l : listeners) l.productDeleted(selectedProduct);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+            metrics.deletes.record(start);
+        }
     }
 
     /**
@@ -134,7 +549,7 @@ public class Inventory {
      * @return  an ObservableList of all parts in the inventory
      */
     public static ObservableList<Part> getAllParts() {
-        return allParts;
+        return allParts.list();
     }
 
     /**
@@ -143,45 +558,665 @@ public class Inventory {
      * @return  an ObservableList of all products in the inventory.
      */
     public static ObservableList<Product> getAllProducts() {
-        return allProducts;
+        return allProducts.list();
+    }
+
+    /**
+     * Copies every part in the inventory as of now, whatever the parts list has caught up with.
+     * Safe to call from any thread.
+     *
+     * @return  a new list of all parts in order of ID
+     */
+    public static List<Part> snapshotParts() {
+        ArrayList<Part> parts;
+        lock.readLock().lock();
+        try {
+            parts = partsById.values();
+        } finally {
+            lock.readLock().unlock();
+        }
+        parts.sort(Comparator.comparingInt(Part::getId));
+        return parts;
+    }
+
+    /**
+     * Copies every product in the inventory as of now, whatever the products list has caught up with.
+     * Safe to call from any thread.
+     *
+     * @return  a new list of all products in order of ID
+     */
+    public static List<Product> snapshotProducts() {
+        ArrayList<Product> products;
+        lock.readLock().lock();
+        try {
+            products = productsById.values();
+        } finally {
+            lock.readLock().unlock();
+        }
+        products.sort(Comparator.comparingInt(Product::getId));
+        return products;
+    }
+
+    /**
+     * Visits every part in the inventory in order of ID, walking the used IDs rather than copying and sorting the parts.
+     * The inventory cannot change until the visit ends, so the parts seen are one point-in-time state.
+     * The visitor must not wait on other threads that change the inventory.
+     *
+     * @param visitor   called for each part
+     * @param <E>       exception the visitor may throw, which ends the visit
+     * @return          number of parts visited
+     * @throws E        if the visitor failed
+     */
+    public static <E extends Exception> int forEachPart(Visitor<? super Part, E> visitor) throws E {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (int id = partIds.nextUsed(1); id > 0; id = id == Integer.MAX_VALUE ? -1 : partIds.nextUsed(id + 1)) {
+                Part part = partsById.get(id);
+                if (part == null) continue;
+                visitor.visit(part);
+                count++;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits every product in the inventory in order of ID, walking the used IDs rather than copying and sorting
+     * the products. The inventory cannot change until the visit ends, so the products seen are one point-in-time state.
+     * The visitor must not wait on other threads that change the inventory.
+     *
+     * @param visitor   called for each product
+     * @param <E>       exception the visitor may throw, which ends the visit
+     * @return          number of products visited
+     * @throws E        if the visitor failed
+     */
+    public static <E extends Exception> int forEachProduct(Visitor<? super Product, E> visitor) throws E {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (int id = productIds.nextUsed(1); id > 0; id = id == Integer.MAX_VALUE ? -1 : productIds.nextUsed(id + 1)) {
+                Product product = productsById.get(id);
+                if (product == null) continue;
+                visitor.visit(product);
+                count++;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits up to a number of parts in order of ID, starting from an ID, so a long walk can let go of the read lock
+     * between chunks. Each chunk is one point-in-time state, but the inventory may change from one chunk to the next.
+     * The visitor must not wait on other threads that change the inventory.
+     *
+     * @param fromId    lowest ID to visit
+     * @param limit     most parts to visit
+     * @param visitor   called for each part
+     * @param <E>       exception the visitor may throw, which ends the visit
+     * @return          ID to start the next chunk from, otherwise -1 if no parts are left
+     * @throws E        if the visitor failed
+     */
+    public static <E extends Exception> int forEachPart(int fromId, int limit, Visitor<? super Part, E> visitor)
+            throws E {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (int id = partIds.nextUsed(Math.max(fromId, 1)); id > 0;
+                 id = id == Integer.MAX_VALUE ? -1 : partIds.nextUsed(id + 1)) {
+                Part part = partsById.get(id);
+                if (part == null) continue;
+                if (count == limit) return id;
+                visitor.visit(part);
+                count++;
+            }
+            return -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits up to a number of products in order of ID, starting from an ID, so a long walk can let go of the read
+     * lock between chunks. Each chunk is one point-in-time state, but the inventory may change from one chunk to
+     * the next. The visitor must not wait on other threads that change the inventory.
+     *
+     * @param fromId    lowest ID to visit
+     * @param limit     most products to visit
+     * @param visitor   called for each product
+     * @param <E>       exception the visitor may throw, which ends the visit
+     * @return          ID to start the next chunk from, otherwise -1 if no products are left
+     * @throws E        if the visitor failed
+     */
+    public static <E extends Exception> int forEachProduct(int fromId, int limit, Visitor<? super Product, E> visitor)
+            throws E {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (int id = productIds.nextUsed(Math.max(fromId, 1)); id > 0;
+                 id = id == Integer.MAX_VALUE ? -1 : productIds.nextUsed(id + 1)) {
+                Product product = productsById.get(id);
+                if (product == null) continue;
+                if (count == limit) return id;
+                visitor.visit(product);
+                count++;
+            }
+            return -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visits a list of items from the inventory under the read lock, so each is seen whole and none changes
+     * until the visit ends. The visitor must not wait on other threads that change the inventory.
+     *
+     * @param items     the items, such as the result of a search
+     * @param visitor   called for each item in list order
+     * @param <T>       type of item
+     * @param <E>       exception the visitor may throw, which ends the visit
+     * @return          number of items visited
+     * @throws E        if the visitor failed
+     */
+    public static <T, E extends Exception> int forEach(List<? extends T> items, Visitor<? super T, E> visitor) throws E {
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < items.size(); i++) visitor.visit(items.get(i));
+            return items.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Called for each item by the forEachPart, forEachProduct and {@link #forEach} methods.
+     *
+     * @param <T>   type of item
+     * @param <E>   exception the visitor may throw
+     */
+    @FunctionalInterface
+    public interface Visitor<T, E extends Exception> {
+
+        /**
+         * @param item      the item being visited
+         * @throws E        to end the visit
+         */
+        void visit(T item) throws E;
+    }
+
+    /**
+     * Runs a task while no other thread can change the inventory, so it sees one consistent state.
+     * The task may read the inventory and must not wait on other threads that change it.
+     *
+     * @param task  the task to run
+     */
+    public static void read(Runnable task) {
+        lock.readLock().lock();
+        try {
+            task.run();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a change under the write lock, so readers never see it half made.
+     * Used by products to change their associated parts and components together with the notice of the change,
+     * which keeps a snapshot from holding a change whose journal record comes after it, and by parts and products
+     * renamed in place, so the name index never disagrees with the names.
+     *
+     * @param task  the change to make
+     */
+    static void write(Runnable task) {
+        lock.writeLock().lock();
+        try {
+            task.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves every product in the inventory that has a specific part associated.
+     *
+     * @param partId    ID of the associated part
+     * @return          an ObservableList of the products using the part, each listed once
+     */
+    public static ObservableList<Product> getProductsUsingPart(int partId) {
+        ObservableList<Product> products = FXCollections.observableArrayList();
+        lock.readLock().lock();
+        try {
+            IdentityHashMap<Product, Integer> users = productsByPartId.get(partId);
+            if (users != null) products.addAll(users.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        return products;
+    }
+
+    /**
+     * Retrieves the counters and latency histograms of the inventory's operations.
+     * Publish them over JMX with {@link InventoryMetrics#register()}.
+     *
+     * @return  the inventory's metrics
+     */
+    public static InventoryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return  number of parts in the inventory
+     */
+    static int countParts() {
+        lock.readLock().lock();
+        try {
+            return partsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return  number of products in the inventory
+     */
+    static int countProducts() {
+        lock.readLock().lock();
+        try {
+            return productsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return  the total inventory level of all parts in the inventory
+     */
+    static long totalPartStock() {
+        lock.readLock().lock();
+        try {
+            return partStore.totalStock();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return  the total value of all parts in the inventory, price times inventory level
+     */
+    static double totalPartValue() {
+        lock.readLock().lock();
+        try {
+            return partStore.totalValue();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return  number of parts in the inventory at or below their minimum inventory level
+     */
+    static int countPartsAtOrBelowMin() {
+        lock.readLock().lock();
+        try {
+            return partStore.countAtOrBelowMin();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the column-oriented copy of the numeric fields of the parts in the inventory, for scans over prices
+     * and inventory levels. Read it inside {@link #read(Runnable)}, as it changes with the inventory.
+     *
+     * @return  the part store
+     */
+    public static PartStore getPartStore() {
+        return partStore;
+    }
+
+    /**
+     * Retrieves the dictionary of the company names of the outsourced parts in the inventory.
+     * A name stays in it while at least one part from that company does, and its code may be given to another
+     * name once it is released, so codes are only read under the inventory's lock.
+     *
+     * @return  the supplier dictionary
+     */
+    static StringDictionary getSupplierDictionary() {
+        return supplierDictionary;
+    }
+
+    /**
+     * Searches for the outsourced parts from a company.
+     *
+     * @param companyName   exact company name
+     * @return              an ObservableList of the company's parts in order of ID
+     */
+    public static ObservableList<Part> lookupPartsBySupplier(String companyName) {
+        long start = System.nanoTime();
+        ObservableList<Part> parts = FXCollections.observableArrayList();
+        lock.readLock().lock();
+        try {
+            int code = supplierDictionary.codeOf(companyName);
+            PostingList ids = code < 0 ? null : partsBySupplier.get(code);
+            if (ids != null) ids.forEach(id -> parts.add(partsById.get(id)));
+        } finally {
+            lock.readLock().unlock();
+            metrics.nameSearches.record(start);
+        }
+        return parts;
+    }
+
+    /**
+     * Registers a listener to be told about every change to the inventory.
+     * Listeners are called on the thread that made the change while the inventory is locked,
+     * so they see changes in the order they were made and must return quickly.
+     *
+     * @param listener  the listener to add
+     */
+    public static void addListener(InventoryListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener  the listener to remove
+     */
+    public static void removeListener(InventoryListener listener) {
+        listeners.remove(listener);
     }
 
     /**
      * Prioritizes missing gaps in the ID list, or returns a new highest ID. If no ID is present, an ID of 1 is returned.
+     * The ID is only a preview and is not reserved, so two callers can be shown the same one. To add a part under
+     * a fresh ID, give it an ID lower than 1 and add it: the ID is then allocated in the same step as the add.
      *
      * @return  available part ID
      */
     public static int getNextPartId() {
-        int id = 1;
-        if (!allParts.isEmpty()) {
-            ArrayList<Integer> ids = new ArrayList<Integer>();
-            for (Part p : allParts) ids.add(p.getId());
-            Collections.sort(ids);
-            for (int i = 0; i < ids.size(); i++) {
-                if ((i == 0 && ids.get(i) > 1) || (i > 0 && ids.get(i - 1) + 1 < ids.get(i))) break;
-                id = ids.get(i) + 1;
-            }
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return partIds.next();
+        } finally {
+            lock.readLock().unlock();
+            metrics.idAllocations.record(start);
         }
-        return id;
     }
 
     /**
      * Prioritizes missing gaps in the ID list, or returns a new highest ID. If no ID is present, an ID of 1 is returned.
+     * The ID is only a preview and is not reserved, so two callers can be shown the same one. To add a product under
+     * a fresh ID, give it an ID lower than 1 and add it: the ID is then allocated in the same step as the add.
      *
      * @return  available product ID
      */
     public static int getNextProductId() {
-        int id = 1;
-        if (!allParts.isEmpty()) {
-            ArrayList<Integer> ids = new ArrayList<Integer>();
-            for (Product p : allProducts) ids.add(p.getId());
-            Collections.sort(ids);
-            for (int i = 0; i < ids.size(); i++) {
-                if ((i == 0 && ids.get(i) > 1) || (i > 0 && ids.get(i - 1) + 1 < ids.get(i))) break;
-                id = ids.get(i) + 1;
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return productIds.next();
+        } finally {
+            lock.readLock().unlock();
+            metrics.idAllocations.record(start);
+        }
+    }
+
+    /**
+     * Moves a part in the inventory to another company in the supplier index.
+     * Nothing changes if the company is the same.
+     *
+     * @param part          an outsourced part
+     * @param companyName   its new company name
+     */
+    static void changeSupplier(Outsourced part, String companyName) {
+        write(() -> {
+            if (part.companyCode < 0) {
+                part.setSupplier(supplierDictionary.canonical(companyName), -1);
+            } else if (!part.getCompanyName().equals(companyName)) {
+                unlistSupplier(part);
+                listSupplier(part, companyName);
             }
+        });
+    }
+
+    /**
+     * Adds an outsourced part to the supplier index, taking a reference to its company name.
+     *
+     * @param part          the part
+     * @param companyName   its company name
+     */
+    private static void listSupplier(Outsourced part, String companyName) {
+        int code = supplierDictionary.acquire(companyName);
+        part.setSupplier(supplierDictionary.decode(code), code);
+        PostingList ids = partsBySupplier.get(code);
+        if (ids == null) {
+            ids = new PostingList();
+            partsBySupplier.put(code, ids);
+        }
+        ids.add(part.getId());
+    }
+
+    /**
+     * Removes an outsourced part from the supplier index, releasing its reference to its company name.
+     *
+     * @param part  the part
+     */
+    private static void unlistSupplier(Outsourced part) {
+        int code = part.companyCode;
+        if (code < 0) return;
+        PostingList ids = partsBySupplier.get(code);
+        if (ids != null && ids.remove(part.getId()) && ids.isEmpty()) partsBySupplier.remove(code);
+        part.setSupplier(part.getCompanyName(), -1);
+        supplierDictionary.release(code);
+    }
+
+    /**
+     * Reports a part changed in place to the listeners as updated, if it is in the inventory.
+     * Called by the part under the write lock, with the field already changed.
+     *
+     * @param part  the part
+     */
+    static void updated(Part part) {
+        if (partsById.get(part.getId()) != part) return;
+        partStore.write(part);
+        allParts.replace(part, part);
+        for (InventoryListener l : listeners) l.partUpdated(part, part);
+    }
+
+    /**
+     * Reports a product changed in place to the listeners as updated, if it is in the inventory.
+     * Called by the product under the write lock, with the field already changed.
+     *
+     * @param product   the product
+     */
+    static void updated(Product product) {
+        if (productsById.get(product.getId()) != product) return;
+        allProducts.replace(product, product);
+        for (InventoryListener l : listeners) l.productUpdated(product, product);
+    }
+
+    /**
+     * Moves a part renamed in place to its new name in the name index, if it is in the inventory.
+     * Called by the part under the write lock, with the name already changed.
+     *
+     * @param part      the part
+     * @param oldName   the name it had
+     */
+    static void renamed(Part part, String oldName) {
+        if (partsById.get(part.getId()) != part) return;
+        partNames.remove(part.getId(), oldName);
+        partNames.add(part.getId(), part.getName());
+    }
+
+    /**
+     * Moves a product renamed in place to its new name in the name index, if it is in the inventory.
+     * Called by the product under the write lock, with the name already changed.
+     *
+     * @param product   the product
+     * @param oldName   the name it had
+     */
+    static void renamed(Product product, String oldName) {
+        if (productsById.get(product.getId()) != product) return;
+        productNames.remove(product.getId(), oldName);
+        productNames.add(product.getId(), product.getName());
+    }
+
+    /**
+     * Adds a part to the lookup indexes, removing any part that had its ID.
+     *
+     * @param part  part being added
+     * @return      the part it displaced, otherwise null
+     */
+    private static Part indexPart(Part part) {
+        Part displaced = partsById.get(part.getId());
+        if (displaced == part) return null;
+        if (displaced != null) unindexPart(displaced);
+        partsById.put(part.getId(), part);
+        partNames.add(part.getId(), part.getName());
+        partIds.claim(part.getId());
+        partStore.add(part);
+        if (part instanceof Outsourced) listSupplier((Outsourced) part, ((Outsourced) part).getCompanyName());
+        return displaced;
+    }
+
+    /**
+     * Removes a part from the lookup indexes.
+     * An ID is only unmapped if it still points to this part.
+     *
+     * @param part  part being removed
+     */
+    private static void unindexPart(Part part) {
+        if (part instanceof Outsourced) unlistSupplier((Outsourced) part);
+        if (partsById.remove(part.getId(), part)) {
+            partNames.remove(part.getId(), part.getName());
+            partIds.release(part.getId());
+            partStore.remove(part);
+        }
+    }
+
+    /**
+     * Adds a product to the lookup indexes, removing any product that had its ID.
+     *
+     * @param product   product being added
+     * @return          the product it displaced, otherwise null
+     */
+    private static Product indexProduct(Product product) {
+        Product displaced = productsById.get(product.getId());
+        if (displaced == product) return null;
+        if (displaced != null) unindexProduct(displaced);
+        productsById.put(product.getId(), product);
+        productNames.add(product.getId(), product.getName());
+        productIds.claim(product.getId());
+        AssociatedParts associated = product.getAssociatedParts();
+        for (int i = 0; i < associated.size(); i++) addUsage(product, associated.get(i), associated.quantityAt(i));
+        return displaced;
+    }
+
+    /**
+     * Removes a product from the lookup indexes.
+     * An ID is only unmapped if it still points to this product.
+     *
+     * @param product   product being removed
+     */
+    private static void unindexProduct(Product product) {
+        if (productsById.remove(product.getId(), product)) {
+            productNames.remove(product.getId(), product.getName());
+            productIds.release(product.getId());
         }
-        return id;
+        AssociatedParts associated = product.getAssociatedParts();
+        for (int i = 0; i < associated.size(); i++) removeUsage(product, associated.get(i), associated.quantityAt(i));
+    }
+
+    /**
+     * Records new units of a part association on a product.
+     * Called by the product; associations on products outside of the inventory are not tracked.
+     *
+     * @param product   product the part was associated with
+     * @param part      the associated part
+     * @param units     units added
+     */
+    static void associated(Product product, Part part, int units) {
+        lock.writeLock().lock();
+        try {
+            if (productsById.get(product.getId()) != product) return;
+            addUsage(product, part, units);
+            for (InventoryListener l : listeners) l.partAssociated(product, part, units);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records removed units of a part association on a product.
+     * Called by the product; associations on products outside of the inventory are not tracked.
+     *
+     * @param product   product the part was disassociated from
+     * @param part      the disassociated part
+     * @param units     units removed
+     */
+    static void disassociated(Product product, Part part, int units) {
+        lock.writeLock().lock();
+        try {
+            if (productsById.get(product.getId()) != product) return;
+            removeUsage(product, part, units);
+            for (InventoryListener l : listeners) l.partDisassociated(product, part, units);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records a change to the products a product includes.
+     * Called by the product; components of products outside of the inventory are not tracked.
+     *
+     * @param product       product whose components changed
+     * @param componentId   ID of the included product
+     * @param quantity      units now included, 0 if no longer included
+     */
+    static void componentChanged(Product product, int componentId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            if (productsById.get(product.getId()) != product) return;
+            for (InventoryListener l : listeners) l.componentChanged(product, componentId, quantity);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds units of an association to the part usage index, which counts the units each product uses of each part.
+     *
+     * @param product   product using the part
+     * @param part      the associated part
+     * @param units     units added
+     */
+    private static void addUsage(Product product, Part part, int units) {
+        IdentityHashMap<Product, Integer> users = productsByPartId.get(part.getId());
+        if (users == null) {
+            users = new IdentityHashMap<>(4);
+            productsByPartId.put(part.getId(), users);
+        }
+        users.merge(product, units, Integer::sum);
+    }
+
+    /**
+     * Removes units of an association from the part usage index.
+     * The product is no longer listed for the part once none of its units are left.
+     *
+     * @param product   product no longer using the units
+     * @param part      the disassociated part
+     * @param units     units removed
+     */
+    private static void removeUsage(Product product, Part part, int units) {
+        IdentityHashMap<Product, Integer> users = productsByPartId.get(part.getId());
+        if (users == null) return;
+        users.computeIfPresent(product, (p, count) -> count > units ? count - units : null);
+        if (users.isEmpty()) productsByPartId.remove(part.getId());
     }
 
 }
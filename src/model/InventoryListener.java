@@ -0,0 +1,84 @@
+package model;
+
+/**
+ * Receives notice of every change made to the inventory.
+ * Listeners are called on the thread that made the change, after the change has been applied.
+ * Every method does nothing by default, so a listener only overrides the changes it cares about.
+ *
+ * @author Alex Bright
+ */
+public interface InventoryListener {
+
+    /**
+     * Called after a part is added to the inventory.
+     *
+     * @param part  the added part
+     */
+    default void partAdded(Part part) {}
+
+    /**
+     * Called after a part in the inventory is replaced, or after its price, inventory level, minimum or maximum
+     * is changed in place, in which case both parts are the same.
+     *
+     * @param oldPart   the replaced part
+     * @param newPart   the part now in the inventory
+     */
+    default void partUpdated(Part oldPart, Part newPart) {}
+
+    /**
+     * Called after a part is deleted from the inventory.
+     *
+     * @param part  the deleted part
+     */
+    default void partDeleted(Part part) {}
+
+    /**
+     * Called after a product is added to the inventory.
+     *
+     * @param product   the added product
+     */
+    default void productAdded(Product product) {}
+
+    /**
+     * Called after a product in the inventory is replaced, or after its price, inventory level, minimum or maximum
+     * is changed in place, in which case both products are the same.
+     *
+     * @param oldProduct    the replaced product
+     * @param newProduct    the product now in the inventory
+     */
+    default void productUpdated(Product oldProduct, Product newProduct) {}
+
+    /**
+     * Called after a product is deleted from the inventory.
+     *
+     * @param product   the deleted product
+     */
+    default void productDeleted(Product product) {}
+
+    /**
+     * Called after units of a part are associated with a product in the inventory.
+     *
+     * @param product   the product
+     * @param part      the associated part
+     * @param quantity  units added
+     */
+    default void partAssociated(Product product, Part part, int quantity) {}
+
+    /**
+     * Called after units of a part are disassociated from a product in the inventory.
+     *
+     * @param product   the product
+     * @param part      the disassociated part
+     * @param quantity  units removed
+     */
+    default void partDisassociated(Product product, Part part, int quantity) {}
+
+    /**
+     * Called after a product in the inventory starts including another product, or changes or stops including it.
+     *
+     * @param product       the product
+     * @param componentId   ID of the included product
+     * @param quantity      units now included, 0 if no longer included
+     */
+    default void componentChanged(Product product, int componentId, int quantity) {}
+}
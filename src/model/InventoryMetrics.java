@@ -0,0 +1,110 @@
+package model;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts and times the inventory's operations.
+ * The inventory records into it as it works; {@link #register()} publishes it as a JMX MBean for tools such as
+ * JConsole and VisualVM.
+ *
+ * @author Alex Bright
+ */
+public class InventoryMetrics implements InventoryMetricsMXBean {
+
+    /**
+     * The name the metrics are published under.
+     */
+    public static final String OBJECT_NAME = "c482:type=Inventory";
+
+    final OperationMetrics adds = new OperationMetrics();
+    final OperationMetrics updates = new OperationMetrics();
+    final OperationMetrics deletes = new OperationMetrics();
+    final OperationMetrics idLookups = new OperationMetrics();
+    final OperationMetrics nameSearches = new OperationMetrics();
+    final OperationMetrics idAllocations = new OperationMetrics();
+
+    InventoryMetrics() {
+    }
+
+    /**
+     * Publishes the inventory's metrics on the platform MBean server.
+     * Publishing them again does nothing.
+     *
+     * @throws JMException  if the metrics could not be published
+     */
+    public static void register() throws JMException {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(Inventory.getMetrics(), new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ignored) {
+            // already published
+        }
+    }
+
+    @Override
+    public int getPartCount() {
+        return Inventory.countParts();
+    }
+
+    @Override
+    public int getProductCount() {
+        return Inventory.countProducts();
+    }
+
+    @Override
+    public long getTotalPartStock() {
+        return Inventory.totalPartStock();
+    }
+
+    @Override
+    public double getTotalPartValue() {
+        return Inventory.totalPartValue();
+    }
+
+    @Override
+    public int getPartsAtOrBelowMin() {
+        return Inventory.countPartsAtOrBelowMin();
+    }
+
+    @Override
+    public OperationStats getAdds() {
+        return adds.snapshot();
+    }
+
+    @Override
+    public OperationStats getUpdates() {
+        return updates.snapshot();
+    }
+
+    @Override
+    public OperationStats getDeletes() {
+        return deletes.snapshot();
+    }
+
+    @Override
+    public OperationStats getIdLookups() {
+        return idLookups.snapshot();
+    }
+
+    @Override
+    public OperationStats getNameSearches() {
+        return nameSearches.snapshot();
+    }
+
+    @Override
+    public OperationStats getIdAllocations() {
+        return idAllocations.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        adds.reset();
+        updates.reset();
+        deletes.reset();
+        idLookups.reset();
+        nameSearches.reset();
+        idAllocations.reset();
+    }
+}
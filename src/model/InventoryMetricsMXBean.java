@@ -0,0 +1,70 @@
+package model;
+
+/**
+ * The inventory's metrics as published over JMX, under the name "c482:type=Inventory".
+ * Each operation covers both parts and products.
+ *
+ * @author Alex Bright
+ */
+public interface InventoryMetricsMXBean {
+
+    /**
+     * @return  number of parts in the inventory
+     */
+    int getPartCount();
+
+    /**
+     * @return  number of products in the inventory
+     */
+    int getProductCount();
+
+    /**
+     * @return  total inventory level of all parts
+     */
+    long getTotalPartStock();
+
+    /**
+     * @return  total value of all parts, price times inventory level
+     */
+    double getTotalPartValue();
+
+    /**
+     * @return  number of parts at or below their minimum inventory level
+     */
+    int getPartsAtOrBelowMin();
+
+    /**
+     * @return  parts and products added, one at a time or in batches
+     */
+    OperationStats getAdds();
+
+    /**
+     * @return  parts and products replaced, and inventory levels adjusted
+     */
+    OperationStats getUpdates();
+
+    /**
+     * @return  parts and products deleted
+     */
+    OperationStats getDeletes();
+
+    /**
+     * @return  parts and products looked up by ID
+     */
+    OperationStats getIdLookups();
+
+    /**
+     * @return  parts and products searched for by name or supplier
+     */
+    OperationStats getNameSearches();
+
+    /**
+     * @return  next available IDs handed out
+     */
+    OperationStats getIdAllocations();
+
+    /**
+     * Clears every counter and histogram.
+     */
+    void reset();
+}
@@ -0,0 +1,100 @@
+package model;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts one kind of inventory operation and records how long each took.
+ * <p>
+ *     Recording never locks: every counter is a {@link LongAdder}, which spreads updates from different threads
+ *     over separate cells. Latencies go into a histogram with four buckets per power of two, so a percentile
+ *     read from it is within 25% of the true value.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+final class OperationMetrics {
+
+    private static final int BUCKETS = 256;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    OperationMetrics() {
+        for (int i = 0; i < BUCKETS; i++) buckets[i] = new LongAdder();
+    }
+
+    /**
+     * Records an operation that started at a time from {@link System#nanoTime()} and has just finished.
+     *
+     * @param startNanos    when the operation started
+     */
+    void record(long startNanos) {
+        long nanos = Math.max(0, System.nanoTime() - startNanos);
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets[bucket(nanos)].increment();
+    }
+
+    /**
+     * Sums the counters as of now. Operations recorded while summing may be partly included.
+     *
+     * @return  the operation's statistics
+     */
+    OperationStats snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        long max = maxNanos.get();
+        return new OperationStats(count.sum(), total == 0 ? 0 : totalNanos.sum() / total,
+                percentile(counts, total, 0.50, max), percentile(counts, total, 0.90, max),
+                percentile(counts, total, 0.99, max), max);
+    }
+
+    /**
+     * Clears the counters.
+     */
+    void reset() {
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (LongAdder bucket : buckets) bucket.reset();
+    }
+
+    /**
+     * Finds a latency's bucket: values under 4 have their own, and every power of two above is split into four.
+     */
+    private static int bucket(long nanos) {
+        if (nanos < 4) return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int quarter = (int) (nanos >>> (exponent - 2)) & 3;
+        return ((exponent - 1) << 2) | quarter;
+    }
+
+    /**
+     * @return  the highest latency that falls in a bucket
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < 4) return bucket;
+        int exponent = (bucket >>> 2) + 1;
+        long step = 1L << (exponent - 2);
+        return (4 + (bucket & 3)) * step + step - 1;
+    }
+
+    private static long percentile(long[] counts, long total, double fraction, long max) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+}
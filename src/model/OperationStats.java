@@ -0,0 +1,81 @@
+package model;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * How often one kind of inventory operation ran and how long it took, as published over JMX.
+ * Latencies are in nanoseconds; percentiles are read from a histogram and are within 25% of the true value.
+ *
+ * @author Alex Bright
+ */
+public class OperationStats {
+
+    private final long count;
+    private final long meanNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+
+    /**
+     * Creates the statistics of an operation.
+     *
+     * @param count     number of times it ran
+     * @param meanNanos mean latency
+     * @param p50Nanos  median latency
+     * @param p90Nanos  90th percentile latency
+     * @param p99Nanos  99th percentile latency
+     * @param maxNanos  highest latency
+     */
+    @ConstructorProperties({"count", "meanNanos", "p50Nanos", "p90Nanos", "p99Nanos", "maxNanos"})
+    public OperationStats(long count, long meanNanos, long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos) {
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * @return  number of times the operation ran
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return  mean latency in nanoseconds
+     */
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    /**
+     * @return  median latency in nanoseconds
+     */
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    /**
+     * @return  90th percentile latency in nanoseconds
+     */
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    /**
+     * @return  99th percentile latency in nanoseconds
+     */
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    /**
+     * @return  highest latency in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+}
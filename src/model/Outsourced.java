@@ -3,12 +3,15 @@ package model;
 /**
  * This class defines an Outsourced part.
  * Inherits the Part class.
+ * While the part is in the inventory, its company name is the copy held by the inventory's supplier dictionary,
+ * shared by every part from that company, and the part carries the name's code.
  *
  * @author Alex Bright
  */
 public class Outsourced extends Part {
 
     private String companyName;
+    int companyCode = -1;
 
     /**
      * Creates a new outsourced part.
@@ -23,16 +26,19 @@ public class Outsourced extends Part {
      */
     public Outsourced(int id, String name, double price, int stock, int min, int max, String companyName) {
         super(id, name, price, stock, min, max);
-        this.companyName = companyName;
+        this.companyName = Inventory.getSupplierDictionary().canonical(companyName);
     }
 
     /**
      * Sets the outsourced company name of the part.
+     * A part in the inventory moves to the new company in the supplier index.
      *
      * @param companyName   outsourced company name
      */
     public void setCompanyName(String companyName) {
-        this.companyName = companyName;
+        if (companyCode >= 0) Inventory.changeSupplier(this, companyName);
+        else this.companyName = Inventory.getSupplierDictionary().canonical(companyName);
+        changed();
     }
 
     /**
@@ -44,4 +50,25 @@ public class Outsourced extends Part {
         return companyName;
     }
 
+    /**
+     * Retrieves the supplier dictionary code of the part's company.
+     * Parts in the inventory from the same company share a code, so comparing codes groups parts by supplier.
+     *
+     * @return  supplier code, otherwise -1 if the part is not in the inventory
+     */
+    public int getCompanyCode() {
+        return companyCode;
+    }
+
+    /**
+     * Sets the company name and code the supplier index holds the part under.
+     *
+     * @param companyName   stored copy of the company name
+     * @param companyCode   its code, otherwise -1
+     */
+    void setSupplier(String companyName, int companyCode) {
+        this.companyName = companyName;
+        this.companyCode = companyCode;
+    }
+
 }
@@ -1,5 +1,9 @@
 package model;
 
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyStringProperty;
+
 /**
 * Supplied class Part.java 
  */
@@ -16,6 +20,9 @@ public abstract class Part {
     private int stock;
     private int min;
     private int max;    
+    private volatile RowProperties properties;
+    /** Row in the inventory's {@link PartStore}, or -1 while the part is not stored. */
+    int row = -1;
     public Part(int id, String name, double price, int stock, int min, int max) {
         this.id = id;
         this.name = name;
@@ -37,6 +44,7 @@ public abstract class Part {
      */
     public void setId(int id) {
         this.id = id;
+        changed();
     }
 
     /**
@@ -50,7 +58,12 @@ public abstract class Part {
      * @param name the name to set
      */
     public void setName(String name) {
-        this.name = name;
+        Inventory.write(() -> {
+            String oldName = this.name;
+            this.name = name;
+            Inventory.renamed(this, oldName);
+        });
+        changed();
     }
 
     /**
@@ -61,10 +74,17 @@ public abstract class Part {
     }
 
     /**
+     * A part in the inventory is reported to the inventory's listeners as updated.
+     *
      * @param price the price to set
      */
     public void setPrice(double price) {
-        this.price = price;
+        Inventory.write(() -> {
+            if (this.price == price) return;
+            this.price = price;
+            Inventory.updated(this);
+        });
+        changed();
     }
     
     /**
@@ -75,10 +95,17 @@ public abstract class Part {
     }
 
     /**
+     * A part in the inventory is reported to the inventory's listeners as updated.
+     *
      * @param stock the stock to set
      */
     public void setStock(int stock) {
-        this.stock = stock;
+        Inventory.write(() -> {
+            if (this.stock == stock) return;
+            this.stock = stock;
+            Inventory.updated(this);
+        });
+        changed();
     }
 
     /**
@@ -89,10 +116,17 @@ public abstract class Part {
     }
 
     /**
+     * A part in the inventory is reported to the inventory's listeners as updated.
+     *
      * @param min the min to set
      */
     public void setMin(int min) {
-        this.min = min;
+        Inventory.write(() -> {
+            if (this.min == min) return;
+            this.min = min;
+            Inventory.updated(this);
+        });
+        changed();
     }
 
     /**
@@ -103,10 +137,63 @@ public abstract class Part {
     }
 
     /**
+     * A part in the inventory is reported to the inventory's listeners as updated.
+     *
      * @param max the max to set
      */
     public void setMax(int max) {
-        this.max = max;
+        Inventory.write(() -> {
+            if (this.max == max) return;
+            this.max = max;
+            Inventory.updated(this);
+        });
+        changed();
     }
-    
+
+    /**
+     * @return the id as a read-only property, for display in a table
+     */
+    public ReadOnlyIntegerProperty idProperty() {
+        return properties().id.getReadOnlyProperty();
+    }
+
+    /**
+     * @return the name as a read-only property, for display in a table
+     */
+    public ReadOnlyStringProperty nameProperty() {
+        return properties().name.getReadOnlyProperty();
+    }
+
+    /**
+     * @return the price as a read-only property, for display in a table
+     */
+    public ReadOnlyDoubleProperty priceProperty() {
+        return properties().price.getReadOnlyProperty();
+    }
+
+    /**
+     * @return the stock as a read-only property, for display in a table
+     */
+    public ReadOnlyIntegerProperty stockProperty() {
+        return properties().stock.getReadOnlyProperty();
+    }
+
+    /**
+     * Writes a field change through to the part's properties, if a table has asked for them.
+     */
+    void changed() {
+        RowProperties p = properties;
+        if (p != null) Inventory.publish(() -> p.set(id, name, stock, price));
+    }
+
+    private RowProperties properties() {
+        RowProperties p = properties;
+        if (p == null) {
+            p = new RowProperties();
+            p.set(id, name, stock, price);
+            properties = p;
+        }
+        return p;
+    }
+
 }
\ No newline at end of file
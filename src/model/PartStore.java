@@ -0,0 +1,225 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Column-oriented copy of the numeric fields of every part in the inventory.
+ * <p>
+ *     Each field lives in its own primitive array, one row per part, so totals and filters over prices and
+ *     inventory levels are tight loops over contiguous memory instead of walks over part objects.
+ *     The inventory keeps the rows in step with its parts: a row is added and removed with the part's index entries,
+ *     and rewritten whenever a setter changes the part in place.
+ * </p>
+ * <p>
+ *     Rows are kept dense: removing a part moves the last row into its place, so row numbers are only stable
+ *     while the inventory cannot change. The store is guarded by the inventory's lock rather than its own,
+ *     so read it inside {@link Inventory#read(Runnable)}.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class PartStore {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int size;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] stock = new int[INITIAL_CAPACITY];
+    private int[] min = new int[INITIAL_CAPACITY];
+    private int[] max = new int[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private Part[] parts = new Part[INITIAL_CAPACITY];
+
+    PartStore() {
+    }
+
+    /**
+     * Adds a row for a part.
+     *
+     * @param part  the part to store
+     */
+    void add(Part part) {
+        if (part.row >= 0 && part.row < size && parts[part.row] == part) return;
+        if (size == ids.length) grow();
+        part.row = size++;
+        parts[part.row] = part;
+        write(part);
+    }
+
+    /**
+     * Removes a part's row, moving the last row into its place.
+     *
+     * @param part  the stored part
+     */
+    void remove(Part part) {
+        int row = part.row;
+        if (row < 0 || row >= size || parts[row] != part) return;
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            stock[row] = stock[last];
+            min[row] = min[last];
+            max[row] = max[last];
+            prices[row] = prices[last];
+            parts[row] = parts[last];
+            parts[row].row = row;
+        }
+        parts[last] = null;
+        part.row = -1;
+    }
+
+    /**
+     * Copies a part's fields into its row, if it has one.
+     *
+     * @param part  the stored part
+     */
+    void write(Part part) {
+        int row = part.row;
+        if (row < 0 || row >= size || parts[row] != part) return;
+        ids[row] = part.getId();
+        stock[row] = part.getStock();
+        min[row] = part.getMin();
+        max[row] = part.getMax();
+        prices[row] = part.getPrice();
+    }
+
+    /**
+     * @return  number of stored parts
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the part stored in a row.
+     *
+     * @param row   row number, from 0 to size() - 1
+     * @return      the part
+     */
+    public Part part(int row) {
+        checkRow(row);
+        return parts[row];
+    }
+
+    /**
+     * Retrieves the ID stored in a row.
+     *
+     * @param row   row number, from 0 to size() - 1
+     * @return      the part's ID
+     */
+    public int id(int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    /**
+     * Retrieves the headroom stored in a row, the inventory level above the minimum.
+     *
+     * @param row   row number, from 0 to size() - 1
+     * @return      the part's headroom, negative if it is below its minimum
+     */
+    public int headroom(int row) {
+        checkRow(row);
+        return stock[row] - min[row];
+    }
+
+    /**
+     * @return  the total inventory level of all parts
+     */
+    public long totalStock() {
+        long total = 0;
+        for (int i = 0; i < size; i++) total += stock[i];
+        return total;
+    }
+
+    /**
+     * @return  the total value of all parts, price times inventory level
+     */
+    public double totalValue() {
+        double total = 0;
+        for (int i = 0; i < size; i++) total += prices[i] * stock[i];
+        return total;
+    }
+
+    /**
+     * Finds the parts priced within a range.
+     *
+     * @param low   lowest price, inclusive
+     * @param high  highest price, inclusive
+     * @return      IDs of the matching parts, in row order
+     */
+    public int[] idsWithPriceBetween(double low, double high) {
+        int[] matches = new int[size];
+        int found = 0;
+        for (int i = 0; i < size; i++)
+            if (prices[i] >= low && prices[i] <= high) matches[found++] = ids[i];
+        return Arrays.copyOf(matches, found);
+    }
+
+    /**
+     * Finds the parts with an inventory level within a range.
+     *
+     * @param low   lowest inventory level, inclusive
+     * @param high  highest inventory level, inclusive
+     * @return      IDs of the matching parts, in row order
+     */
+    public int[] idsWithStockBetween(int low, int high) {
+        int[] matches = new int[size];
+        int found = 0;
+        for (int i = 0; i < size; i++)
+            if (stock[i] >= low && stock[i] <= high) matches[found++] = ids[i];
+        return Arrays.copyOf(matches, found);
+    }
+
+    /**
+     * Finds the parts whose inventory level is at or below their minimum.
+     *
+     * @return  IDs of the matching parts, in row order
+     */
+    public int[] idsAtOrBelowMin() {
+        int[] matches = new int[size];
+        int found = 0;
+        for (int i = 0; i < size; i++)
+            if (stock[i] <= min[i]) matches[found++] = ids[i];
+        return Arrays.copyOf(matches, found);
+    }
+
+    /**
+     * Counts the parts whose inventory level is at or below their minimum.
+     *
+     * @return  number of matching parts
+     */
+    public int countAtOrBelowMin() {
+        int found = 0;
+        for (int i = 0; i < size; i++)
+            if (stock[i] <= min[i]) found++;
+        return found;
+    }
+
+    /**
+     * Finds the parts whose inventory level is at or above their maximum.
+     *
+     * @return  IDs of the matching parts, in row order
+     */
+    public int[] idsAtOrAboveMax() {
+        int[] matches = new int[size];
+        int found = 0;
+        for (int i = 0; i < size; i++)
+            if (stock[i] >= max[i]) matches[found++] = ids[i];
+        return Arrays.copyOf(matches, found);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size);
+    }
+
+    private void grow() {
+        int capacity = ids.length << 1;
+        ids = Arrays.copyOf(ids, capacity);
+        stock = Arrays.copyOf(stock, capacity);
+        min = Arrays.copyOf(min, capacity);
+        max = Arrays.copyOf(max, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        parts = Arrays.copyOf(parts, capacity);
+    }
+}
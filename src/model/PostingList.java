@@ -0,0 +1,202 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A sorted set of primitive int IDs, kept in sorted chunks of bounded size.
+ * <p>
+ *     An ID is found with a binary search over the chunks and then within one, and adding or removing an ID only
+ *     shifts the rest of its chunk, so a list of any length costs the same to change. IDs added in ascending
+ *     order, as a load in ID order adds them, are appended to the last chunk without any shifting at all.
+ *     A chunk that fills up is split in two, and one left mostly empty by removals is merged into a neighbour.
+ *     Chunks grow as they fill, so a list of a few IDs takes little more room than the IDs themselves.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class PostingList {
+
+    /**
+     * Most IDs held by one chunk.
+     */
+    static final int CHUNK = 128;
+
+    private int[][] chunks = new int[1][];
+    private int[] sizes = new int[1];
+    private int chunkCount;
+    private int size;
+
+    /**
+     * Adds an ID to the list if it is not already present.
+     *
+     * @param id    ID to add
+     * @return      true if the ID was added, otherwise false
+     */
+    public boolean add(int id) {
+        if (chunkCount == 0 || id > last()) {
+            append(id);
+            return true;
+        }
+        int c = chunkFor(id);
+        int i = Arrays.binarySearch(chunks[c], 0, sizes[c], id);
+        if (i >= 0) return false;
+        i = -i - 1;
+        if (sizes[c] == CHUNK) {
+            split(c);
+            if (i > sizes[c]) {
+                i -= sizes[c];
+                c++;
+            }
+        }
+        int[] chunk = room(c, 1);
+        System.arraycopy(chunk, i, chunk, i + 1, sizes[c] - i);
+        chunk[i] = id;
+        sizes[c]++;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes an ID from the list.
+     *
+     * @param id    ID to remove
+     * @return      true if the ID was removed, otherwise false
+     */
+    public boolean remove(int id) {
+        if (chunkCount == 0) return false;
+        int c = chunkFor(id);
+        int i = Arrays.binarySearch(chunks[c], 0, sizes[c], id);
+        if (i < 0) return false;
+        System.arraycopy(chunks[c], i + 1, chunks[c], i, sizes[c] - i - 1);
+        sizes[c]--;
+        size--;
+        if (sizes[c] == 0) removeChunk(c);
+        else if (sizes[c] < CHUNK / 4) merge(c);
+        return true;
+    }
+
+    /**
+     * Tests if an ID is in the list.
+     *
+     * @param id    ID to test
+     * @return      true if the ID is present, otherwise false
+     */
+    public boolean contains(int id) {
+        if (chunkCount == 0) return false;
+        int c = chunkFor(id);
+        return Arrays.binarySearch(chunks[c], 0, sizes[c], id) >= 0;
+    }
+
+    /**
+     * Passes every ID to an action, in ascending order.
+     *
+     * @param action    the action
+     */
+    public void forEach(IntConsumer action) {
+        for (int c = 0; c < chunkCount; c++) {
+            int[] chunk = chunks[c];
+            for (int i = 0, n = sizes[c]; i < n; i++) action.accept(chunk[i]);
+        }
+    }
+
+    /**
+     * @return  number of IDs in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return  true if the list holds no IDs, otherwise false
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return  a copy of the IDs in ascending order
+     */
+    public int[] toArray() {
+        int[] ids = new int[size];
+        int at = 0;
+        for (int c = 0; c < chunkCount; c++) {
+            System.arraycopy(chunks[c], 0, ids, at, sizes[c]);
+            at += sizes[c];
+        }
+        return ids;
+    }
+
+    private int last() {
+        return chunks[chunkCount - 1][sizes[chunkCount - 1] - 1];
+    }
+
+    /**
+     * Finds the chunk an ID belongs in: the first whose last ID is not below it, otherwise the last chunk.
+     */
+    private int chunkFor(int id) {
+        int low = 0;
+        int high = chunkCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (chunks[mid][sizes[mid] - 1] < id) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private void append(int id) {
+        int c = chunkCount - 1;
+        if (c < 0 || sizes[c] == CHUNK) insertChunk(++c, new int[4]);
+        room(c, 1)[sizes[c]++] = id;
+        size++;
+    }
+
+    private void split(int c) {
+        int half = CHUNK / 2;
+        int[] upper = new int[CHUNK];
+        System.arraycopy(chunks[c], half, upper, 0, CHUNK - half);
+        sizes[c] = half;
+        insertChunk(c + 1, upper);
+        sizes[c + 1] = CHUNK - half;
+    }
+
+    private void merge(int c) {
+        int into = c > 0 && sizes[c - 1] + sizes[c] <= CHUNK ? c - 1
+                : c + 1 < chunkCount && sizes[c + 1] + sizes[c] <= CHUNK ? c : -1;
+        if (into < 0) return;
+        System.arraycopy(chunks[into + 1], 0, room(into, sizes[into + 1]), sizes[into], sizes[into + 1]);
+        sizes[into] += sizes[into + 1];
+        removeChunk(into + 1);
+    }
+
+    /**
+     * Grows a chunk, up to {@link #CHUNK}, so it has room for more IDs.
+     * Chunks start small, so the many lists that only ever hold a few IDs stay small too.
+     */
+    private int[] room(int c, int more) {
+        int needed = sizes[c] + more;
+        if (needed > chunks[c].length)
+            chunks[c] = Arrays.copyOf(chunks[c], Math.min(CHUNK, Math.max(needed, chunks[c].length << 1)));
+        return chunks[c];
+    }
+
+    private void insertChunk(int c, int[] chunk) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount << 1);
+            sizes = Arrays.copyOf(sizes, chunkCount << 1);
+        }
+        System.arraycopy(chunks, c, chunks, c + 1, chunkCount - c);
+        System.arraycopy(sizes, c, sizes, c + 1, chunkCount - c);
+        chunks[c] = chunk;
+        sizes[c] = 0;
+        chunkCount++;
+    }
+
+    private void removeChunk(int c) {
+        chunkCount--;
+        System.arraycopy(chunks, c + 1, chunks, c, chunkCount - c);
+        System.arraycopy(sizes, c + 1, sizes, c, chunkCount - c);
+        chunks[chunkCount] = null;
+    }
+}
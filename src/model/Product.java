@@ -1,8 +1,14 @@
 package model;
 
-import javafx.collections.FXCollections;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyStringProperty;
 import javafx.collections.ObservableList;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  *
  *
@@ -10,13 +16,15 @@ import javafx.collections.ObservableList;
  */
 public class Product {
 
-    private ObservableList<Part> associatedParts = FXCollections.observableArrayList();
+    private final AssociatedParts associatedParts = new AssociatedParts();
     private int id;
     private String name;
     private double price;
     private int stock;
     private int min;
     private int max;
+    private Map<Integer, Integer> components;
+    private volatile RowProperties properties;
 
     /**
      * Creates a new product.
@@ -44,42 +52,80 @@ public class Product {
      */
     public void setId(int id) {
         this.id = id;
+        changed();
     }
 
     /**
      * Sets the name of the product.
+     * A product in the inventory can be searched for by its new name straight away.
      *
      * @param name  name of the product
      */
     public void setName(String name) {
-        this.name = name;
+        Inventory.write(() -> {
+            String oldName = this.name;
+            this.name = name;
+            Inventory.renamed(this, oldName);
+        });
+        changed();
     }
 
     /**
      * Sets the price of the product.
+     * A product in the inventory is reported to the inventory's listeners as updated.
      *
      * @param price price of the product
      */
     public void setPrice(double price) {
-        this.price = price;
+        Inventory.write(() -> {
+            if (this.price == price) return;
+            this.price = price;
+            Inventory.updated(this);
+        });
+        changed();
+    }
+
+    /**
+     * Sets the inventory level of the product.
+     * A product in the inventory is reported to the inventory's listeners as updated.
+     *
+     * @param stock inventory level
+     */
+    public void setStock(int stock) {
+        Inventory.write(() -> {
+            if (this.stock == stock) return;
+            this.stock = stock;
+            Inventory.updated(this);
+        });
+        changed();
     }
 
     /**
      * Sets the minimum of the product.
+     * A product in the inventory is reported to the inventory's listeners as updated.
      *
      * @param min   minimum
      */
     public void setMin(int min) {
-        this.min = min;
+        Inventory.write(() -> {
+            if (this.min == min) return;
+            this.min = min;
+            Inventory.updated(this);
+        });
     }
 
     /**
      * Sets the maximum of the product.
+     * A product in the inventory is reported to the inventory's listeners as updated.
      *
      * @param max   maximum
      */
     public void setMax(int max) {
-        this.max = max;
+        Inventory.write(() -> {
+            if (this.max == max) return;
+            this.max = max;
+            Inventory.updated(this);
+        });
     }
 
     /**
@@ -125,28 +171,185 @@ public class Product {
     }
 
     /**
-     * Adds an associated part to the product.
+     * Adds one unit of an associated part to the product.
      *
      * @param part  the part to associate
      */
     public void addAssociatedPart(Part part) {
-        associatedParts.add(part);
+        addAssociatedPart(part, 1);
     }
 
     /**
-     * Deletes an associated part to the product.
+     * Adds units of an associated part to the product.
+     * A different part object with the same ID is replaced by this one, keeping its units.
+     *
+     * @param part      the part to associate
+     * @param quantity  units to add
+     * @throws IllegalArgumentException if the quantity is negative
+     */
+    public void addAssociatedPart(Part part, int quantity) {
+        if (quantity < 0) throw new IllegalArgumentException("Quantity cannot be negative");
+        if (quantity == 0) return;
+        Inventory.write(() -> {
+            Part old = associatedParts.find(part.getId());
+            int kept = old != null && old != part ? associatedParts.quantityOf(old) : 0;
+            associatedParts.add(part, quantity);
+            if (kept > 0) Inventory.disassociated(this, old, kept);
+            Inventory.associated(this, part, kept + quantity);
+        });
+    }
+
+    /**
+     * Deletes one unit of an associated part from the product.
      *
      * @param selectedAssociatedPart    the part to disassociate
      * @return                          true if the part could be removed from the associated list, otherwise false
      */
     public boolean deleteAssociatedPart(Part selectedAssociatedPart) {
-        return associatedParts.remove(selectedAssociatedPart);
+        return deleteAssociatedPart(selectedAssociatedPart, 1) > 0;
+    }
+
+    /**
+     * Deletes units of an associated part from the product.
+     *
+     * @param selectedAssociatedPart    the part to disassociate
+     * @param quantity                  units to remove; more than are associated removes them all
+     * @return                          units removed
+     */
+    public int deleteAssociatedPart(Part selectedAssociatedPart, int quantity) {
+        int[] removed = new int[1];
+        Inventory.write(() -> {
+            removed[0] = associatedParts.remove(selectedAssociatedPart, quantity);
+            if (removed[0] > 0) Inventory.disassociated(this, selectedAssociatedPart, removed[0]);
+        });
+        return removed[0];
+    }
+
+    /**
+     * Moves every unit of an associated part over to another part, as when a part is replaced in the inventory.
+     *
+     * @param oldPart   the part to disassociate
+     * @param newPart   the part to associate in its place
+     * @return          units moved
+     */
+    public int replaceAssociatedPart(Part oldPart, Part newPart) {
+        if (oldPart == newPart) return 0;
+        int[] units = new int[1];
+        Inventory.write(() -> {
+            units[0] = deleteAssociatedPart(oldPart, Integer.MAX_VALUE);
+            if (units[0] > 0) addAssociatedPart(newPart, units[0]);
+        });
+        return units[0];
     }
 
     /**
-     * @return  an ObservableList of all associated parts
+     * @param part  the part
+     * @return      units of that part associated with the product, otherwise 0
+     */
+    public int getAssociatedQuantity(Part part) {
+        return associatedParts.quantityOf(part);
+    }
+
+    /**
+     * @return  an ObservableList of all associated parts, one element per distinct part in ID order
      */
     public ObservableList<Part> getAllAssociatedParts() {
+        return associatedParts.view();
+    }
+
+    /**
+     * @return  the associated parts and their units, which should not be modified directly
+     *          and should be read under {@link Inventory#read(Runnable)} while the product is in the inventory
+     */
+    public AssociatedParts getAssociatedParts() {
         return associatedParts;
     }
+
+    /**
+     * Sets how many units of another product go into this one, as a sub-assembly.
+     * Components are kept by product ID, so a component that is replaced in the inventory stays included.
+     *
+     * @param component the included product
+     * @param quantity  units included, or 0 to stop including it
+     * @throws IllegalArgumentException if the product would include itself or the quantity is negative
+     */
+    public void setComponent(Product component, int quantity) {
+        setComponent(component.getId(), quantity);
+    }
+
+    /**
+     * Sets how many units of another product go into this one, by the included product's ID.
+     *
+     * @param componentId   ID of the included product
+     * @param quantity      units included, or 0 to stop including it
+     * @throws IllegalArgumentException if the product would include itself or the quantity is negative
+     */
+    public void setComponent(int componentId, int quantity) {
+        if (componentId == id) throw new IllegalArgumentException("A product cannot include itself");
+        if (quantity < 0) throw new IllegalArgumentException("Quantity cannot be negative");
+        Inventory.write(() -> {
+            if (quantity == 0) {
+                if (components == null || components.remove(componentId) == null) return;
+            } else {
+                if (components == null) components = new LinkedHashMap<>();
+                Integer old = components.put(componentId, quantity);
+                if (old != null && old == quantity) return;
+            }
+            Inventory.componentChanged(this, componentId, quantity);
+        });
+    }
+
+    /**
+     * @return  units of each included product, keyed by product ID, which should be read under
+     *          {@link Inventory#read(Runnable)} while the product is in the inventory
+     */
+    public Map<Integer, Integer> getComponents() {
+        return components == null ? Collections.emptyMap() : Collections.unmodifiableMap(components);
+    }
+
+    /**
+     * @return  ID of the product as a read-only property, for display in a table
+     */
+    public ReadOnlyIntegerProperty idProperty() {
+        return properties().id.getReadOnlyProperty();
+    }
+
+    /**
+     * @return  name of the product as a read-only property, for display in a table
+     */
+    public ReadOnlyStringProperty nameProperty() {
+        return properties().name.getReadOnlyProperty();
+    }
+
+    /**
+     * @return  price of the product as a read-only property, for display in a table
+     */
+    public ReadOnlyDoubleProperty priceProperty() {
+        return properties().price.getReadOnlyProperty();
+    }
+
+    /**
+     * @return  inventory level of the product as a read-only property, for display in a table
+     */
+    public ReadOnlyIntegerProperty stockProperty() {
+        return properties().stock.getReadOnlyProperty();
+    }
+
+    /**
+     * Copies a field change to the product's properties, if a table has asked for them.
+     */
+    private void changed() {
+        RowProperties p = properties;
+        if (p != null) Inventory.publish(() -> p.set(id, name, stock, price));
+    }
+
+    private RowProperties properties() {
+        RowProperties p = properties;
+        if (p == null) {
+            p = new RowProperties();
+            p.set(id, name, stock, price);
+            properties = p;
+        }
+        return p;
+    }
 }
@@ -0,0 +1,193 @@
+package model;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An ObservableList that mirrors the inventory for the UI.
+ * <p>
+ *     Until it is bound to a thread, changes are applied to the list straight away.
+ *     Once bound, changes made on the bound thread are applied straight away, and changes made on other threads
+ *     are queued and applied on the bound thread by a single scheduled task, which turns runs of adds or removes
+ *     into one bulk change so the UI is told once per batch instead of once per item.
+ * </p>
+ * <p>
+ *     The position of every item is kept in an identity map, so replacing an item finds its row without a scan.
+ *     The list is read-only to everyone else, which keeps the positions true.
+ * </p>
+ *
+ * @param <T>   type of item in the list
+ * @author Alex Bright
+ */
+final class Projection<T> {
+
+    private static final int ADD = 0;
+    private static final int REPLACE = 1;
+    private static final int REMOVE = 2;
+
+    /**
+     * A queued change.
+     */
+    private static final class Change<T> {
+        final int kind;
+        final T oldItem;
+        final T newItem;
+
+        Change(int kind, T oldItem, T newItem) {
+            this.kind = kind;
+            this.oldItem = oldItem;
+            this.newItem = newItem;
+        }
+    }
+
+    private final ObservableList<T> list = FXCollections.observableArrayList();
+    private final ObservableList<T> readOnly = FXCollections.unmodifiableObservableList(list);
+    private final IdentityHashMap<T, Integer> positions = new IdentityHashMap<>();
+    private final ConcurrentLinkedQueue<Change<T>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile Executor executor;
+    private volatile BooleanSupplier onThread;
+
+    /**
+     * @return  the mirrored list, read-only
+     */
+    ObservableList<T> list() {
+        return readOnly;
+    }
+
+    /**
+     * Binds the list to a thread.
+     *
+     * @param executor  runs tasks on the thread
+     * @param onThread  tells if the caller is on the thread
+     */
+    void bind(Executor executor, BooleanSupplier onThread) {
+        this.onThread = onThread;
+        this.executor = executor;
+    }
+
+    void add(T item) {
+        submit(new Change<>(ADD, null, item));
+    }
+
+    void addAll(Collection<? extends T> items) {
+        if (isDirect()) {
+            flush();
+            append(new ArrayList<>(items));
+            return;
+        }
+        for (T item : items) pending.add(new Change<>(ADD, null, item));
+        schedule();
+    }
+
+    void replace(T oldItem, T newItem) {
+        submit(new Change<>(REPLACE, oldItem, newItem));
+    }
+
+    void remove(T item) {
+        submit(new Change<>(REMOVE, item, null));
+    }
+
+    /**
+     * Runs a task on the bound thread, straight away if the caller is on it or the list is not bound.
+     *
+     * @param task  the task to run
+     */
+    void run(Runnable task) {
+        if (isDirect()) task.run();
+        else executor.execute(task);
+    }
+
+    private boolean isDirect() {
+        return executor == null || onThread.getAsBoolean();
+    }
+
+    private void submit(Change<T> change) {
+        if (isDirect()) {
+            flush();
+            apply(Collections.singletonList(change));
+            return;
+        }
+        pending.add(change);
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) executor.execute(this::flush);
+    }
+
+    /**
+     * Applies every queued change. Runs on the bound thread.
+     */
+    private void flush() {
+        scheduled.set(false);
+        if (pending.isEmpty()) return;
+        List<Change<T>> batch = new ArrayList<>();
+        for (Change<T> c = pending.poll(); c != null; c = pending.poll()) batch.add(c);
+        apply(batch);
+    }
+
+    /**
+     * Applies changes in order, merging each run of adds and each run of removes into one list change.
+     * An item changed in place more than once in the batch is only refreshed once.
+     *
+     * @param batch changes to apply
+     */
+    private void apply(List<Change<T>> batch) {
+        Set<T> refreshed = Collections.newSetFromMap(new IdentityHashMap<>());
+        int i = 0;
+        while (i < batch.size()) {
+            Change<T> c = batch.get(i);
+            if (c.kind == ADD) {
+                List<T> added = new ArrayList<>();
+                for (; i < batch.size() && batch.get(i).kind == ADD; i++) added.add(batch.get(i).newItem);
+                append(added);
+            } else if (c.kind == REMOVE) {
+                Set<T> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+                int first = list.size();
+                for (; i < batch.size() && batch.get(i).kind == REMOVE; i++) {
+                    Integer index = positions.remove(batch.get(i).oldItem);
+                    if (index == null) continue;
+                    removed.add(batch.get(i).oldItem);
+                    first = Math.min(first, index);
+                }
+                if (removed.isEmpty()) continue;
+                list.removeAll(removed);
+                for (int j = first; j < list.size(); j++) positions.put(list.get(j), j);
+            } else if (c.oldItem == c.newItem && !refreshed.add(c.newItem)) {
+                i++;
+            } else {
+                Integer index = positions.remove(c.oldItem);
+                if (index != null) {
+                    positions.put(c.newItem, index);
+                    list.set(index, c.newItem);
+                } else {
+                    append(Collections.singletonList(c.newItem));
+                }
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Adds items to the end of the list.
+     *
+     * @param items items to add
+     */
+    private void append(List<T> items) {
+        int index = list.size();
+        for (T item : items) positions.put(item, index++);
+        list.addAll(items);
+    }
+}
@@ -0,0 +1,30 @@
+package model;
+
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+/**
+ * Observable copies of the fields a table row shows for a part or product.
+ * They are created only for items a table has asked for, and are only changed on the thread the
+ * inventory lists are bound to, so cells can listen to them safely.
+ *
+ * @author Alex Bright
+ */
+final class RowProperties {
+
+    final ReadOnlyIntegerWrapper id = new ReadOnlyIntegerWrapper();
+    final ReadOnlyStringWrapper name = new ReadOnlyStringWrapper();
+    final ReadOnlyIntegerWrapper stock = new ReadOnlyIntegerWrapper();
+    final ReadOnlyDoubleWrapper price = new ReadOnlyDoubleWrapper();
+
+    /**
+     * Copies the current field values. Only properties whose value differs fire a change.
+     */
+    void set(int id, String name, int stock, double price) {
+        this.id.set(id);
+        this.name.set(name);
+        this.stock.set(stock);
+        this.price.set(price);
+    }
+}
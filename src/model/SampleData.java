@@ -0,0 +1,55 @@
+package model;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Where the inventory is saved and what it starts with on first run.
+ * Kept apart from the JavaFX application, so the headless server can use it without loading JavaFX.
+ *
+ * @author Alex Bright
+ */
+public final class SampleData {
+
+    private SampleData() {
+    }
+
+    /**
+     * Retrieves the directory the inventory is saved in.
+     * Defaults to ".c482" in the user's home directory and can be changed with the "inventory.dir" system property.
+     *
+     * @return  the data directory
+     */
+    public static Path dataDirectory() {
+        String dir = System.getProperty("inventory.dir");
+        if (dir != null) return Paths.get(dir);
+        return Paths.get(System.getProperty("user.home"), ".c482");
+    }
+
+    /**
+     * Populates the sample data.
+     */
+    public static void populateData() {
+        Part wheel = new InHouse(1, "Wheel", 249.99, 24, 1, 48, 15);
+        Part tire = new Outsourced(2, "Tire", 149.99, 16, 1, 32, "Bright Tire Shop");
+        Part spring = new InHouse(5, "Spring", 49.99, 48, 1, 96, 20);
+        Part shock = new Outsourced(6, "Shock", 99.99, 144, 1, 288, "The Suspension Experts, LLC");
+
+        Inventory.addPart(wheel);
+        Inventory.addPart(tire);
+        Inventory.addPart(spring);
+        Inventory.addPart(shock);
+
+        Product coilover = new Product(1, "Coilover", 249.99, 48, 1, 96);
+        Product combo = new Product(4, "Wheel/Tire Combo", 499.99, 16, 1, 32);
+
+        Inventory.addProduct(coilover);
+        Inventory.addProduct(combo);
+
+        coilover.addAssociatedPart(spring);
+        coilover.addAssociatedPart(shock);
+
+        combo.addAssociatedPart(wheel);
+        combo.addAssociatedPart(tire);
+    }
+}
@@ -0,0 +1,109 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns each distinct string in use a small int code and stores the string once.
+ * <p>
+ *     Strings are reference counted: {@link #acquire} takes a reference and {@link #release} gives it back,
+ *     and a string is dropped, and its code handed out again, when its last reference is released.
+ *     The dictionary only holds strings something still uses, however many come and go.
+ * </p>
+ * <p>
+ *     Safe to use from several threads; {@link #codeOf} and {@link #canonical} do not lock.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class StringDictionary {
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private String[] strings = new String[16];
+    private int[] references = new int[16];
+    private int[] free = new int[16];
+    private int freeCount;
+    private int next;
+
+    /**
+     * Takes a reference to a string, adding it if it is new.
+     *
+     * @param s     the string
+     * @return      the string's code
+     */
+    public synchronized int acquire(String s) {
+        Integer code = codes.get(s);
+        if (code != null) {
+            references[code]++;
+            return code;
+        }
+        int c = freeCount > 0 ? free[--freeCount] : next++;
+        if (c == strings.length) {
+            strings = Arrays.copyOf(strings, c << 1);
+            references = Arrays.copyOf(references, c << 1);
+        }
+        strings[c] = s;
+        references[c] = 1;
+        codes.put(s, c);
+        return c;
+    }
+
+    /**
+     * Gives back a reference taken with {@link #acquire}, dropping the string if it was the last.
+     *
+     * @param code  the string's code
+     */
+    public synchronized void release(int code) {
+        if (code < 0 || code >= next || references[code] == 0) return;
+        if (--references[code] > 0) return;
+        codes.remove(strings[code]);
+        strings[code] = null;
+        if (freeCount == free.length) free = Arrays.copyOf(free, freeCount << 1);
+        free[freeCount++] = code;
+    }
+
+    /**
+     * Retrieves the code of a string without adding it.
+     *
+     * @param s     the string
+     * @return      the string's code, otherwise -1 if it has none
+     */
+    public int codeOf(String s) {
+        Integer code = codes.get(s);
+        return code == null ? -1 : code;
+    }
+
+    /**
+     * Retrieves the string for a code.
+     *
+     * @param code  a code returned by {@link #acquire} and not yet freed
+     * @return      the stored string
+     */
+    public synchronized String decode(int code) {
+        return strings[code];
+    }
+
+    /**
+     * Retrieves the stored copy of a string, without adding it, so equal strings can share one instance.
+     *
+     * @param s     the string
+     * @return      the stored copy, otherwise the string itself
+     */
+    public String canonical(String s) {
+        if (s == null) return null;
+        int code = codeOf(s);
+        if (code < 0) return s;
+        String stored;
+        synchronized (this) {
+            stored = strings[code];
+        }
+        return s.equals(stored) ? stored : s;
+    }
+
+    /**
+     * @return  number of distinct strings stored
+     */
+    public int size() {
+        return codes.size();
+    }
+}
@@ -0,0 +1,140 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * An inverted index of the trigrams (three character runs) found in names, ignoring case.
+ * A case-insensitive substring search intersects the posting lists of the query's trigrams
+ * and only verifies the remaining candidates against the live names, which the index looks up by ID
+ * rather than keeping copies of. Queries shorter than three characters fall back to a scan of the live names.
+ * <p>
+ *     Case is folded one character at a time, the way {@link String#regionMatches(boolean, int, String, int, int)}
+ *     compares characters, so a folded name has the same length as the name and needs no copy.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class TrigramIndex {
+
+    private final IntFunction<String> names;
+    private final IntHashMap<PostingList> postings = new IntHashMap<>();
+    private final PostingList allIds = new PostingList();
+
+    /**
+     * Creates an empty index.
+     *
+     * @param names looks up the current name of an indexed ID
+     */
+    public TrigramIndex(IntFunction<String> names) {
+        this.names = names;
+    }
+
+    /**
+     * Adds a name to the index.
+     * An ID already in the index must be removed, with its indexed name, first.
+     *
+     * @param id    ID of the item
+     * @param name  name of the item
+     */
+    public void add(int id, String name) {
+        if (!allIds.add(id)) return;
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            int gram = gram(name, i);
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                list = new PostingList();
+                postings.put(gram, list);
+            }
+            list.add(id);
+        }
+    }
+
+    /**
+     * Removes an ID from the index.
+     *
+     * @param id    ID of the item
+     * @param name  the name it was added with
+     * @return      true if the ID was removed, otherwise false
+     */
+    public boolean remove(int id, String name) {
+        if (!allIds.remove(id)) return false;
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            int gram = gram(name, i);
+            PostingList list = postings.get(gram);
+            if (list != null && list.remove(id) && list.isEmpty()) postings.remove(gram);
+        }
+        return true;
+    }
+
+    /**
+     * Searches for every ID whose name contains the query, ignoring case.
+     *
+     * @param query text to search for
+     * @return      matching IDs in ascending order
+     */
+    public int[] search(String query) {
+        if (query.length() < 3) return verify(allIds.toArray(), query);
+
+        int count = query.length() - 2;
+        PostingList[] lists = new PostingList[count];
+        for (int i = 0; i < count; i++) {
+            lists[i] = postings.get(gram(query, i));
+            if (lists[i] == null) return new int[0];
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+
+        int[] candidates = lists[0].toArray();
+        int found = 0;
+        for (int id : candidates) {
+            boolean candidate = true;
+            for (int j = 1; j < count && candidate; j++)
+                candidate = lists[j].contains(id);
+            if (candidate) candidates[found++] = id;
+        }
+        return verify(Arrays.copyOf(candidates, found), query);
+    }
+
+    /**
+     * @return  number of names in the index
+     */
+    public int size() {
+        return allIds.size();
+    }
+
+    /**
+     * Keeps the candidates whose live name contains the query, ignoring case.
+     *
+     * @param ids   candidate IDs in ascending order, overwritten with the matches
+     * @param query text to search for
+     * @return      matching IDs in ascending order
+     */
+    private int[] verify(int[] ids, String query) {
+        int found = 0;
+        for (int id : ids)
+            if (contains(names.apply(id), query)) ids[found++] = id;
+        return found == ids.length ? ids : Arrays.copyOf(ids, found);
+    }
+
+    private static boolean contains(String name, String query) {
+        for (int i = 0, last = name.length() - query.length(); i <= last; i++)
+            if (name.regionMatches(true, i, query, 0, query.length())) return true;
+        return false;
+    }
+
+    /**
+     * Packs the case-folded trigram at a position into an int key.
+     * Distinct trigrams may share a key; candidates are always verified, so a collision only costs a check.
+     *
+     * @param s     text
+     * @param i     start of the trigram
+     * @return      the trigram key
+     */
+    private static int gram(String s, int i) {
+        return (fold(s.charAt(i)) << 21) ^ (fold(s.charAt(i + 1)) << 10) ^ fold(s.charAt(i + 2));
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
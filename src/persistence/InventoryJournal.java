@@ -0,0 +1,540 @@
+package persistence;
+
+import model.InHouse;
+import model.Inventory;
+import model.InventoryListener;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Makes the inventory durable with an append-only journal of every change plus periodic snapshots.
+ * <p>
+ *     Each journal record is framed as its payload length, a CRC32 of the payload and the payload itself,
+ *     which starts with a sequence number. Records are encoded on the thread that changed the inventory
+ *     and handed to a writer thread that writes and syncs everything queued at once (group commit),
+ *     so an edit never waits on the disk.
+ * </p>
+ * <p>
+ *     On open, the snapshot is loaded and every later journal record is replayed.
+ *     A torn or corrupt record at the tail of the journal ends the replay and is truncated away.
+ * </p>
+ * <p>
+ *     Snapshots are taken by the writer thread, which streams the inventory to the snapshot file under the read lock,
+ *     so an edit never waits while a snapshot is encoded and a snapshot is not limited by the size of an array.
+ * </p>
+ * <p>
+ *     If the journal cannot be written, it stops recording and reports the error once to the handler set with
+ *     {@link #setFailureHandler(Consumer)}; {@link #getFailure()} tells if it has stopped.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class InventoryJournal implements InventoryListener, AutoCloseable {
+
+    public static final String JOURNAL_FILE = "inventory.journal";
+    public static final String SNAPSHOT_FILE = "inventory.snapshot";
+
+    private static final int SNAPSHOT_MAGIC = 0x43343832;
+    private static final int SNAPSHOT_INTERVAL = 10_000;
+    private static final int MAX_RECORD_LENGTH = 64 << 20;
+
+    private static final byte PART_ADDED = 1;
+    private static final byte PART_UPDATED = 2;
+    private static final byte PART_DELETED = 3;
+    private static final byte PRODUCT_DELETED = 6;
+    private static final byte COMPONENT_CHANGED = 9;
+    private static final byte PRODUCT_ADDED = 10;
+    private static final byte PRODUCT_UPDATED = 11;
+    private static final byte PART_ASSOCIATED = 12;
+    private static final byte PART_DISASSOCIATED = 13;
+
+    private static final byte[] CLOSE = new byte[0];
+    private static final byte[] SNAPSHOT = new byte[0];
+
+    private final Path directory;
+    private final FileChannel channel;
+    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final boolean recovered;
+
+    private long sequence;
+    private int sinceSnapshot;
+    private volatile boolean closed;
+    private volatile IOException failure;
+    private volatile Consumer<IOException> failureHandler;
+
+    private InventoryJournal(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        long snapshotSequence = -1;
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotFile)) snapshotSequence = loadSnapshot(snapshotFile);
+        sequence = Math.max(snapshotSequence, 0);
+
+        channel = FileChannel.open(directory.resolve(JOURNAL_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int replayed = replay(snapshotSequence);
+        recovered = snapshotSequence >= 0 || replayed > 0;
+
+        writer = new Thread(this::writeLoop, "inventory-journal");
+        writer.setDaemon(true);
+        writer.start();
+        if (replayed > 0) snapshot();
+    }
+
+    /**
+     * Opens the journal in a directory, restoring any saved inventory into {@link Inventory}.
+     * The journal then listens to the inventory and records every further change.
+     *
+     * @param directory     directory holding the journal and snapshot files
+     * @return              the open journal
+     * @throws IOException  if the saved inventory could not be read
+     */
+    public static InventoryJournal open(Path directory) throws IOException {
+        InventoryJournal journal = new InventoryJournal(directory);
+        Inventory.addListener(journal);
+        return journal;
+    }
+
+    /**
+     * @return  true if an inventory was restored when the journal was opened, otherwise false
+     */
+    public boolean isRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Asks the writer thread to write a snapshot of the whole inventory so the journal can start over.
+     * Returns straight away; the snapshot is taken after the changes already queued are written.
+     */
+    public void snapshot() {
+        if (closed) return;
+        queue.add(SNAPSHOT);
+    }
+
+    /**
+     * Sets what to do when the journal cannot be written and stops recording changes.
+     * The handler is called once, on the writer thread, or straight away if the journal has already stopped;
+     * without one, the error is only kept for {@link #getFailure()}.
+     *
+     * @param handler   receives the error
+     */
+    public void setFailureHandler(Consumer<IOException> handler) {
+        failureHandler = handler;
+        IOException e = failure;
+        if (e != null && handler != null) handler.accept(e);
+    }
+
+    /**
+     * @return  the error that stopped the journal recording changes, otherwise null
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Writes everything still queued, stops the writer thread and closes the journal file.
+     * Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        Inventory.removeListener(this);
+        queue.add(CLOSE);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    @Override
+    public void partAdded(Part part) {
+        append(PART_ADDED, out -> RecordCodec.writePart(out, part));
+    }
+
+    @Override
+    public void partUpdated(Part oldPart, Part newPart) {
+        append(PART_UPDATED, out -> {
+            out.writeInt(oldPart.getId());
+            RecordCodec.writePart(out, newPart);
+        });
+    }
+
+    @Override
+    public void partDeleted(Part part) {
+        append(PART_DELETED, out -> out.writeInt(part.getId()));
+    }
+
+    @Override
+    public void productAdded(Product product) {
+        append(PRODUCT_ADDED, out -> RecordCodec.writeProduct(out, product));
+        appendComponents(product);
+    }
+
+    @Override
+    public void productUpdated(Product oldProduct, Product newProduct) {
+        append(PRODUCT_UPDATED, out -> {
+            out.writeInt(oldProduct.getId());
+            RecordCodec.writeProduct(out, newProduct);
+        });
+        appendComponents(newProduct);
+    }
+
+    @Override
+    public void productDeleted(Product product) {
+        append(PRODUCT_DELETED, out -> out.writeInt(product.getId()));
+    }
+
+    @Override
+    public void partAssociated(Product product, Part part, int quantity) {
+        append(PART_ASSOCIATED, out -> {
+            out.writeInt(product.getId());
+            out.writeInt(quantity);
+            RecordCodec.writePart(out, part);
+        });
+    }
+
+    @Override
+    public void partDisassociated(Product product, Part part, int quantity) {
+        append(PART_DISASSOCIATED, out -> {
+            out.writeInt(product.getId());
+            out.writeInt(part.getId());
+            out.writeInt(quantity);
+        });
+    }
+
+    @Override
+    public void componentChanged(Product product, int componentId, int quantity) {
+        append(COMPONENT_CHANGED, out -> {
+            out.writeInt(product.getId());
+            out.writeInt(componentId);
+            out.writeInt(quantity);
+        });
+    }
+
+    /**
+     * Records the components a product already had when it was added or replaced.
+     * They follow the product's own record, which only holds its fields and parts.
+     *
+     * @param product   the added product
+     */
+    private void appendComponents(Product product) {
+        for (Map.Entry<Integer, Integer> e : product.getComponents().entrySet())
+            componentChanged(product, e.getKey(), e.getValue());
+    }
+
+    /**
+     * Writes the body of a journal record.
+     */
+    private interface Body {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Encodes a record and queues it for the writer thread.
+     *
+     * @param type  record type
+     * @param body  writes the record data
+     */
+    private void append(byte type, Body body) {
+        if (closed) return;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeLong(++sequence);
+            out.writeByte(type);
+            body.write(out);
+
+            byte[] record = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(record, 8, record.length - 8);
+            ByteBuffer header = ByteBuffer.wrap(record);
+            header.putInt(record.length - 8);
+            header.putInt((int) crc.getValue());
+            queue.add(record);
+        } catch (IOException e) {
+            fail(e);
+        }
+        if (++sinceSnapshot >= SNAPSHOT_INTERVAL) {
+            sinceSnapshot = 0;
+            snapshot();
+        }
+    }
+
+    /**
+     * Drains the queue in batches, syncing the journal once per batch.
+     */
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch);
+            boolean stop = false;
+            try {
+                for (byte[] record : batch) {
+                    if (record == CLOSE) {
+                        stop = true;
+                        break;
+                    }
+                    if (failure != null) continue;
+                    if (record == SNAPSHOT) writeSnapshot();
+                    else writeFully(channel, ByteBuffer.wrap(record));
+                }
+                if (failure == null) channel.force(false);
+            } catch (IOException e) {
+                fail(e);
+            }
+            batch.clear();
+            if (stop) return;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    /**
+     * Streams a snapshot of the inventory to a new snapshot file, replaces the old one and empties the journal.
+     * The inventory is encoded under the read lock, so it is one consistent state and the sequence number read with
+     * it is that of the last change it includes; records queued after that are skipped on replay by their
+     * sequence number, as are records left in the journal by a crash between replacing the file and emptying
+     * the journal.
+     *
+     * @throws IOException  if the snapshot could not be written
+     */
+    private void writeSnapshot() throws IOException {
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(file), crc), 1 << 16));
+            IOException[] error = new IOException[1];
+            Inventory.read(() -> {
+                try {
+                    out.writeInt(SNAPSHOT_MAGIC);
+                    out.writeInt(SnapshotFormat.VERSION);
+                    out.writeLong(sequence);
+                    SnapshotFormat.encode(out);
+                    out.flush();
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            });
+            if (error[0] != null) throw error[0];
+            ByteBuffer trailer = ByteBuffer.allocate(8).putLong(crc.getValue());
+            trailer.flip();
+            writeFully(file, trailer);
+            file.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel.force(false);
+        channel.truncate(0);
+        channel.position(0);
+    }
+
+    /**
+     * Loads the snapshot into the inventory.
+     * The file is memory-mapped and checked against its trailing CRC32 before anything is decoded.
+     *
+     * @param file          the snapshot file
+     * @return              sequence number of the last change included in the snapshot
+     * @throws IOException  if the snapshot is unreadable or fails its checksum
+     */
+    private long loadSnapshot(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size < 24) throw new IOException(file + " is not an inventory snapshot");
+            MappedInput body = new MappedInput(in, size - 8);
+            ByteBuffer trailer = ByteBuffer.allocate(8);
+            while (trailer.hasRemaining()) if (in.read(trailer, size - 8 + trailer.position()) < 0) throw new EOFException();
+
+            CRC32 crc = new CRC32();
+            body.checksum(crc);
+            if (trailer.getLong(0) != crc.getValue()) throw new IOException(file + " failed its checksum");
+
+            if (body.getInt() != SNAPSHOT_MAGIC) throw new IOException(file + " is not an inventory snapshot");
+            int version = body.getInt();
+            long snapshotSequence = body.getLong();
+            SnapshotFormat.decode(body, version);
+            return snapshotSequence;
+        }
+    }
+
+    /**
+     * Replays the journal into the inventory and truncates any torn tail.
+     *
+     * @param after         sequence number already covered by the snapshot
+     * @return              number of records applied
+     * @throws IOException  if the journal could not be read
+     */
+    private int replay(long after) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        long valid = 0;
+        int applied = 0;
+        CRC32 crc = new CRC32();
+        while (true) {
+            byte[] payload;
+            try {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 9 || length > MAX_RECORD_LENGTH) break;
+                payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) break;
+            } catch (EOFException e) {
+                break;
+            }
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+            long recordSequence = record.readLong();
+            if (recordSequence > after) {
+                apply(record.readByte(), record);
+                applied++;
+                sequence = recordSequence;
+            }
+            valid += 8 + payload.length;
+        }
+        if (channel.size() > valid) channel.truncate(valid);
+        channel.position(valid);
+        return applied;
+    }
+
+    /**
+     * Applies one journal record to the inventory.
+     *
+     * @param type          record type
+     * @param in            record data
+     * @throws IOException  if the record data is malformed
+     */
+    private static void apply(byte type, DataInputStream in) throws IOException {
+        switch (type) {
+            case PART_ADDED:
+                Inventory.addPart(RecordCodec.readPart(in));
+                break;
+            case PART_UPDATED: {
+                Part old = Inventory.lookupPart(in.readInt());
+                Part part = RecordCodec.readPart(in);
+                if (old != null && old.getId() == part.getId() && old.getClass() == part.getClass()) {
+                    copy(part, old);
+                    Inventory.updatePart(old, old);
+                } else if (old != null) Inventory.updatePart(old, part);
+                else Inventory.addPart(part);
+                break;
+            }
+            case PART_DELETED: {
+                Part part = Inventory.lookupPart(in.readInt());
+                if (part != null) Inventory.deletePart(part);
+                break;
+            }
+            case PRODUCT_ADDED:
+                Inventory.addProduct(RecordCodec.readProduct(in));
+                break;
+            case PRODUCT_UPDATED: {
+                Product old = Inventory.lookupProduct(in.readInt());
+                Product product = RecordCodec.readProduct(in);
+                if (old != null) Inventory.updateProduct(old, product);
+                else Inventory.addProduct(product);
+                break;
+            }
+            case PRODUCT_DELETED: {
+                Product product = Inventory.lookupProduct(in.readInt());
+                if (product != null) Inventory.deleteProduct(product);
+                break;
+            }
+            case PART_ASSOCIATED: {
+                Product product = Inventory.lookupProduct(in.readInt());
+                int quantity = in.readInt();
+                Part part = RecordCodec.resolve(RecordCodec.readPart(in));
+                if (product != null) product.addAssociatedPart(part, quantity);
+                break;
+            }
+            case PART_DISASSOCIATED: {
+                Product product = Inventory.lookupProduct(in.readInt());
+                int partId = in.readInt();
+                int quantity = in.readInt();
+                Part part = product == null ? null : product.getAssociatedParts().find(partId);
+                if (part != null) product.deleteAssociatedPart(part, quantity);
+                break;
+            }
+            case COMPONENT_CHANGED: {
+                Product product = Inventory.lookupProduct(in.readInt());
+                int componentId = in.readInt();
+                int quantity = in.readInt();
+                if (product != null) product.setComponent(componentId, quantity);
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    /**
+     * Copies the recorded fields of a part onto the part already in the inventory,
+     * so a change recorded in place is replayed in place and every product using the part sees it.
+     *
+     * @param from  the part read from the record
+     * @param to    the part in the inventory, of the same class and ID
+     */
+    private static void copy(Part from, Part to) {
+        to.setName(from.getName());
+        to.setPrice(from.getPrice());
+        to.setStock(from.getStock());
+        to.setMin(from.getMin());
+        to.setMax(from.getMax());
+        if (to instanceof InHouse) ((InHouse) to).setMachineId(((InHouse) from).getMachineId());
+        else if (to instanceof Outsourced) ((Outsourced) to).setCompanyName(((Outsourced) from).getCompanyName());
+    }
+
+    /**
+     * Stops recording changes and reports why, the first time it is called.
+     *
+     * @param e the error
+     */
+    private synchronized void fail(IOException e) {
+        if (failure != null) return;
+        failure = e;
+        Consumer<IOException> handler = failureHandler;
+        if (handler != null) handler.accept(e);
+    }
+}
@@ -0,0 +1,94 @@
+package persistence;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Reads big-endian values from the start of a file through read-only memory mappings of up to 1 GB each,
+ * so a file larger than a single mapping can hold is still read straight from the page cache.
+ * Values that straddle two mappings are put together a byte at a time.
+ *
+ * @author Alex Bright
+ */
+final class MappedInput {
+
+    private static final long SEGMENT = 1L << 30;
+
+    private final ByteBuffer[] segments;
+    private int index;
+    private ByteBuffer current;
+
+    /**
+     * Maps the start of a file.
+     *
+     * @param channel       the open file
+     * @param length        bytes to map from the start of the file
+     * @throws IOException  if the file could not be mapped
+     */
+    MappedInput(FileChannel channel, long length) throws IOException {
+        int count = (int) Math.max(1, (length + SEGMENT - 1) / SEGMENT);
+        segments = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = i * SEGMENT;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT, length - start));
+        }
+        current = segments[0];
+    }
+
+    /**
+     * Adds every mapped byte to a checksum, without moving the read position.
+     *
+     * @param crc   the checksum
+     */
+    void checksum(CRC32 crc) {
+        for (ByteBuffer segment : segments) crc.update(segment.duplicate().clear());
+    }
+
+    /**
+     * @return  bytes left to read
+     */
+    long remaining() {
+        long remaining = current.remaining();
+        for (int i = index + 1; i < segments.length; i++) remaining += segments[i].limit();
+        return remaining;
+    }
+
+    byte get() throws IOException {
+        while (!current.hasRemaining()) {
+            if (index + 1 == segments.length) throw new EOFException();
+            current = segments[++index];
+        }
+        return current.get();
+    }
+
+    int getInt() throws IOException {
+        if (current.remaining() >= 4) return current.getInt();
+        return (get() & 0xFF) << 24 | (get() & 0xFF) << 16 | (get() & 0xFF) << 8 | (get() & 0xFF);
+    }
+
+    long getLong() throws IOException {
+        if (current.remaining() >= 8) return current.getLong();
+        return (long) getInt() << 32 | (getInt() & 0xFFFFFFFFL);
+    }
+
+    double getDouble() throws IOException {
+        return Double.longBitsToDouble(getLong());
+    }
+
+    void get(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!current.hasRemaining()) {
+                bytes[offset++] = get();
+                length--;
+                continue;
+            }
+            int n = Math.min(length, current.remaining());
+            current.get(bytes, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+}
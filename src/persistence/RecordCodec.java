@@ -0,0 +1,128 @@
+package persistence;
+
+import model.AssociatedParts;
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Reads and writes parts and products in the binary form shared by the journal and snapshots.
+ *
+ * @author Alex Bright
+ */
+final class RecordCodec {
+
+    static final byte IN_HOUSE = 0;
+    static final byte OUTSOURCED = 1;
+
+    private RecordCodec() {}
+
+    /**
+     * Writes a part, including its source type.
+     *
+     * @param out           destination
+     * @param part          part to write
+     * @throws IOException  if the part could not be written
+     */
+    static void writePart(DataOutput out, Part part) throws IOException {
+        if (part instanceof InHouse) out.writeByte(IN_HOUSE);
+        else out.writeByte(OUTSOURCED);
+        out.writeInt(part.getId());
+        out.writeUTF(part.getName());
+        out.writeDouble(part.getPrice());
+        out.writeInt(part.getStock());
+        out.writeInt(part.getMin());
+        out.writeInt(part.getMax());
+        if (part instanceof InHouse) out.writeInt(((InHouse) part).getMachineId());
+        else out.writeUTF(((Outsourced) part).getCompanyName());
+    }
+
+    /**
+     * Reads a part written by {@link #writePart}.
+     *
+     * @param in            source
+     * @return              the part
+     * @throws IOException  if the part could not be read
+     */
+    static Part readPart(DataInput in) throws IOException {
+        byte type = in.readByte();
+        int id = in.readInt();
+        String name = in.readUTF();
+        double price = in.readDouble();
+        int stock = in.readInt();
+        int min = in.readInt();
+        int max = in.readInt();
+        if (type == IN_HOUSE) return new InHouse(id, name, price, stock, min, max, in.readInt());
+        if (type == OUTSOURCED) return new Outsourced(id, name, price, stock, min, max, in.readUTF());
+        throw new IOException("Unknown part type " + type);
+    }
+
+    /**
+     * Writes a product with a full copy of each distinct associated part and the units it uses.
+     * Parts are copied because a product may still use a part that was deleted from the inventory.
+     *
+     * @param out           destination
+     * @param product       product to write
+     * @throws IOException  if the product could not be written
+     */
+    static void writeProduct(DataOutput out, Product product) throws IOException {
+        out.writeInt(product.getId());
+        out.writeUTF(product.getName());
+        out.writeDouble(product.getPrice());
+        out.writeInt(product.getStock());
+        out.writeInt(product.getMin());
+        out.writeInt(product.getMax());
+        AssociatedParts associated = product.getAssociatedParts();
+        out.writeInt(associated.size());
+        for (int i = 0; i < associated.size(); i++) {
+            out.writeInt(associated.quantityAt(i));
+            writePart(out, associated.get(i));
+        }
+    }
+
+    /**
+     * Reads a product written by {@link #writeProduct}.
+     * Associated parts are linked to the matching inventory part where one exists.
+     *
+     * @param in            source
+     * @return              the product
+     * @throws IOException  if the product could not be read
+     */
+    static Product readProduct(DataInput in) throws IOException {
+        Product product = new Product(in.readInt(), in.readUTF(), in.readDouble(), in.readInt(), in.readInt(), in.readInt());
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int units = in.readInt();
+            product.addAssociatedPart(resolve(readPart(in)), units);
+        }
+        return product;
+    }
+
+    /**
+     * Finds the inventory part a stored copy refers to.
+     * The copy is kept when no part with identical data is in the inventory,
+     * so a reused ID never links a product to an unrelated part.
+     *
+     * @param copy  stored copy of the part
+     * @return      the matching inventory part, otherwise the copy
+     */
+    static Part resolve(Part copy) {
+        Part live = Inventory.lookupPart(copy.getId());
+        return live != null && sameData(live, copy) ? live : copy;
+    }
+
+    private static boolean sameData(Part a, Part b) {
+        if (a.getClass() != b.getClass()) return false;
+        if (!a.getName().equals(b.getName()) || Double.compare(a.getPrice(), b.getPrice()) != 0
+                || a.getStock() != b.getStock() || a.getMin() != b.getMin() || a.getMax() != b.getMax())
+            return false;
+        if (a instanceof InHouse) return ((InHouse) a).getMachineId() == ((InHouse) b).getMachineId();
+        return ((Outsourced) a).getCompanyName().equals(((Outsourced) b).getCompanyName());
+    }
+}
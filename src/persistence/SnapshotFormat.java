@@ -0,0 +1,199 @@
+package persistence;
+
+import model.AssociatedParts;
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes and decodes the body of an inventory snapshot.
+ * <p>
+ *     The body is a compact binary layout meant to be read straight out of a memory-mapped file:
+ *     a string table holding each distinct name and company name once, fixed-width part rows,
+ *     then product rows, each followed by the row number and units of each of its associated parts.
+ *     Parts that products still use after they were deleted from the inventory are stored as extra rows
+ *     after the inventory parts. A table of product ID, component ID and quantity after the products records
+ *     the products each product includes. Only the current version is read; any other is refused.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+final class SnapshotFormat {
+
+    static final int VERSION = 4;
+
+    private SnapshotFormat() {}
+
+    /**
+     * Encodes the current inventory, streaming the body to its destination as it goes.
+     * Call it under the inventory's read lock, so the body is one consistent state.
+     *
+     * @param out           destination of the snapshot body
+     * @throws IOException  if the snapshot could not be written
+     */
+    static void encode(DataOutputStream out) throws IOException {
+        List<Part> parts = new ArrayList<>(Inventory.getMetrics().getPartCount());
+        List<Product> products = new ArrayList<>(Inventory.getMetrics().getProductCount());
+        Inventory.forEachPart(parts::add);
+        Inventory.forEachProduct(products::add);
+
+        IdentityHashMap<Part, Integer> rows = new IdentityHashMap<>(parts.size() * 2);
+        List<Part> detached = new ArrayList<>();
+        for (Part p : parts) rows.putIfAbsent(p, rows.size());
+        for (Product product : products) {
+            for (Part p : product.getAllAssociatedParts()) {
+                if (!rows.containsKey(p)) {
+                    rows.put(p, rows.size());
+                    detached.add(p);
+                }
+            }
+        }
+
+        HashMap<String, Integer> strings = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        for (Part p : parts) intern(strings, table, p);
+        for (Part p : detached) intern(strings, table, p);
+        for (Product p : products) intern(strings, table, p.getName());
+
+        int components = 0;
+        for (Product p : products) components += p.getComponents().size();
+
+        out.writeInt(table.size());
+        for (String s : table) {
+            byte[] utf = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf.length);
+            out.write(utf);
+        }
+
+        out.writeInt(parts.size());
+        out.writeInt(detached.size());
+        for (Part p : parts) writePart(out, p, strings);
+        for (Part p : detached) writePart(out, p, strings);
+
+        out.writeInt(products.size());
+        for (Product p : products) {
+            out.writeInt(p.getId());
+            out.writeInt(strings.get(p.getName()));
+            out.writeDouble(p.getPrice());
+            out.writeInt(p.getStock());
+            out.writeInt(p.getMin());
+            out.writeInt(p.getMax());
+            AssociatedParts associated = p.getAssociatedParts();
+            out.writeInt(associated.size());
+            for (int i = 0; i < associated.size(); i++) {
+                out.writeInt(rows.get(associated.get(i)));
+                out.writeInt(associated.quantityAt(i));
+            }
+        }
+
+        out.writeInt(components);
+        for (Product p : products) {
+            for (Map.Entry<Integer, Integer> e : p.getComponents().entrySet()) {
+                out.writeInt(p.getId());
+                out.writeInt(e.getKey());
+                out.writeInt(e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Decodes a snapshot body into the inventory.
+     * Parts and products are each added with a single bulk insert.
+     *
+     * @param body          the snapshot body, positioned at its start
+     * @param version       the snapshot version
+     * @throws IOException  if the version is unknown or the body is malformed
+     */
+    static void decode(MappedInput body, int version) throws IOException {
+        if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+
+        String[] table = new String[body.getInt()];
+        byte[] scratch = new byte[256];
+        for (int i = 0; i < table.length; i++) {
+            int length = body.getInt();
+            if (length > scratch.length) scratch = new byte[Math.max(length, scratch.length * 2)];
+            body.get(scratch, 0, length);
+            table[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        int inventoryParts = body.getInt();
+        Part[] rows = new Part[inventoryParts + body.getInt()];
+        for (int i = 0; i < rows.length; i++) rows[i] = readPart(body, table);
+
+        Product[] products = new Product[body.getInt()];
+        for (int i = 0; i < products.length; i++) {
+            Product product = new Product(body.getInt(), table[body.getInt()], body.getDouble(),
+                    body.getInt(), body.getInt(), body.getInt());
+            int count = body.getInt();
+            for (int j = 0; j < count; j++) {
+                Part part = rows[body.getInt()];
+                product.addAssociatedPart(part, body.getInt());
+            }
+            products[i] = product;
+        }
+
+        Inventory.addAllParts(Arrays.asList(rows).subList(0, inventoryParts));
+        Inventory.addAllProducts(Arrays.asList(products));
+
+        for (int i = body.getInt(); i > 0; i--) {
+            Product product = Inventory.lookupProduct(body.getInt());
+            int componentId = body.getInt();
+            int quantity = body.getInt();
+            if (product != null) product.setComponent(componentId, quantity);
+        }
+    }
+
+    private static void intern(HashMap<String, Integer> strings, List<String> table, Part part) {
+        intern(strings, table, part.getName());
+        if (part instanceof Outsourced) intern(strings, table, ((Outsourced) part).getCompanyName());
+    }
+
+    /**
+     * Adds a string to the string table if it is not already there.
+     *
+     * @param strings   index of each string in the table
+     * @param table     the string table
+     * @param s         string to add
+     */
+    private static void intern(HashMap<String, Integer> strings, List<String> table, String s) {
+        if (strings.putIfAbsent(s, table.size()) == null) table.add(s);
+    }
+
+    private static void writePart(DataOutputStream out, Part part, HashMap<String, Integer> strings) throws IOException {
+        boolean inHouse = part instanceof InHouse;
+        out.writeByte(inHouse ? RecordCodec.IN_HOUSE : RecordCodec.OUTSOURCED);
+        out.writeInt(part.getId());
+        out.writeInt(strings.get(part.getName()));
+        out.writeDouble(part.getPrice());
+        out.writeInt(part.getStock());
+        out.writeInt(part.getMin());
+        out.writeInt(part.getMax());
+        out.writeInt(inHouse ? ((InHouse) part).getMachineId() : strings.get(((Outsourced) part).getCompanyName()));
+    }
+
+    private static Part readPart(MappedInput in, String[] table) throws IOException {
+        byte type = in.get();
+        int id = in.getInt();
+        String name = table[in.getInt()];
+        double price = in.getDouble();
+        int stock = in.getInt();
+        int min = in.getInt();
+        int max = in.getInt();
+        int source = in.getInt();
+        if (type == RecordCodec.IN_HOUSE) return new InHouse(id, name, price, stock, min, max, source);
+        if (type == RecordCodec.OUTSOURCED) return new Outsourced(id, name, price, stock, min, max, table[source]);
+        throw new IOException("Unknown part type " + type);
+    }
+}
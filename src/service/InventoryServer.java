@@ -0,0 +1,353 @@
+package service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exchange.InventoryExporter;
+import exchange.InventoryImporter;
+import exchange.RowParser;
+import exchange.RowReader;
+import model.FormValidator;
+import model.Inventory;
+import model.Part;
+import model.Product;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the inventory over a small HTTP/JSON API on the loopback interface.
+ * <p>
+ *     Items are read and written as the flat JSON objects used by the importer and exporter,
+ *     one object per line; lists are returned as JSON Lines.
+ * </p>
+ * <pre>
+ *     GET    /parts                   all parts, or ?name= to search by name, or ?supplier= for a company's parts
+ *     GET    /parts/{id}              one part
+ *     POST   /parts                   add a part; a missing ID is replaced with the next available ID
+ *     PUT    /parts/{id}              replace a part
+ *     DELETE /parts/{id}              delete a part
+ *     POST   /parts/{id}/stock?delta= change the inventory level
+ * </pre>
+ * The same routes exist under /products, whose "parts" field lists associated part IDs
+ * and "quantities" field the units of each, and whose "components" and "componentquantities" fields do the same
+ * for included products. A PUT without a "components" field keeps the components the product had.
+ * <p>
+ *     Each request runs on its own virtual thread when the runtime has them, otherwise on a cached thread pool.
+ * </p>
+ *
+ * @author Alex Bright
+ */
+public class InventoryServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private InventoryServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a server on the loopback interface.
+     *
+     * @param port          port to listen on, or 0 for any free port
+     * @return              the running server
+     * @throws IOException  if the port could not be bound
+     */
+    public static InventoryServer start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        ExecutorService executor = requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/parts", exchange -> handle(exchange, true));
+        server.createContext("/products", exchange -> handle(exchange, false));
+        server.start();
+        return new InventoryServer(server, executor);
+    }
+
+    /**
+     * @return  port the server is listening on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, lets running requests finish for up to a second and shuts the server down.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Creates a virtual thread per request when the runtime supports it.
+     *
+     * @return  the request executor
+     */
+    private static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Routes a request under /parts or /products.
+     *
+     * @param exchange  the request
+     * @param parts     true for /parts, false for /products
+     */
+    private static void handle(HttpExchange exchange, boolean parts) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            int id = path.length > 2 ? parseId(path[2]) : 0;
+            if (path.length > 2 && id < 1) {
+                error(exchange, 404, "No such resource");
+            } else if (path.length == 2 && method.equals("GET")) {
+                if (parts) listParts(exchange, query);
+                else listProducts(exchange, query);
+            } else if (path.length == 2 && method.equals("POST")) {
+                save(exchange, parts, 0);
+            } else if (path.length == 3 && method.equals("GET")) {
+                Object item = parts ? Inventory.lookupPart(id) : Inventory.lookupProduct(id);
+                if (item == null) error(exchange, 404, "No item with ID " + id);
+                else send(exchange, 200, parts, Collections.singletonList(item));
+            } else if (path.length == 3 && method.equals("PUT")) {
+                save(exchange, parts, id);
+            } else if (path.length == 3 && method.equals("DELETE")) {
+                boolean deleted = parts ? deletePart(id) : deleteProduct(id);
+                if (!deleted) error(exchange, 404, "No item with ID " + id);
+                else empty(exchange, 204);
+            } else if (path.length == 4 && path[3].equals("stock") && method.equals("POST")) {
+                adjustStock(exchange, parts, id, query.get("delta"));
+            } else {
+                error(exchange, 405, "Unsupported request " + method + " " + exchange.getRequestURI().getPath());
+            }
+        } catch (RuntimeException e) {
+            error(exchange, 500, String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void listParts(HttpExchange exchange, Map<String, String> query) throws IOException {
+        if (query.containsKey("name")) send(exchange, 200, true, Inventory.lookupPart(query.get("name")));
+        else if (query.containsKey("supplier")) send(exchange, 200, true, Inventory.lookupPartsBySupplier(query.get("supplier")));
+        else sendAll(exchange, InventoryImporter.Kind.PARTS);
+    }
+
+    private static void listProducts(HttpExchange exchange, Map<String, String> query) throws IOException {
+        if (query.containsKey("name")) send(exchange, 200, false, Inventory.lookupProduct(query.get("name")));
+        else sendAll(exchange, InventoryImporter.Kind.PRODUCTS);
+    }
+
+    /**
+     * Adds or replaces an item from the request body.
+     *
+     * @param exchange  the request
+     * @param parts     true for a part, false for a product
+     * @param id        ID to replace, or 0 to add
+     */
+    private static void save(HttpExchange exchange, boolean parts, int id) throws IOException {
+        String body = new String(readBody(exchange.getRequestBody()), StandardCharsets.UTF_8);
+        try (RowReader rows = RowReader.forFile(new StringReader(body.replace('\r', ' ').replace('\n', ' ')), "body.json")) {
+            if (!rows.next()) {
+                error(exchange, 400, "Missing request body");
+                return;
+            }
+            if (rows.rowError() != null) {
+                error(exchange, 400, rows.rowError());
+                return;
+            }
+            StringBuilder errors = new StringBuilder();
+            if (parts) savePart(exchange, rows, id, errors);
+            else saveProduct(exchange, rows, id, errors);
+        }
+    }
+
+    private static void savePart(HttpExchange exchange, RowReader rows, int id, StringBuilder errors) throws IOException {
+        Part part = RowParser.part(rows, errors);
+        if (part == null) {
+            error(exchange, 400, errors.toString().trim());
+            return;
+        }
+        if (id > 0) {
+            part.setId(id);
+            Part old = Inventory.lookupPart(id);
+            if (old == null || !Inventory.replacePart(old, part)) {
+                error(exchange, 404, "No item with ID " + id);
+                return;
+            }
+            send(exchange, 200, true, Collections.singletonList(part));
+            return;
+        }
+        if (!Inventory.addPartIfAbsent(part)) {
+            error(exchange, 409, "Part ID " + part.getId() + " is already in use");
+            return;
+        }
+        send(exchange, 201, true, Collections.singletonList(part));
+    }
+
+    private static void saveProduct(HttpExchange exchange, RowReader rows, int id, StringBuilder errors) throws IOException {
+        Product product = RowParser.product(rows, errors);
+        int[] partIds = RowParser.partIds(rows, errors);
+        int[] quantities = RowParser.partQuantities(rows, partIds.length, errors);
+        int[] componentIds = RowParser.componentIds(rows, errors);
+        int[] componentQuantities = RowParser.componentQuantities(rows, componentIds.length, errors);
+        if (product == null || errors.length() > 0) {
+            error(exchange, 400, errors.toString().trim());
+            return;
+        }
+        if (id > 0) product.setId(id);
+        Product old = id > 0 ? Inventory.lookupProduct(id) : null;
+        if (id > 0 && rows.has("components")) {
+            if (!RowParser.includeComponents(product, componentIds, componentQuantities, errors)) {
+                error(exchange, 400, errors.toString().trim());
+                return;
+            }
+        } else if (old != null) {
+            Map<Integer, Integer> kept = new LinkedHashMap<>();
+            Inventory.read(() -> kept.putAll(old.getComponents()));
+            for (Map.Entry<Integer, Integer> e : kept.entrySet()) product.setComponent(e.getKey(), e.getValue());
+        }
+        for (int i = 0; i < partIds.length; i++) {
+            Part part = Inventory.lookupPart(partIds[i]);
+            if (part == null) {
+                error(exchange, 400, "No part with ID " + partIds[i]);
+                return;
+            }
+            product.addAssociatedPart(part, quantities[i]);
+        }
+        if (id > 0) {
+            if (old == null || !Inventory.updateProduct(old, product)) error(exchange, 404, "No item with ID " + id);
+            else send(exchange, 200, false, Collections.singletonList(product));
+            return;
+        }
+        if (!Inventory.addProductIfAbsent(product)) {
+            error(exchange, 409, "Product ID " + product.getId() + " is already in use");
+            return;
+        }
+        if (!RowParser.includeComponents(product, componentIds, componentQuantities, errors)) {
+            Inventory.deleteProduct(product);
+            error(exchange, 400, errors.toString().trim());
+            return;
+        }
+        send(exchange, 201, false, Collections.singletonList(product));
+    }
+
+    private static boolean deletePart(int id) {
+        Part part = Inventory.lookupPart(id);
+        return part != null && Inventory.deletePart(part);
+    }
+
+    private static boolean deleteProduct(int id) {
+        Product product = Inventory.lookupProduct(id);
+        return product != null && Inventory.deleteProduct(product);
+    }
+
+    private static void adjustStock(HttpExchange exchange, boolean parts, int id, String deltaText) throws IOException {
+        long delta = FormValidator.parseInt(deltaText);
+        if (delta == FormValidator.NOT_AN_INT) {
+            error(exchange, 400, "delta must be an integer from " + Integer.MIN_VALUE + " to " + Integer.MAX_VALUE);
+            return;
+        }
+        Object item = parts ? Inventory.lookupPart(id) : Inventory.lookupProduct(id);
+        if (item == null) {
+            error(exchange, 404, "No item with ID " + id);
+            return;
+        }
+        int stock = parts ? Inventory.adjustPartStock(id, (int) delta) : Inventory.adjustProductStock(id, (int) delta);
+        if (stock < 0) error(exchange, 409, "The inventory level cannot go below 0 or above " + Integer.MAX_VALUE);
+        else send(exchange, 200, parts, Collections.singletonList(item));
+    }
+
+    /**
+     * Writes items as JSON Lines.
+     */
+    @SuppressWarnings("unchecked")
+    private static void send(HttpExchange exchange, int status, boolean parts, List<?> items) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        if (parts) InventoryExporter.exportParts(Channels.newChannel(exchange.getResponseBody()),
+                (List<Part>) items, InventoryExporter.Format.JSON);
+        else InventoryExporter.exportProducts(Channels.newChannel(exchange.getResponseBody()),
+                (List<Product>) items, InventoryExporter.Format.JSON);
+    }
+
+    /**
+     * Streams every part or product as JSON Lines.
+     */
+    private static void sendAll(HttpExchange exchange, InventoryImporter.Kind kind) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        InventoryExporter.export(Channels.newChannel(exchange.getResponseBody()), kind, InventoryExporter.Format.JSON);
+    }
+
+    private static void empty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static void error(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder json = new StringBuilder("{\"error\":\"");
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '"' || c == '\\') json.append('\\').append(c);
+            else if (c == '\n') json.append("\\n");
+            else if (c >= 0x20) json.append(c);
+        }
+        byte[] bytes = json.append("\"}\n").toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) bytes.write(buffer, 0, n);
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    /**
+     * Reads an ID from a path segment.
+     *
+     * @return  the ID, otherwise -1 if the text is not a positive integer
+     */
+    private static int parseId(String text) {
+        long id = FormValidator.parseInt(text);
+        return id == FormValidator.NOT_AN_INT || id < 1 ? -1 : (int) id;
+    }
+}
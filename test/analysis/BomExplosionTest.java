@@ -0,0 +1,106 @@
+package analysis;
+
+import model.InHouse;
+import model.Inventories;
+import model.Inventory;
+import model.Part;
+import model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that memoized explosions are thrown away by every kind of change below them, and that cycles are reported.
+ *
+ * @author Alex Bright
+ */
+class BomExplosionTest {
+
+    private BomExplosion bom;
+    private Part tube;
+    private Part bolt;
+    private Product frame;
+    private Product bike;
+
+    @BeforeEach
+    void build() {
+        Inventories.clear();
+        tube = new InHouse(1, "Tube", 4.00, 50, 0, 100, 1);
+        bolt = new InHouse(2, "Bolt", 0.10, 500, 0, 1000, 1);
+        Inventory.addPart(tube);
+        Inventory.addPart(bolt);
+        frame = new Product(1, "Frame", 30.00, 5, 0, 10);
+        bike = new Product(2, "Bike", 99.00, 1, 0, 5);
+        Inventory.addProduct(frame);
+        Inventory.addProduct(bike);
+        frame.addAssociatedPart(tube, 3);
+        bike.addAssociatedPart(bolt, 1);
+        bike.setComponent(1, 2);
+        bom = BomExplosion.attach();
+        assertEquals(Map.of(1, 6L, 2, 1L), bom.explode(bike));
+    }
+
+    @AfterEach
+    void detach() {
+        bom.detach();
+        Inventories.clear();
+    }
+
+    @Test
+    void forgetsOnAssociate() {
+        frame.addAssociatedPart(bolt, 4);
+        assertEquals(Map.of(1, 6L, 2, 9L), bom.explode(bike));
+    }
+
+    @Test
+    void forgetsOnDisassociate() {
+        frame.deleteAssociatedPart(tube, 1);
+        assertEquals(Map.of(1, 4L, 2, 1L), bom.explode(bike));
+        frame.deleteAssociatedPart(tube, 2);
+        assertEquals(Map.of(2, 1L), bom.explode(bike));
+    }
+
+    @Test
+    void forgetsOnComponentChange() {
+        bike.setComponent(1, 3);
+        assertEquals(Map.of(1, 9L, 2, 1L), bom.explode(bike));
+        bike.setComponent(1, 0);
+        assertEquals(Map.of(2, 1L), bom.explode(bike));
+    }
+
+    @Test
+    void forgetsOnIdChange() {
+        Product renumbered = new Product(7, "Frame", 30.00, 5, 0, 10);
+        renumbered.addAssociatedPart(tube, 3);
+        assertTrue(Inventory.updateProduct(frame, renumbered));
+        assertEquals(Map.of(2, 1L), bom.explode(bike));
+
+        Product back = new Product(1, "Frame", 30.00, 5, 0, 10);
+        back.addAssociatedPart(tube, 5);
+        assertTrue(Inventory.updateProduct(renumbered, back));
+        assertEquals(Map.of(1, 10L, 2, 1L), bom.explode(bike));
+    }
+
+    @Test
+    void reportsACycle() {
+        Product wheel = new Product(3, "Wheel", 20.00, 5, 0, 10);
+        Inventory.addProduct(wheel);
+        frame.setComponent(3, 1);
+        assertTrue(BomExplosion.wouldCycle(3, 2));
+        assertTrue(bom.wouldCycle(wheel, frame));
+        assertFalse(BomExplosion.wouldCycle(2, 3));
+
+        wheel.setComponent(2, 1);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> bom.explode(bike));
+        assertEquals("Product 2 includes itself: 2 -> 1 -> 3 -> 2", e.getMessage());
+        wheel.setComponent(2, 0);
+        assertEquals(Map.of(1, 6L, 2, 1L), bom.explode(bike));
+    }
+}
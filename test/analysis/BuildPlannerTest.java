@@ -0,0 +1,94 @@
+package analysis;
+
+import model.AssociatedParts;
+import model.InHouse;
+import model.Inventories;
+import model.Inventory;
+import model.Part;
+import model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks the incrementally kept buildable quantities against quantities computed from scratch.
+ *
+ * @author Alex Bright
+ */
+class BuildPlannerTest {
+
+    private BuildPlanner planner;
+
+    @BeforeEach
+    void clear() {
+        Inventories.clear();
+    }
+
+    @AfterEach
+    void detach() {
+        if (planner != null) planner.detach();
+        Inventories.clear();
+    }
+
+    @Test
+    void followsARestockingSetter() {
+        Part wheel = new InHouse(1, "Wheel", 2.50, 10, 0, 20, 1);
+        Part frame = new InHouse(2, "Frame", 30.00, 4, 0, 20, 1);
+        Inventory.addPart(wheel);
+        Inventory.addPart(frame);
+        Product bike = new Product(1, "Bike", 99.00, 1, 0, 5);
+        Inventory.addProduct(bike);
+        bike.addAssociatedPart(wheel, 2);
+        bike.addAssociatedPart(frame, 1);
+        planner = BuildPlanner.attach();
+        assertEquals(4, planner.get(bike).getQuantity());
+        assertSame(frame, planner.get(bike).getBottleneck());
+
+        wheel.setStock(5);
+        assertEquals(2, planner.get(bike).getQuantity());
+        assertSame(wheel, planner.get(bike).getBottleneck());
+        wheel.setStock(20);
+        assertEquals(4, planner.get(bike).getQuantity());
+        assertSame(frame, planner.get(bike).getBottleneck());
+    }
+
+    @Test
+    void matchesQuantitiesFromScratch() {
+        RandomChanges changes = new RandomChanges(21);
+        changes.populate(30, 20);
+        planner = BuildPlanner.attach();
+        for (int step = 0; step < 3000; step++) {
+            changes.step();
+            assertMatches(step);
+        }
+    }
+
+    private void assertMatches(int step) {
+        List<Product> products = Inventory.snapshotProducts();
+        List<BuildableQuantity> all = planner.getAll();
+        assertEquals(products.size(), all.size(), "step " + step);
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            BuildableQuantity build = all.get(i);
+            assertSame(product, build.getProduct(), "step " + step);
+
+            AssociatedParts parts = product.getAssociatedParts();
+            int quantity = parts.isEmpty() ? 0 : Integer.MAX_VALUE;
+            for (int j = 0; j < parts.size(); j++)
+                quantity = Math.min(quantity, parts.get(j).getStock() / parts.quantityAt(j));
+            assertEquals(quantity, build.getQuantity(), "step " + step);
+            if (parts.isEmpty()) {
+                assertNull(build.getBottleneck(), "step " + step);
+            } else {
+                Part bottleneck = build.getBottleneck();
+                assertEquals(quantity, bottleneck.getStock() / parts.quantityOf(bottleneck), "step " + step);
+            }
+        }
+    }
+}
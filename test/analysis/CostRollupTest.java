@@ -0,0 +1,76 @@
+package analysis;
+
+import model.InHouse;
+import model.Inventories;
+import model.Inventory;
+import model.Part;
+import model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the incrementally kept part costs against totals computed from scratch.
+ *
+ * @author Alex Bright
+ */
+class CostRollupTest {
+
+    private CostRollup rollup;
+
+    @BeforeEach
+    void clear() {
+        Inventories.clear();
+    }
+
+    @AfterEach
+    void detach() {
+        if (rollup != null) rollup.detach();
+        Inventories.clear();
+    }
+
+    @Test
+    void followsARepricingSetter() {
+        Part wheel = new InHouse(1, "Wheel", 2.50, 10, 0, 20, 1);
+        Inventory.addPart(wheel);
+        Product bike = new Product(1, "Bike", 6.00, 1, 0, 5);
+        Inventory.addProduct(bike);
+        bike.addAssociatedPart(wheel, 2);
+        rollup = CostRollup.attach();
+        assertEquals(5.00, rollup.getPartCost(bike));
+
+        wheel.setPrice(3.25);
+        assertEquals(6.50, rollup.getPartCost(bike));
+        assertEquals(List.of(bike), rollup.getProductsOverCost());
+        bike.setPrice(7.00);
+        assertEquals(List.of(), rollup.getProductsOverCost());
+    }
+
+    @Test
+    void matchesTotalsFromScratch() {
+        RandomChanges changes = new RandomChanges(20);
+        changes.populate(30, 20);
+        rollup = CostRollup.attach();
+        for (int step = 0; step < 3000; step++) {
+            changes.step();
+            assertMatches(step);
+        }
+    }
+
+    private void assertMatches(int step) {
+        List<Product> overCost = new ArrayList<>();
+        for (Product product : Inventory.snapshotProducts()) {
+            long cents = 0;
+            for (Part p : product.getAllAssociatedParts())
+                cents += Math.round(p.getPrice() * 100) * product.getAssociatedQuantity(p);
+            assertEquals(cents / 100.0, rollup.getPartCost(product), "step " + step);
+            if (cents > Math.round(product.getPrice() * 100)) overCost.add(product);
+        }
+        assertEquals(overCost, rollup.getProductsOverCost(), "step " + step);
+    }
+}
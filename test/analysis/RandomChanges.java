@@ -0,0 +1,124 @@
+package analysis;
+
+import model.InHouse;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Makes random changes to the inventory of every kind the incremental engines follow, so a test can check an engine
+ * against a computation from scratch after each one.
+ *
+ * @author Alex Bright
+ */
+final class RandomChanges {
+
+    private final Random random;
+
+    RandomChanges(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Adds parts, and products using some of them.
+     */
+    void populate(int parts, int products) {
+        for (int i = 0; i < parts; i++) addPart();
+        for (int i = 0; i < products; i++) addProduct();
+    }
+
+    /**
+     * Makes one random change.
+     */
+    void step() {
+        Part part = randomPart();
+        Product product = randomProduct();
+        switch (random.nextInt(12)) {
+            case 0:
+                addPart();
+                break;
+            case 1:
+                if (part != null) part.setPrice(price());
+                break;
+            case 2:
+                if (part != null) part.setStock(random.nextInt(60));
+                break;
+            case 3:
+                if (part != null) Inventory.adjustPartStock(part.getId(), random.nextInt(21) - 10);
+                break;
+            case 4:
+                if (part != null) {
+                    Part copy = new InHouse(part.getId(), part.getName(), price(), random.nextInt(60), 0, 100, 1);
+                    Inventory.replacePart(part, copy);
+                }
+                break;
+            case 5:
+                if (part != null) Inventory.deletePart(part);
+                break;
+            case 6:
+                addProduct();
+                break;
+            case 7:
+                if (part != null && product != null) product.addAssociatedPart(part, 1 + random.nextInt(4));
+                break;
+            case 8:
+                if (product != null && !product.getAllAssociatedParts().isEmpty()) {
+                    List<Part> used = product.getAllAssociatedParts();
+                    product.deleteAssociatedPart(used.get(random.nextInt(used.size())), 1 + random.nextInt(3));
+                }
+                break;
+            case 9:
+                if (product != null) {
+                    product.setPrice(price() * 4);
+                    product.setStock(random.nextInt(20));
+                    product.setMin(random.nextInt(5));
+                }
+                break;
+            case 10:
+                if (product != null) Inventory.deleteProduct(product);
+                break;
+            default:
+                if (product != null) {
+                    Product copy = new Product(product.getId(), product.getName(), price() * 4, random.nextInt(20), 0, 50);
+                    Inventory.read(() -> copy.getAssociatedParts().setAll(product.getAssociatedParts()));
+                    Inventory.updateProduct(product, copy);
+                }
+                break;
+        }
+    }
+
+    private void addPart() {
+        if (random.nextBoolean()) Inventory.addPart(new InHouse(0, "Part", price(), random.nextInt(60), 0, 100, 1));
+        else Inventory.addPart(new Outsourced(0, "Part", price(), random.nextInt(60), 0, 100, "Supplier"));
+    }
+
+    private void addProduct() {
+        Product product = new Product(0, "Product", price() * 4, random.nextInt(20), random.nextInt(5), 50);
+        Inventory.addProduct(product);
+        for (int i = random.nextInt(4); i > 0; i--) {
+            Part part = randomPart();
+            if (part != null) product.addAssociatedPart(part, 1 + random.nextInt(4));
+        }
+    }
+
+    /**
+     * @return  a price in whole cents
+     */
+    private double price() {
+        return random.nextInt(5000) / 100.0;
+    }
+
+    Part randomPart() {
+        List<Part> parts = Inventory.snapshotParts();
+        return parts.isEmpty() ? null : parts.get(random.nextInt(parts.size()));
+    }
+
+    Product randomProduct() {
+        List<Product> products = Inventory.snapshotProducts();
+        return products.isEmpty() ? null : products.get(random.nextInt(products.size()));
+    }
+}
@@ -0,0 +1,138 @@
+package analysis;
+
+import model.InHouse;
+import model.Inventories;
+import model.Inventory;
+import model.Part;
+import model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the low-stock heap and the alerts sent to subscribers against a sort of the whole inventory.
+ *
+ * @author Alex Bright
+ */
+class StockAlertsTest {
+
+    private static final int THRESHOLD = 3;
+
+    private StockAlerts<Part> partAlerts;
+    private StockAlerts<Product> productAlerts;
+
+    @BeforeEach
+    void clear() {
+        Inventories.clear();
+    }
+
+    @AfterEach
+    void detach() {
+        if (partAlerts != null) partAlerts.detach();
+        if (productAlerts != null) productAlerts.detach();
+        Inventories.clear();
+    }
+
+    @Test
+    void alertsOnASetterCrossingTheThreshold() {
+        Part wheel = new InHouse(1, "Wheel", 2.50, 10, 2, 20, 1);
+        Inventory.addPart(wheel);
+        partAlerts = StockAlerts.forParts(THRESHOLD);
+        List<String> events = new ArrayList<>();
+        partAlerts.subscribe(new StockAlerts.Subscriber<>() {
+            @Override
+            public void lowStock(Part item, int headroom) {
+                events.add("low " + headroom);
+            }
+
+            @Override
+            public void recovered(Part item, int headroom) {
+                events.add("recovered " + headroom);
+            }
+        });
+
+        wheel.setStock(4);
+        wheel.setStock(3);
+        wheel.setMin(0);
+        assertEquals(List.of(wheel), partAlerts.low());
+        wheel.setStock(4);
+        assertEquals(List.of("low 2", "recovered 4"), events);
+        assertEquals(List.of(), partAlerts.low());
+    }
+
+    @Test
+    void matchesASortOfTheInventory() {
+        RandomChanges changes = new RandomChanges(22);
+        changes.populate(40, 25);
+        partAlerts = StockAlerts.forParts(THRESHOLD);
+        productAlerts = StockAlerts.forProducts(THRESHOLD);
+        Set<Integer> lowParts = subscribe(partAlerts, Part::getId);
+        Set<Integer> lowProducts = subscribe(productAlerts, Product::getId);
+        for (Part p : partAlerts.low()) lowParts.add(p.getId());
+        for (Product p : productAlerts.low()) lowProducts.add(p.getId());
+
+        for (int step = 0; step < 3000; step++) {
+            forgetDeleted(lowParts, Inventory.snapshotParts(), Part::getId);
+            forgetDeleted(lowProducts, Inventory.snapshotProducts(), Product::getId);
+            changes.step();
+            assertMatches(partAlerts, Inventory.snapshotParts(), lowParts, Part::getId, Part::getStock, Part::getMin);
+            assertMatches(productAlerts, Inventory.snapshotProducts(), lowProducts,
+                    Product::getId, Product::getStock, Product::getMin);
+        }
+    }
+
+    /**
+     * Keeps the IDs of the items the subscriber was last told are low.
+     */
+    private static <T> Set<Integer> subscribe(StockAlerts<T> alerts, ToIntFunction<T> idOf) {
+        Set<Integer> low = new HashSet<>();
+        alerts.subscribe(new StockAlerts.Subscriber<>() {
+            @Override
+            public void lowStock(T item, int headroom) {
+                low.add(idOf.applyAsInt(item));
+            }
+
+            @Override
+            public void recovered(T item, int headroom) {
+                low.remove(idOf.applyAsInt(item));
+            }
+        });
+        return low;
+    }
+
+    private static <T> void assertMatches(StockAlerts<T> alerts, List<T> items, Set<Integer> alerted,
+                                          ToIntFunction<T> idOf, ToIntFunction<T> stockOf, ToIntFunction<T> minOf) {
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.<T>comparingInt(t -> stockOf.applyAsInt(t) - minOf.applyAsInt(t)).thenComparingInt(idOf));
+        List<T> low = new ArrayList<>();
+        Set<Integer> lowIds = new HashSet<>();
+        for (T t : sorted) {
+            if (stockOf.applyAsInt(t) - minOf.applyAsInt(t) > THRESHOLD) break;
+            low.add(t);
+            lowIds.add(idOf.applyAsInt(t));
+        }
+        assertEquals(low, alerts.low());
+        assertEquals(sorted.subList(0, Math.min(5, sorted.size())), alerts.mostAtRisk(5));
+        Set<Integer> alertedLive = new HashSet<>(alerted);
+        forgetDeleted(alertedLive, items, idOf);
+        assertEquals(lowIds, alertedLive);
+    }
+
+    /**
+     * Drops the IDs of deleted items, which are not alerted on, before their IDs can be reused.
+     */
+    private static <T> void forgetDeleted(Set<Integer> alerted, List<T> items, ToIntFunction<T> idOf) {
+        Set<Integer> live = new HashSet<>();
+        for (T t : items) live.add(idOf.applyAsInt(t));
+        alerted.retainAll(live);
+    }
+}
@@ -0,0 +1,86 @@
+package exchange;
+
+import model.InHouse;
+import model.Inventories;
+import model.Inventory;
+import model.Outsourced;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the exporter writes every row across its chunks, and writes to the channel only between chunks.
+ *
+ * @author Alex Bright
+ */
+class InventoryExporterTest {
+
+    @BeforeEach
+    @AfterEach
+    void clear() {
+        Inventories.clear();
+    }
+
+    @Test
+    void writesEveryRowInOrderOfId() throws IOException {
+        for (int id = 1300; id >= 1; id--) {
+            if (id % 2 == 0) Inventory.addPart(new InHouse(id, "Part " + id, 1.25, 5, 0, 10, id));
+            else Inventory.addPart(new Outsourced(id, "Part " + id, 1.25, 5, 0, 10, "Supplier, Inc."));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long rows = InventoryExporter.export(Channels.newChannel(bytes), InventoryImporter.Kind.PARTS,
+                InventoryExporter.Format.CSV);
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1300, rows);
+        assertEquals(1301, lines.length);
+        assertEquals("type,id,name,price,stock,min,max,source", lines[0]);
+        for (int id = 1; id <= 1300; id++) assertTrue(lines[id].contains("," + id + ",Part " + id + ","), lines[id]);
+        assertTrue(lines[1].endsWith(",\"Supplier, Inc.\""));
+    }
+
+    @Test
+    void letsTheInventoryChangeWhileTheChannelIsWritten() throws IOException {
+        for (int id = 1; id <= 2000; id++) Inventory.addPart(new InHouse(id, "Part " + id, 1.25, 5, 0, 10, id));
+        int[] writes = new int[1];
+        WritableByteChannel channel = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                Thread writer = new Thread(() -> Inventory.adjustPartStock(1, 1));
+                writer.start();
+                try {
+                    writer.join(5000);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                assertFalse(writer.isAlive(), "the read lock was held while writing");
+                writes[0]++;
+                int n = src.remaining();
+                src.position(src.limit());
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        assertEquals(2000, InventoryExporter.export(channel, InventoryImporter.Kind.PARTS, InventoryExporter.Format.JSON));
+        assertTrue(writes[0] >= 4);
+        assertEquals(5 + writes[0], Inventory.lookupPart(1).getStock());
+    }
+}
@@ -0,0 +1,171 @@
+package exchange;
+
+import model.InHouse;
+import model.Inventories;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports the inventory and imports it back in both formats, and checks that malformed rows are reported and skipped
+ * while the rest of the file is imported.
+ *
+ * @author Alex Bright
+ */
+class InventoryImporterTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    @AfterEach
+    void clear() {
+        Inventories.clear();
+    }
+
+    @Test
+    void readsBackCsv() throws IOException {
+        roundTrip("csv");
+    }
+
+    @Test
+    void readsBackJsonLines() throws IOException {
+        roundTrip("jsonl");
+    }
+
+    @Test
+    void reportsMalformedPartRows() throws IOException {
+        Inventory.addPart(new InHouse(5, "Bolt", 0.10, 100, 0, 500, 2));
+        ImportReport report = read(InventoryImporter.Kind.PARTS, "parts.csv",
+                "type,id,name,price,stock,min,max,source\n"
+                        + "in-house,1,Wheel,2.5,10,1,20,15\n"
+                        + "gadget,2,Spring,1.0,5,0,10,1\n"
+                        + "in-house,3,Spoke,1.0,50,0,10,1\n"
+                        + "in-house,x,Nut,1.0,5,0,10,1\n"
+                        + "outsourced,5,Bolt,1.0,5,0,10,Bright\n"
+                        + "outsourced,1,Tire,1.0,5,0,10,Bright\n"
+                        + "in-house,,Washer,0.05,5,0,10,3\n"
+                        + "in-house,\"6,Rim,1.0,5,0,10,1\n");
+        assertEquals(8, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(6, report.getErrorCount());
+        List<String> errors = report.getErrors();
+        assertTrue(errors.get(0).startsWith("Line 3: Type must be"), errors.get(0));
+        assertTrue(errors.get(1).startsWith("Line 4: "), errors.get(1));
+        assertTrue(errors.get(2).startsWith("Line 5: "), errors.get(2));
+        assertTrue(errors.contains("Line 6: Part ID 5 is already in use"), errors.toString());
+        assertTrue(errors.contains("Line 7: Part ID 1 is already in use"), errors.toString());
+        assertEquals("Wheel", Inventory.lookupPart(1).getName());
+        assertEquals("Bolt", Inventory.lookupPart(5).getName());
+        assertEquals(1, Inventory.lookupPart("Washer").size());
+    }
+
+    @Test
+    void reportsMalformedProductRows() throws IOException {
+        Part wheel = new InHouse(1, "Wheel", 2.50, 10, 0, 20, 1);
+        Inventory.addPart(wheel);
+        Product frame = new Product(9, "Frame", 20.00, 1, 0, 5);
+        Inventory.addProduct(frame);
+        frame.setComponent(10, 1);
+        ImportReport report = read(InventoryImporter.Kind.PRODUCTS, "products.jsonl",
+                "{\"id\":1,\"name\":\"Bike\",\"price\":99,\"stock\":1,\"min\":0,\"max\":5,\"parts\":\"1\",\"quantities\":\"2\"}\n"
+                        + "{\"id\":2,\"name\":\"Trike\",\"price\":99,\"stock\":1,\"min\":0,\"max\":5,\"parts\":\"1;7;8\"}\n"
+                        + "{\"id\":3,\"name\":\"Loop\",\"price\":99,\"stock\":1,\"min\":0,\"max\":5,\"components\":\"3\"}\n"
+                        + "{\"id\":4,\"name\":\"Cart\",\"price\":99,\"stock\":1,\"min\":0,\"max\":5,\"components\":\"5\"}\n"
+                        + "{\"id\":5,\"name\":\"Wagon\",\"price\":99,\"stock\":1,\"min\":0,\"max\":5,\"components\":\"4\"}\n"
+                        + "{\"id\":10,\"name\":\"Fork\",\"price\":9,\"stock\":1,\"min\":0,\"max\":5,\"components\":\"9\"}\n"
+                        + "{\"id\":1,\"name\":\"Copy\",\"price\":99,\"stock\":1,\"min\":0,\"max\":5}\n"
+                        + "{\"id\":6,\"name\":\"Kit\",\"price\":99,\"stock\":1,\"min\":0,\"max\":5,\"components\":\"1;4\","
+                        + "\"componentquantities\":\"2;1\"}\n"
+                        + "{\"id\":7,\"name\":\n");
+        assertEquals(9, report.getRowsRead());
+        assertEquals(3, report.getRowsImported());
+        List<String> errors = report.getErrors();
+        assertEquals(6, report.getErrorCount(), errors.toString());
+        assertTrue(errors.contains("Line 2: No part with ID 7 8"), errors.toString());
+        assertTrue(errors.contains("Line 3: A product cannot include itself"), errors.toString());
+        assertTrue(errors.contains("Line 5: Product 4 already includes product 5"), errors.toString());
+        assertTrue(errors.contains("Line 6: Product 9 already includes product 10"), errors.toString());
+        assertTrue(errors.contains("Line 7: Product ID 1 is already in use"), errors.toString());
+        assertTrue(errors.get(0).startsWith("Line 9: "), errors.toString());
+
+        assertEquals(2, Inventory.lookupProduct(1).getAssociatedQuantity(wheel));
+        assertEquals("Bike", Inventory.lookupProduct(1).getName());
+        assertNull(Inventory.lookupProduct(2));
+        assertNull(Inventory.lookupProduct(3));
+        assertEquals(Map.of(5, 1), Inventory.lookupProduct(4).getComponents());
+        assertNull(Inventory.lookupProduct(5));
+        assertNull(Inventory.lookupProduct(10));
+        assertEquals(Map.of(1, 2, 4, 1), Inventory.lookupProduct(6).getComponents());
+    }
+
+    private void roundTrip(String extension) throws IOException {
+        Part wheel = new InHouse(1, "Wheel, \"alloy\"", 249.99, 24, 1, 48, 15);
+        Part tire = new Outsourced(2, "Tire", 149.99, 16, 1, 32, "Bright Tire Shop, Inc.");
+        Inventory.addPart(wheel);
+        Inventory.addPart(tire);
+        Product combo = new Product(4, "Wheel/Tire Combo", 499.99, 16, 1, 32);
+        Inventory.addProduct(combo);
+        combo.addAssociatedPart(wheel, 2);
+        combo.addAssociatedPart(tire, 1);
+        Product bike = new Product(5, "Bike\nDeluxe", 999.0, 1, 0, 2);
+        Inventory.addProduct(bike);
+        bike.setComponent(4, 2);
+
+        Path parts = dir.resolve("parts." + extension);
+        Path products = dir.resolve("products." + extension);
+        assertEquals(2, InventoryExporter.export(parts, InventoryImporter.Kind.PARTS));
+        assertEquals(2, InventoryExporter.export(products, InventoryImporter.Kind.PRODUCTS));
+        Inventories.clear();
+
+        assertEquals(2, read(InventoryImporter.Kind.PARTS, parts).getRowsImported());
+        ImportReport report = read(InventoryImporter.Kind.PRODUCTS, products);
+        assertEquals(List.of(), report.getErrors());
+        assertEquals(2, report.getRowsImported());
+
+        Part wheelBack = Inventory.lookupPart(1);
+        assertEquals("Wheel, \"alloy\"", wheelBack.getName());
+        assertEquals(249.99, wheelBack.getPrice());
+        assertEquals(15, ((InHouse) wheelBack).getMachineId());
+        Part tireBack = Inventory.lookupPart(2);
+        assertEquals("Bright Tire Shop, Inc.", ((Outsourced) tireBack).getCompanyName());
+        assertEquals(16, tireBack.getStock());
+
+        Product comboBack = Inventory.lookupProduct(4);
+        assertEquals(499.99, comboBack.getPrice());
+        assertEquals(2, comboBack.getAssociatedQuantity(wheelBack));
+        assertEquals(1, comboBack.getAssociatedQuantity(tireBack));
+        Product bikeBack = Inventory.lookupProduct(5);
+        assertEquals("Bike\nDeluxe", bikeBack.getName());
+        assertEquals(Map.of(4, 2), bikeBack.getComponents());
+    }
+
+    private static ImportReport read(InventoryImporter.Kind kind, Path file) throws IOException {
+        return read(kind, file.getFileName().toString(), Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    private static ImportReport read(InventoryImporter.Kind kind, String name, String text) throws IOException {
+        InventoryImporter importer = new InventoryImporter(Path.of(name), kind);
+        try (RowReader rows = RowReader.forFile(new StringReader(text), name)) {
+            importer.read(rows, () -> {});
+        }
+        return importer.getReport();
+    }
+}
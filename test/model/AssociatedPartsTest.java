@@ -0,0 +1,118 @@
+package model;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the units kept by {@link AssociatedParts} and the changes its view reports.
+ *
+ * @author Alex Bright
+ */
+class AssociatedPartsTest {
+
+    private static Part part(int id) {
+        return new InHouse(id, "Part " + id, 1.0, 5, 0, 10, id);
+    }
+
+    @Test
+    void keepsPartsInIdOrderWithUnits() {
+        AssociatedParts parts = new AssociatedParts();
+        Part five = part(5);
+        Part two = part(2);
+        Part nine = part(9);
+        parts.add(five, 3);
+        parts.add(two, 1);
+        parts.add(nine, 2);
+        parts.add(five, 1);
+        parts.add(two, 0);
+
+        assertEquals(3, parts.size());
+        assertEquals(7, parts.units());
+        assertSame(two, parts.get(0));
+        assertSame(five, parts.get(1));
+        assertSame(nine, parts.get(2));
+        assertEquals(4, parts.quantityAt(1));
+        assertEquals(4, parts.quantityOf(5));
+        assertEquals(0, parts.quantityOf(6));
+        assertThrows(IllegalArgumentException.class, () -> parts.add(five, -1));
+    }
+
+    @Test
+    void replacesAPartWithTheSameIdKeepingItsUnits() {
+        AssociatedParts parts = new AssociatedParts();
+        Part old = part(4);
+        Part replacement = part(4);
+        parts.add(old, 2);
+        parts.add(replacement, 1);
+
+        assertEquals(1, parts.size());
+        assertSame(replacement, parts.find(4));
+        assertEquals(3, parts.quantityOf(replacement));
+        assertEquals(0, parts.quantityOf(old));
+        assertFalse(parts.contains(old));
+        assertEquals(0, parts.remove(old, 1));
+    }
+
+    @Test
+    void removesUnitsThenTheEntry() {
+        AssociatedParts parts = new AssociatedParts();
+        Part part = part(1);
+        parts.add(part, 3);
+        assertEquals(0, parts.remove(part, 0));
+        assertEquals(2, parts.remove(part, 2));
+        assertEquals(1, parts.quantityOf(part));
+        assertEquals(1, parts.remove(part, 5));
+        assertTrue(parts.isEmpty());
+        assertEquals(0, parts.units());
+        assertNull(parts.find(1));
+    }
+
+    @Test
+    void copiesAndClears() {
+        AssociatedParts source = new AssociatedParts();
+        for (int id = 1; id <= 10; id++) source.add(part(id), id);
+        AssociatedParts copy = new AssociatedParts();
+        copy.setAll(source);
+        source.remove(source.get(0), 1);
+
+        assertEquals(10, copy.size());
+        assertEquals(55, copy.units());
+        copy.clear();
+        assertTrue(copy.isEmpty());
+        assertEquals(9, source.size());
+    }
+
+    @Test
+    void viewReportsEachChange() {
+        AssociatedParts parts = new AssociatedParts();
+        List<String> changes = new ArrayList<>();
+        parts.view().addListener((ListChangeListener<Part>) c -> {
+            while (c.next()) {
+                if (c.wasReplaced()) changes.add("set " + c.getFrom());
+                else if (c.wasAdded()) changes.add("add " + c.getFrom() + "-" + c.getTo());
+                else if (c.wasRemoved()) changes.add("remove " + c.getFrom() + "x" + c.getRemovedSize());
+            }
+        });
+        Part one = part(1);
+        Part two = part(2);
+        parts.add(two, 1);
+        parts.add(one, 1);
+        parts.add(two, 1);
+        parts.remove(two, 1);
+        parts.remove(two, 1);
+        parts.clear();
+
+        assertEquals(List.of("add 0-1", "add 0-1", "set 1", "set 1", "remove 1x1", "remove 0x1"), changes);
+        assertTrue(parts.view().isEmpty());
+    }
+}
@@ -0,0 +1,122 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the {@link FormValidator} parsers against the JDK's and the error lines the screens show.
+ *
+ * @author Alex Bright
+ */
+class FormValidatorTest {
+
+    private static final String JUNK = " \t+-.eE0123456789xX,_";
+
+    @Test
+    void parseIntMatchesJdk() {
+        Random random = new Random(482);
+        String[] fixed = {"", " ", "+", "-", "0", "-0", "+7", " 42 ", "2147483647", "2147483648", "-2147483648",
+                "-2147483649", "99999999999999999999", "1 2", "12a", "0x10", "\t-15\n", "007"};
+        for (String text : fixed) assertEquals(jdkInt(text), FormValidator.parseInt(text), text);
+        for (int i = 0; i < 100_000; i++) {
+            String text = i % 2 == 0 ? number(random) : junk(random);
+            assertEquals(jdkInt(text), FormValidator.parseInt(text), text);
+        }
+        assertEquals(FormValidator.NOT_AN_INT, FormValidator.parseInt(null));
+        assertEquals(-3, FormValidator.parseInt("x", -3));
+    }
+
+    @Test
+    void parseDoubleMatchesJdk() {
+        Random random = new Random(482);
+        String[] fixed = {"", ".", "-.", "1.", ".5", "-0", "-0.0", "1e", "1e+", "1e-5", "1E22", "1e23", "1e400",
+                "-1e400", "4.9e-324", "1e-400", "123456789012345678901234567890", "0.1", "12.34.5", "1d", "NaN",
+                "Infinity", "0x1p3", " 249.99 ", "9007199254740993", "0.30000000000000004"};
+        for (String text : fixed) assertEquals(jdkDouble(text), FormValidator.parseDouble(text), text);
+        for (int i = 0; i < 100_000; i++) {
+            String text = i % 2 == 0 ? decimal(random) : junk(random);
+            assertEquals(jdkDouble(text), FormValidator.parseDouble(text), text);
+        }
+        assertTrue(Double.isNaN(FormValidator.parseDouble(null)));
+    }
+
+    @Test
+    void reportsTheScreenErrors() {
+        FormValidator form = new FormValidator();
+        assertTrue(form.part("Wheel", "5", "9.99", "10", "1", true, "15"));
+        Part part = form.toPart(3);
+        assertEquals(3, part.getId());
+        assertEquals(15, ((InHouse) part).getMachineId());
+
+        assertFalse(form.part(" ", "x", "y", "1", "1", false, ""));
+        assertEquals("No data in name field\n"
+                + "Inventory is not an integer\n"
+                + "Price must be numeric\n"
+                + "Min must be less than Max\n"
+                + "No data in company name field\n", form.getErrors());
+
+        assertFalse(form.product("Kit", "20", "1", "10", "1"));
+        assertEquals("Inventory must be between Min and Max\n", form.getErrors());
+        assertEquals(0, form.id(" "));
+        assertEquals(0, form.id("seven"));
+        assertTrue(form.getErrors().endsWith("ID is not an integer\n"));
+    }
+
+    private static long jdkInt(String text) {
+        try {
+            return Integer.parseInt(text.trim());
+        } catch (NumberFormatException e) {
+            return FormValidator.NOT_AN_INT;
+        }
+    }
+
+    private static double jdkDouble(String text) {
+        String trimmed = text.trim();
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (!(c >= '0' && c <= '9' || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-')) return Double.NaN;
+        }
+        try {
+            double value = Double.parseDouble(trimmed);
+            return Double.isInfinite(value) ? Double.NaN : value;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String number(Random random) {
+        StringBuilder sb = new StringBuilder();
+        if (random.nextInt(4) == 0) sb.append(' ');
+        if (random.nextInt(3) == 0) sb.append(random.nextBoolean() ? '-' : '+');
+        int digits = 1 + random.nextInt(random.nextInt(4) == 0 ? 12 : 10);
+        for (int i = 0; i < digits; i++) sb.append((char) ('0' + random.nextInt(10)));
+        if (random.nextInt(4) == 0) sb.append('\t');
+        return sb.toString();
+    }
+
+    private static String decimal(Random random) {
+        StringBuilder sb = new StringBuilder(number(random).trim());
+        if (random.nextBoolean()) {
+            sb.append('.');
+            int digits = random.nextInt(random.nextInt(4) == 0 ? 25 : 6);
+            for (int i = 0; i < digits; i++) sb.append((char) ('0' + random.nextInt(10)));
+        }
+        if (random.nextInt(3) == 0) {
+            sb.append(random.nextBoolean() ? 'e' : 'E');
+            if (random.nextBoolean()) sb.append(random.nextBoolean() ? '-' : '+');
+            sb.append(random.nextInt(random.nextBoolean() ? 30 : 400));
+        }
+        return sb.toString();
+    }
+
+    private static String junk(Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = random.nextInt(8); i >= 0; i--) sb.append(JUNK.charAt(random.nextInt(JUNK.length())));
+        return sb.toString();
+    }
+}
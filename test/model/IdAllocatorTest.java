@@ -0,0 +1,86 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks {@link IdAllocator} against a sorted set of the used IDs.
+ *
+ * @author Alex Bright
+ */
+class IdAllocatorTest {
+
+    @Test
+    void handsOutTheLowestFreeId() {
+        IdAllocator ids = new IdAllocator();
+        assertEquals(1, ids.next());
+        assertEquals(1, ids.allocate());
+        assertEquals(2, ids.allocate());
+        ids.claim(3);
+        ids.claim(5);
+        assertEquals(4, ids.allocate());
+        assertEquals(6, ids.next());
+        ids.release(2);
+        assertEquals(2, ids.next());
+        ids.claim(0);
+        ids.claim(-4);
+        assertEquals(2, ids.allocate());
+        assertEquals(6, ids.next());
+    }
+
+    @Test
+    void nextDoesNotClaim() {
+        IdAllocator ids = new IdAllocator();
+        assertEquals(1, ids.next());
+        assertEquals(1, ids.next());
+        assertEquals(-1, ids.nextUsed(1));
+    }
+
+    @Test
+    void highIdsAreKeptSparse() {
+        IdAllocator ids = new IdAllocator();
+        ids.claim(Integer.MAX_VALUE);
+        ids.claim(IdAllocator.DENSE_LIMIT);
+        assertEquals(1, ids.allocate());
+        assertEquals(IdAllocator.DENSE_LIMIT, ids.nextUsed(2));
+        assertEquals(Integer.MAX_VALUE, ids.nextUsed(IdAllocator.DENSE_LIMIT + 1));
+        ids.release(IdAllocator.DENSE_LIMIT);
+        assertEquals(Integer.MAX_VALUE, ids.nextUsed(2));
+        ids.clear();
+        assertEquals(-1, ids.nextUsed(1));
+        assertEquals(1, ids.next());
+    }
+
+    @Test
+    void matchesSortedSet() {
+        Random random = new Random(482);
+        IdAllocator ids = new IdAllocator();
+        TreeSet<Integer> used = new TreeSet<>();
+        for (int op = 0; op < 50_000; op++) {
+            int id = 1 + random.nextInt(2_000);
+            switch (random.nextInt(4)) {
+                case 0:
+                    ids.claim(id);
+                    used.add(id);
+                    break;
+                case 1:
+                    ids.release(id);
+                    used.remove(id);
+                    break;
+                case 2:
+                    used.add(ids.allocate());
+                    break;
+                default:
+                    Integer expected = used.ceiling(id);
+                    assertEquals(expected == null ? -1 : expected, ids.nextUsed(id));
+            }
+            int free = 1;
+            while (used.contains(free)) free++;
+            assertEquals(free, ids.next());
+        }
+    }
+}
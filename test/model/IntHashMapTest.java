@@ -0,0 +1,84 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link IntHashMap} against {@link HashMap} over random operations.
+ *
+ * @author Alex Bright
+ */
+class IntHashMapTest {
+
+    @Test
+    void matchesHashMap() {
+        Random random = new Random(482);
+        for (int round = 0; round < 200; round++) {
+            IntHashMap<String> map = new IntHashMap<>(random.nextInt(64));
+            Map<Integer, String> expected = new HashMap<>();
+            int range = 1 + random.nextInt(round < 100 ? 64 : 100_000);
+            for (int op = 0; op < 2_000; op++) {
+                int key = random.nextInt(range) - range / 4;
+                switch (random.nextInt(5)) {
+                    case 0:
+                    case 1: {
+                        String value = "v" + op;
+                        assertEquals(expected.put(key, value), map.put(key, value));
+                        break;
+                    }
+                    case 2:
+                        assertEquals(expected.remove(key), map.remove(key));
+                        break;
+                    case 3: {
+                        String current = map.get(key);
+                        boolean removed = map.remove(key, current == null ? "absent" : current);
+                        assertEquals(current != null, removed);
+                        if (removed) expected.remove(key);
+                        break;
+                    }
+                    default:
+                        assertEquals(expected.get(key), map.get(key));
+                        assertEquals(expected.containsKey(key), map.containsKey(key));
+                }
+                assertEquals(expected.size(), map.size());
+            }
+            for (Map.Entry<Integer, String> e : expected.entrySet()) assertSame(e.getValue(), map.get(e.getKey()));
+            List<String> values = map.values();
+            assertEquals(expected.size(), values.size());
+            assertTrue(values.containsAll(expected.values()));
+        }
+    }
+
+    @Test
+    void removeWithValueComparesIdentity() {
+        IntHashMap<String> map = new IntHashMap<>();
+        String value = new String("part");
+        map.put(7, value);
+        assertFalse(map.remove(7, new String("part")));
+        assertTrue(map.remove(7, value));
+        assertNull(map.get(7));
+    }
+
+    @Test
+    void clearEmptiesAndStaysUsable() {
+        IntHashMap<Integer> map = new IntHashMap<>();
+        for (int i = 0; i < 1_000; i++) map.put(i * 31, i);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(31));
+        map.put(31, 1);
+        assertEquals(1, map.get(31));
+        assertEquals(new ArrayList<>(List.of(1)), map.values());
+    }
+}
@@ -0,0 +1,27 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers for tests that share the static {@link Inventory}.
+ *
+ * @author Alex Bright
+ */
+public final class Inventories {
+
+    private Inventories() {}
+
+    /**
+     * Deletes every product and part through the public API, so each test starts from an empty inventory.
+     * Close any journal first, or the deletes are recorded.
+     */
+    public static void clear() {
+        List<Product> products = new ArrayList<>();
+        Inventory.forEachProduct(products::add);
+        for (Product p : products) Inventory.deleteProduct(p);
+        List<Part> parts = new ArrayList<>();
+        Inventory.forEachPart(parts::add);
+        for (Part p : parts) Inventory.deletePart(p);
+    }
+}
@@ -0,0 +1,100 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the inventory operations that make several changes as one.
+ *
+ * @author Alex Bright
+ */
+class InventoryTest {
+
+    @BeforeEach
+    @AfterEach
+    void clear() {
+        Inventories.clear();
+    }
+
+    @Test
+    void replacePartMovesEveryProductsUnits() {
+        Part wheel = new InHouse(1, "Wheel", 2.50, 10, 0, 20, 1);
+        Inventory.addPart(wheel);
+        Product bike = new Product(1, "Bike", 99.00, 1, 0, 5);
+        Product trike = new Product(2, "Trike", 120.00, 1, 0, 5);
+        Inventory.addProduct(bike);
+        Inventory.addProduct(trike);
+        bike.addAssociatedPart(wheel, 2);
+        trike.addAssociatedPart(wheel, 3);
+
+        Part renumbered = new InHouse(7, "Wheel", 2.75, 10, 0, 20, 1);
+        assertTrue(Inventory.replacePart(wheel, renumbered));
+        assertSame(renumbered, Inventory.lookupPart(7));
+        assertEquals(2, bike.getAssociatedQuantity(renumbered));
+        assertEquals(3, trike.getAssociatedQuantity(renumbered));
+        assertEquals(0, bike.getAssociatedQuantity(wheel));
+        assertTrue(Inventory.getProductsUsingPart(1).isEmpty());
+        assertEquals(2, Inventory.getProductsUsingPart(7).size());
+
+        assertFalse(Inventory.replacePart(wheel, new InHouse(1, "Wheel", 3.00, 10, 0, 20, 1)));
+        assertEquals(2, bike.getAssociatedQuantity(renumbered));
+    }
+
+    @Test
+    void looksUpSuppliersWhoseCodeWasReused() {
+        Part tire = new Outsourced(1, "Tire", 2.50, 10, 0, 20, "Bright Tire Shop");
+        Inventory.addPart(tire);
+        assertTrue(Inventory.deletePart(tire));
+        Part chain = new Outsourced(2, "Chain", 8.00, 10, 0, 20, "Chain Works");
+        Inventory.addPart(chain);
+
+        assertTrue(Inventory.lookupPartsBySupplier("Bright Tire Shop").isEmpty());
+        assertEquals(List.of(chain), Inventory.lookupPartsBySupplier("Chain Works"));
+    }
+
+    @Test
+    void readersNeverSeeAHalfReplacedPart() throws InterruptedException {
+        Part wheel = new InHouse(1, "Wheel", 2.50, 10, 0, 20, 1);
+        Inventory.addPart(wheel);
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            Product product = new Product(i, "Bike " + i, 99.00, 1, 0, 5);
+            Inventory.addProduct(product);
+            product.addAssociatedPart(wheel, 2);
+            products.add(product);
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger stale = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                Inventory.read(() -> {
+                    Part current = Inventory.lookupPart(1);
+                    for (Product p : products)
+                        if (p.getAssociatedParts().find(1) != current) stale.incrementAndGet();
+                });
+            }
+        });
+        reader.start();
+        Part part = wheel;
+        for (int i = 0; i < 2000; i++) {
+            Part copy = new InHouse(1, "Wheel", 2.50, 10, 0, 20, 1);
+            assertTrue(Inventory.replacePart(part, copy));
+            part = copy;
+        }
+        done.set(true);
+        reader.join();
+        assertEquals(0, stale.get());
+    }
+}
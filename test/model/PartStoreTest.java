@@ -0,0 +1,115 @@
+package model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks the columns of the inventory's {@link PartStore} against a scan of its parts.
+ *
+ * @author Alex Bright
+ */
+class PartStoreTest {
+
+    @BeforeEach
+    @AfterEach
+    void clear() {
+        Inventories.clear();
+    }
+
+    @Test
+    void followsSettersAndReplacements() {
+        Part wheel = new InHouse(1, "Wheel", 2.50, 10, 2, 20, 1);
+        Part tire = new Outsourced(2, "Tire", 4.00, 1, 2, 5, "Bright Tire Shop");
+        Inventory.addPart(wheel);
+        Inventory.addPart(tire);
+        PartStore store = Inventory.getPartStore();
+        assertEquals(11, store.totalStock());
+        assertEquals(29.00, store.totalValue());
+        assertArrayEquals(new int[]{2}, store.idsAtOrBelowMin());
+
+        wheel.setStock(2);
+        tire.setPrice(5.00);
+        assertEquals(10.00, store.totalValue());
+        assertEquals(2, store.countAtOrBelowMin());
+        Inventory.updatePart(tire, new Outsourced(2, "Tire", 5.00, 5, 2, 5, "Bright Tire Shop"));
+        assertArrayEquals(new int[]{2}, store.idsAtOrAboveMax());
+        Inventory.deletePart(wheel);
+        assertEquals(1, store.size());
+        assertEquals(5, store.totalStock());
+        wheel.setStock(50);
+        assertEquals(5, store.totalStock());
+    }
+
+    @Test
+    void matchesAScanOfTheParts() {
+        Random random = new Random(9);
+        PartStore store = Inventory.getPartStore();
+        for (int step = 0; step < 5000; step++) {
+            List<Part> parts = Inventory.snapshotParts();
+            Part part = parts.isEmpty() ? null : parts.get(random.nextInt(parts.size()));
+            switch (random.nextInt(6)) {
+                case 0:
+                case 1:
+                    Inventory.addPart(new InHouse(0, "Part", random.nextInt(5000) / 100.0,
+                            random.nextInt(60), random.nextInt(10), 50, 1));
+                    break;
+                case 2:
+                    if (part != null) part.setStock(random.nextInt(60));
+                    break;
+                case 3:
+                    if (part != null) part.setPrice(random.nextInt(5000) / 100.0);
+                    break;
+                case 4:
+                    if (part != null) Inventory.updatePart(part, new Outsourced(part.getId(), "Part",
+                            random.nextInt(5000) / 100.0, random.nextInt(60), random.nextInt(10), 50, "Supplier"));
+                    break;
+                default:
+                    if (part != null) Inventory.deletePart(part);
+                    break;
+            }
+            assertMatches(store, step);
+        }
+    }
+
+    private static void assertMatches(PartStore store, int step) {
+        List<Part> parts = Inventory.snapshotParts();
+        long stock = 0;
+        double value = 0;
+        List<Integer> low = new ArrayList<>();
+        List<Integer> priced = new ArrayList<>();
+        for (Part p : parts) {
+            stock += p.getStock();
+            value += p.getPrice() * p.getStock();
+            if (p.getStock() <= p.getMin()) low.add(p.getId());
+            if (p.getPrice() >= 10 && p.getPrice() <= 20) priced.add(p.getId());
+        }
+        assertEquals(parts.size(), store.size(), "step " + step);
+        assertEquals(stock, store.totalStock(), "step " + step);
+        assertEquals(value, store.totalValue(), 1e-6, "step " + step);
+        assertEquals(low, sorted(store.idsAtOrBelowMin()), "step " + step);
+        assertEquals(low.size(), store.countAtOrBelowMin(), "step " + step);
+        assertEquals(priced, sorted(store.idsWithPriceBetween(10, 20)), "step " + step);
+        for (int row = 0; row < store.size(); row++) {
+            Part p = Inventory.lookupPart(store.id(row));
+            assertSame(p, store.part(row), "step " + step);
+            assertEquals(p.getStock() - p.getMin(), store.headroom(row), "step " + step);
+        }
+    }
+
+    private static List<Integer> sorted(int[] ids) {
+        Arrays.sort(ids);
+        List<Integer> list = new ArrayList<>(ids.length);
+        for (int id : ids) list.add(id);
+        return list;
+    }
+}
@@ -0,0 +1,61 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks {@link PostingList} against a sorted set, across chunk splits and merges.
+ *
+ * @author Alex Bright
+ */
+class PostingListTest {
+
+    @Test
+    void matchesSortedSet() {
+        Random random = new Random(482);
+        for (int round = 0; round < 100; round++) {
+            PostingList list = new PostingList();
+            TreeSet<Integer> expected = new TreeSet<>();
+            int range = 1 + random.nextInt(round < 50 ? 100 : 20 * PostingList.CHUNK);
+            for (int op = 0; op < 5_000; op++) {
+                int id = random.nextInt(range);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        assertEquals(expected.remove(id), list.remove(id));
+                        break;
+                    case 1:
+                        assertEquals(expected.contains(id), list.contains(id));
+                        break;
+                    default:
+                        assertEquals(expected.add(id), list.add(id));
+                }
+                assertEquals(expected.size(), list.size());
+            }
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), list.toArray());
+        }
+    }
+
+    @Test
+    void bulkLoadsInAnyOrder() {
+        int count = 100 * PostingList.CHUNK;
+        PostingList ascending = new PostingList();
+        PostingList descending = new PostingList();
+        for (int i = 0; i < count; i++) {
+            ascending.add(i);
+            descending.add(count - 1 - i);
+        }
+        assertArrayEquals(ascending.toArray(), descending.toArray());
+        for (int i = 0; i < count; i += 2) descending.remove(i);
+        List<Integer> visited = new ArrayList<>();
+        descending.forEach(visited::add);
+        assertEquals(count / 2, visited.size());
+        for (int i = 0; i < visited.size(); i++) assertEquals(2 * i + 1, visited.get(i));
+    }
+}
@@ -0,0 +1,60 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Checks {@link TrigramIndex} searches against a linear scan of the names.
+ *
+ * @author Alex Bright
+ */
+class TrigramIndexTest {
+
+    private static final String[] WORDS = {
+            "Wheel", "TIRE", "spring", "Shock", "brake pad", "Pédale", "straße", "İstanbul", "chain", "ab", "a"
+    };
+
+    @Test
+    void matchesLinearScan() {
+        Random random = new Random(482);
+        TreeMap<Integer, String> names = new TreeMap<>();
+        TrigramIndex index = new TrigramIndex(names::get);
+        for (int op = 0; op < 20_000; op++) {
+            int id = 1 + random.nextInt(500);
+            String old = names.get(id);
+            if (old != null) {
+                index.remove(id, old);
+                names.remove(id);
+            }
+            if (random.nextInt(4) > 0) {
+                String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                        + random.nextInt(20);
+                names.put(id, name);
+                index.add(id, name);
+            }
+            if (op % 100 == 0) {
+                for (String query : new String[]{
+                        "whe", "EEL", "e", "ed", "tire sp", "PÉDA", "STRA", "ISTA", "1", "xyz", "brake pad1", ""}) {
+                    assertArrayEquals(scan(names, query), index.search(query), query);
+                }
+            }
+        }
+    }
+
+    private static int[] scan(TreeMap<Integer, String> names, String query) {
+        return names.entrySet().stream()
+                .filter(e -> contains(e.getValue(), query))
+                .mapToInt(e -> e.getKey())
+                .toArray();
+    }
+
+    private static boolean contains(String name, String query) {
+        for (int i = 0; i + query.length() <= name.length(); i++)
+            if (name.regionMatches(true, i, query, 0, query.length())) return true;
+        return false;
+    }
+}
@@ -0,0 +1,224 @@
+package persistence;
+
+import model.InHouse;
+import model.Inventories;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Records changes, closes the journal as a crash or shutdown would leave it, and checks what is restored.
+ *
+ * @author Alex Bright
+ */
+class InventoryJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private InventoryJournal journal;
+
+    @BeforeEach
+    void open() throws IOException {
+        Inventories.clear();
+        journal = InventoryJournal.open(dir);
+        assertFalse(journal.isRecovered());
+    }
+
+    @AfterEach
+    void close() {
+        journal.close();
+        Inventories.clear();
+    }
+
+    private void reopen() throws IOException {
+        journal.close();
+        Inventories.clear();
+        journal = InventoryJournal.open(dir);
+    }
+
+    /**
+     * Makes one of each kind of change, leaving the inventory that {@link #assertMutated()} expects.
+     */
+    private void mutate() {
+        Inventory.addPart(new InHouse(1, "Wheel", 249.99, 24, 1, 48, 15));
+        Inventory.addPart(new Outsourced(2, "Tire", 149.99, 16, 1, 32, "Bright Tire Shop"));
+        Inventory.addPart(new InHouse(3, "Spoke", 1.5, 100, 1, 500, 4));
+        Product combo = new Product(4, "Wheel/Tire Combo", 499.99, 16, 1, 32);
+        Inventory.addProduct(combo);
+        combo.addAssociatedPart(Inventory.lookupPart(1), 2);
+        combo.addAssociatedPart(Inventory.lookupPart(2), 3);
+        combo.addAssociatedPart(Inventory.lookupPart(3), 36);
+        combo.deleteAssociatedPart(Inventory.lookupPart(3), 4);
+        Product bike = new Product(0, "Bike", 899.0, 2, 0, 5);
+        Inventory.addProduct(bike);
+        bike.setComponent(combo, 2);
+
+        Part tire = Inventory.lookupPart(2);
+        Part renamed = new Outsourced(2, "Tubeless Tire", 159.99, 16, 1, 32, "Bright Tire Shop");
+        assertTrue(Inventory.updatePart(tire, renamed));
+        combo.replaceAssociatedPart(tire, renamed);
+        assertEquals(20, Inventory.adjustPartStock(1, -4));
+        Inventory.deletePart(Inventory.lookupPart(3));
+    }
+
+    private static void assertMutated() {
+        Part wheel = Inventory.lookupPart(1);
+        Part tire = Inventory.lookupPart(2);
+        assertEquals(20, wheel.getStock());
+        assertEquals("Tubeless Tire", tire.getName());
+        assertEquals("Bright Tire Shop", ((Outsourced) tire).getCompanyName());
+        assertNull(Inventory.lookupPart(3));
+
+        Product combo = Inventory.lookupProduct(4);
+        assertEquals(3, combo.getAssociatedParts().size());
+        assertSame(wheel, combo.getAssociatedParts().find(1));
+        assertSame(tire, combo.getAssociatedParts().find(2));
+        assertEquals(2, combo.getAssociatedQuantity(wheel));
+        assertEquals(3, combo.getAssociatedQuantity(tire));
+        Part spoke = combo.getAssociatedParts().find(3);
+        assertEquals("Spoke", spoke.getName());
+        assertEquals(32, combo.getAssociatedQuantity(spoke));
+
+        Product bike = Inventory.lookupProduct(1);
+        assertEquals("Bike", bike.getName());
+        assertEquals(Map.of(4, 2), bike.getComponents());
+        assertEquals(1, Inventory.getProductsUsingPart(1).size());
+    }
+
+    @Test
+    void replaysTheJournal() throws IOException {
+        mutate();
+        reopen();
+        assertTrue(journal.isRecovered());
+        assertMutated();
+    }
+
+    @Test
+    void loadsASnapshotAndTheChangesAfterIt() throws IOException {
+        mutate();
+        journal.snapshot();
+        Inventory.adjustPartStock(2, 1);
+        journal.close();
+        assertTrue(Files.size(dir.resolve(InventoryJournal.SNAPSHOT_FILE)) > 0);
+
+        Inventories.clear();
+        journal = InventoryJournal.open(dir);
+        assertTrue(journal.isRecovered());
+        assertEquals(17, Inventory.lookupPart(2).getStock());
+        Inventory.adjustPartStock(2, -1);
+        assertMutated();
+        reopen();
+        assertMutated();
+    }
+
+    @Test
+    void replaysAStockChangeOnThePartProductsUse() throws IOException {
+        mutate();
+        reopen();
+        Inventory.adjustPartStock(1, 5);
+        reopen();
+        Part wheel = Inventory.lookupPart(1);
+        assertEquals(25, wheel.getStock());
+        assertSame(wheel, Inventory.lookupProduct(4).getAssociatedParts().find(1));
+    }
+
+    @Test
+    void dropsATornTail() throws IOException {
+        mutate();
+        journal.close();
+        Path file = dir.resolve(InventoryJournal.JOURNAL_FILE);
+        long size = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        Inventories.clear();
+        journal = InventoryJournal.open(dir);
+        assertMutated();
+        journal.close();
+        assertTrue(Files.size(file) <= size);
+        reopen();
+        assertMutated();
+    }
+
+    @Test
+    void stopsAtARecordThatFailsItsChecksum() throws IOException {
+        mutate();
+        Inventory.addPart(new InHouse(9, "Bell", 5.0, 1, 0, 2, 1));
+        journal.close();
+        Path file = dir.resolve(InventoryJournal.JOURNAL_FILE);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[lastRecord(bytes) + 20] ^= 0x5A;
+        Files.write(file, bytes);
+
+        Inventories.clear();
+        journal = InventoryJournal.open(dir);
+        assertNull(Inventory.lookupPart(9));
+        assertMutated();
+    }
+
+    @Test
+    void refusesASnapshotThatFailsItsChecksum() throws IOException {
+        mutate();
+        journal.snapshot();
+        journal.close();
+        Path file = dir.resolve(InventoryJournal.SNAPSHOT_FILE);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        Inventories.clear();
+        assertThrows(IOException.class, () -> InventoryJournal.open(dir));
+        Files.delete(file);
+        journal = InventoryJournal.open(dir);
+    }
+
+    @Test
+    void reportsAFailureOnce() throws Exception {
+        CompletableFuture<IOException> reported = new CompletableFuture<>();
+        journal.setFailureHandler(e -> {
+            if (!reported.complete(e)) throw new AssertionError("reported twice");
+        });
+        Files.delete(dir.resolve(InventoryJournal.JOURNAL_FILE));
+        Files.delete(dir);
+        journal.snapshot();
+        Inventory.addPart(new InHouse(1, "Wheel", 1.0, 1, 0, 2, 1));
+        journal.snapshot();
+
+        IOException failure = reported.get(10, TimeUnit.SECONDS);
+        assertNotNull(failure);
+        assertSame(failure, journal.getFailure());
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * Finds where the last whole record in journal bytes starts.
+     */
+    private static int lastRecord(byte[] journal) {
+        ByteBuffer buffer = ByteBuffer.wrap(journal);
+        int last = 0;
+        for (int at = 0; at + 8 <= journal.length; at += 8 + buffer.getInt(at)) last = at;
+        return last;
+    }
+}
@@ -0,0 +1,109 @@
+package persistence;
+
+import model.InHouse;
+import model.Inventories;
+import model.Inventory;
+import model.Outsourced;
+import model.Part;
+import model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the snapshot layout reads back what it wrote, and that a body in any other version is refused.
+ *
+ * @author Alex Bright
+ */
+class SnapshotFormatTest {
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    @AfterEach
+    void clear() {
+        Inventories.clear();
+    }
+
+    @Test
+    void readsBackTheCurrentVersion() throws IOException {
+        Inventory.addPart(new InHouse(1, "Wheel", 2.5, 10, 1, 20, 15));
+        Inventory.addPart(new Outsourced(2, "Tire", 2.5, 10, 1, 20, "Bright Tire Shop"));
+        Part spoke = new InHouse(3, "Spoke", 2.5, 10, 1, 20, 4);
+        Inventory.addPart(spoke);
+        Product combo = new Product(4, "Combo", 9.5, 3, 1, 5);
+        Inventory.addProduct(combo);
+        combo.addAssociatedPart(Inventory.lookupPart(1), 2);
+        combo.addAssociatedPart(Inventory.lookupPart(2), 1);
+        combo.addAssociatedPart(spoke, 3);
+        Inventory.deletePart(spoke);
+        Product bike = new Product(5, "Bike", 99.0, 1, 0, 2);
+        Inventory.addProduct(bike);
+        bike.setComponent(combo, 2);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        Inventory.read(() -> {
+            try {
+                SnapshotFormat.encode(out);
+            } catch (IOException e) {
+                throw new AssertionError(e);
+            }
+        });
+        Inventories.clear();
+        decode(SnapshotFormat.VERSION, bytes.toByteArray());
+        assertInventory();
+        assertEquals(Map.of(4, 2), Inventory.lookupProduct(5).getComponents());
+    }
+
+    @Test
+    void refusesAnUnknownVersion() {
+        assertThrows(IOException.class, () -> decode(SnapshotFormat.VERSION + 1, new byte[16]));
+        assertThrows(IOException.class, () -> decode(SnapshotFormat.VERSION - 1, new byte[16]));
+    }
+
+    /**
+     * Checks the inventory that was written: two parts, and a product using both plus a deleted part.
+     */
+    private static void assertInventory() {
+        Part wheel = Inventory.lookupPart(1);
+        Part tire = Inventory.lookupPart(2);
+        assertEquals("Wheel", wheel.getName());
+        assertEquals(15, ((InHouse) wheel).getMachineId());
+        assertEquals("Bright Tire Shop", ((Outsourced) tire).getCompanyName());
+        assertNull(Inventory.lookupPart(3));
+
+        Product combo = Inventory.lookupProduct(4);
+        assertEquals("Combo", combo.getName());
+        assertEquals(9.5, combo.getPrice());
+        assertSame(wheel, combo.getAssociatedParts().find(1));
+        assertSame(tire, combo.getAssociatedParts().find(2));
+        assertArrayEquals(new int[]{2, 1, 3}, new int[]{combo.getAssociatedQuantity(wheel),
+                combo.getAssociatedQuantity(tire), combo.getAssociatedParts().quantityOf(3)});
+        assertEquals("Spoke", combo.getAssociatedParts().find(3).getName());
+    }
+
+    private void decode(int version, byte[] body) throws IOException {
+        Path file = Files.write(dir.resolve("body-" + version), body);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            SnapshotFormat.decode(new MappedInput(channel, channel.size()), version);
+        }
+    }
+}
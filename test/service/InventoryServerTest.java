@@ -0,0 +1,143 @@
+package service;
+
+import model.InHouse;
+import model.Inventories;
+import model.Inventory;
+import model.Part;
+import model.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the HTTP API of a server started on a free port.
+ *
+ * @author Alex Bright
+ */
+class InventoryServerTest {
+
+    private static final String WHEEL =
+            "{\"type\":\"in-house\",\"id\":1,\"name\":\"Wheel\",\"price\":2.5,\"stock\":10,\"min\":0,\"max\":20,\"source\":15}";
+
+    private InventoryServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void start() throws IOException {
+        Inventories.clear();
+        server = InventoryServer.start(0);
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stop() {
+        server.close();
+        Inventories.clear();
+    }
+
+    @Test
+    void addsReadsReplacesAndDeletesAPart() throws Exception {
+        HttpResponse<String> added = send("POST", "/parts", WHEEL);
+        assertEquals(201, added.statusCode());
+        assertTrue(added.body().contains("\"name\":\"Wheel\""));
+        assertEquals("Wheel", Inventory.lookupPart(1).getName());
+
+        assertEquals(409, send("POST", "/parts", WHEEL).statusCode());
+        HttpResponse<String> read = send("GET", "/parts/1", null);
+        assertEquals(200, read.statusCode());
+        assertTrue(read.body().contains("\"stock\":10"));
+        assertEquals(404, send("GET", "/parts/2", null).statusCode());
+        assertEquals(404, send("GET", "/parts/abc", null).statusCode());
+
+        assertEquals(200, send("PUT", "/parts/1", WHEEL.replace("Wheel", "Rim")).statusCode());
+        assertEquals("Rim", Inventory.lookupPart(1).getName());
+        assertEquals(404, send("PUT", "/parts/2", WHEEL).statusCode());
+        assertEquals(400, send("PUT", "/parts/1", WHEEL.replace("\"stock\":10", "\"stock\":99")).statusCode());
+        assertEquals(400, send("POST", "/parts", "").statusCode());
+
+        assertTrue(send("GET", "/parts?name=rim", null).body().contains("\"id\":1"));
+        assertEquals(204, send("DELETE", "/parts/1", null).statusCode());
+        assertNull(Inventory.lookupPart(1));
+        assertEquals(404, send("DELETE", "/parts/1", null).statusCode());
+    }
+
+    @Test
+    void addsAProductWithItsParts() throws Exception {
+        Part wheel = new InHouse(1, "Wheel", 2.50, 10, 0, 20, 15);
+        Inventory.addPart(wheel);
+        String bike = "{\"id\":0,\"name\":\"Bike\",\"price\":99,\"stock\":1,\"min\":0,\"max\":5,"
+                + "\"parts\":\"1\",\"quantities\":\"2\"}";
+        HttpResponse<String> added = send("POST", "/products", bike);
+        assertEquals(201, added.statusCode());
+        Product product = Inventory.lookupProduct(1);
+        assertEquals(2, product.getAssociatedQuantity(wheel));
+        assertEquals(400, send("POST", "/products", bike.replace("\"1\"", "\"7\"")).statusCode());
+        assertEquals(409, send("POST", "/products", bike.replace("\"id\":0", "\"id\":1")).statusCode());
+        assertTrue(send("GET", "/products", null).body().contains("\"name\":\"Bike\""));
+    }
+
+    @Test
+    void adjustsStockByADelta() throws Exception {
+        Inventory.addPart(new InHouse(1, "Wheel", 2.50, 10, 0, 20, 15));
+        HttpResponse<String> taken = send("POST", "/parts/1/stock?delta=-4", null);
+        assertEquals(200, taken.statusCode());
+        assertEquals(6, Inventory.lookupPart(1).getStock());
+        assertEquals(200, send("POST", "/parts/1/stock?delta=%2B3", null).statusCode());
+        assertEquals(9, Inventory.lookupPart(1).getStock());
+
+        assertEquals(409, send("POST", "/parts/1/stock?delta=-10", null).statusCode());
+        assertEquals(409, send("POST", "/parts/1/stock?delta=2147483647", null).statusCode());
+        assertEquals(400, send("POST", "/parts/1/stock?delta=2147483648", null).statusCode());
+        assertEquals(400, send("POST", "/parts/1/stock?delta=-99999999999", null).statusCode());
+        assertEquals(400, send("POST", "/parts/1/stock?delta=two", null).statusCode());
+        assertEquals(400, send("POST", "/parts/1/stock", null).statusCode());
+        assertEquals(404, send("POST", "/parts/2/stock?delta=1", null).statusCode());
+        assertEquals(9, Inventory.lookupPart(1).getStock());
+    }
+
+    @Test
+    void onlyOneOfManyConcurrentAddsWins() throws Exception {
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Integer>> posts = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                String name = "Wheel " + i;
+                posts.add(() -> send("POST", "/parts", WHEEL.replace("Wheel", name)).statusCode());
+            }
+            int created = 0;
+            int conflicts = 0;
+            for (Future<Integer> status : threads.invokeAll(posts)) {
+                if (status.get() == 201) created++;
+                else if (status.get() == 409) conflicts++;
+            }
+            assertEquals(1, created);
+            assertEquals(31, conflicts);
+            assertEquals(1, Inventory.snapshotParts().size());
+        } finally {
+            threads.shutdown();
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}